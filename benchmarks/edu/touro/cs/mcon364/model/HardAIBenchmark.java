@@ -0,0 +1,50 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link HardTicTacToeAI#calculateMove} on fixed positions. The AI keeps no board of its own and reads the
+ * model's {@link Position} on every call, so this is the whole of its cost per move. Whole games against it
+ * are in {@link HardAIGameBenchmark}, which has no positions to run over.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HardAIBenchmark {
+    // Moves already made before the AI (playing O) is asked for its move.
+    private static final Point[][] POSITIONS = {
+            ModelBenchmark.points(),
+            ModelBenchmark.points(0, 0),
+            ModelBenchmark.points(0, 0, 1, 1, 2, 2),
+            ModelBenchmark.points(0, 0, 1, 1, 0, 1),
+    };
+
+    @Param({"0", "1", "2", "3"})
+    public int position;
+
+    private HardTicTacToeAI ai;
+    private TicTacToeModel model;
+
+    @Setup
+    public void setup() {
+        model = new TicTacToeModel();
+        model.startGame(POSITIONS[position].length % 2 == 0 ? CellValue.X : CellValue.O, HardTicTacToeAI::new);
+        for (Point p : POSITIONS[position]) {
+            model.makeMove(p);
+        }
+
+        ai = new HardTicTacToeAI(model);
+    }
+
+    @Benchmark
+    public Point calculateMove() {
+        return ai.calculateMove();
+    }
+}
@@ -0,0 +1,64 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link HardTicTacToeAI} playing a whole game as O through {@link TicTacToeModel#aiMove}, per game. The AI
+ * keeps no board of its own: {@code submitMoveToAI} does nothing, and each {@code calculateMove} starts from
+ * the model's {@link Position}. X's moves are worked out once, in setup, so each game is the same.
+ * {@link ModelBenchmark#makeMoveToDraw} plays moves without an AI, for comparison. Kept apart from
+ * {@link HardAIBenchmark}, whose positions would only run this again.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HardAIGameBenchmark {
+    // X takes the first of these that is free.
+    private static final Point[] X_PREFERENCES = ModelBenchmark.points(1, 1, 0, 0, 2, 2, 0, 2, 2, 0, 0, 1, 1, 0, 1, 2, 2, 1);
+
+    private TicTacToeModel model;
+    private Point[] xMoves;
+
+    @Setup
+    public void setup() {
+        model = new TicTacToeModel();
+        model.startGame(CellValue.O, HardTicTacToeAI::new);
+
+        List<Point> moves = new ArrayList<>();
+        GameState state = GameState.CONTINUE;
+        while (state == GameState.CONTINUE) {
+            for (Point p : X_PREFERENCES) {
+                if (model.getSpace(p.x, p.y) == CellValue.NONE) {
+                    moves.add(p);
+                    state = model.makeMove(p).resultingState;
+                    break;
+                }
+            }
+            if (state == GameState.CONTINUE) {
+                state = model.aiMove().resultingState;
+            }
+        }
+        xMoves = moves.toArray(new Point[0]);
+    }
+
+    @Benchmark
+    public TicTacToeModel playGame() {
+        model.newGame();
+        for (Point p : xMoves) {
+            if (model.makeMove(p).resultingState == GameState.CONTINUE) {
+                model.aiMove();
+            }
+        }
+        return model;
+    }
+}
@@ -0,0 +1,62 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.GameType;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TicTacToeModel#makeMove}, which includes checking for a win. Each invocation replays a whole
+ * scripted game on a reused model, so the numbers are per move.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+    // Ends in a draw, so no move completes a line.
+    private static final Point[] DRAW = points(1, 1, 0, 0, 2, 2, 0, 2, 0, 1, 2, 1, 1, 0, 1, 2, 2, 0);
+    // X wins on the last move, which also builds the winning line.
+    private static final Point[] WIN = points(0, 0, 1, 0, 1, 1, 2, 0, 2, 2);
+
+    private TicTacToeModel model;
+
+    @Setup
+    public void setup() {
+        model = new TicTacToeModel();
+        model.startGame(GameType.HUMAN);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(9)
+    public void makeMoveToDraw(Blackhole bh) {
+        play(DRAW, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(5)
+    public void makeMoveToWin(Blackhole bh) {
+        play(WIN, bh);
+    }
+
+    private void play(Point[] moves, Blackhole bh) {
+        model.newGame();
+        for (Point p : moves) {
+            MoveResult r = model.makeMove(p);
+            bh.consume(r);
+        }
+    }
+
+    static Point[] points(int... coordinates) {
+        Point[] points = new Point[coordinates.length / 2];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new Point(coordinates[2 * i], coordinates[2 * i + 1]);
+        }
+        return points;
+    }
+}
@@ -0,0 +1,54 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Whole games between two AIs, from new models to the final move, the way the tournament runner plays them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayoutBenchmark {
+    @Param({"hard", "perfect", "random"})
+    public String ai;
+
+    private Function<TicTacToeModel, TicTacToeAI> factory;
+
+    @Setup
+    public void setup() {
+        factory = switch (ai) {
+            case "hard" -> HardTicTacToeAI::new;
+            case "perfect" -> PerfectPlayTicTacToeAI::new;
+            case "random" -> RandomTicTacToeAI::new;
+            default -> throw new IllegalArgumentException(ai);
+        };
+    }
+
+    @Benchmark
+    public GameState selfPlay() {
+        TicTacToeModel xModel = new TicTacToeModel(), oModel = new TicTacToeModel();
+        xModel.startGame(CellValue.X, factory);
+        oModel.startGame(CellValue.O, factory);
+
+        boolean xToMove = true;
+        GameState state = GameState.CONTINUE;
+        while (state == GameState.CONTINUE) {
+            MoveResult move = (xToMove ? xModel : oModel).aiMove();
+            (xToMove ? oModel : xModel).makeMove(new Point(move.moveX, move.moveY));
+            state = move.resultingState;
+            xToMove = !xToMove;
+        }
+
+        return state;
+    }
+}
@@ -0,0 +1,50 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving and restoring a model mid-game, through its {@code writeObject} and {@code readObject}, the same
+ * way the GUI's save file does it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    private TicTacToeModel model;
+    private byte[] saved;
+
+    @Setup
+    public void setup() throws IOException {
+        model = new TicTacToeModel();
+        model.startGame(CellValue.O, HardTicTacToeAI::new);
+        model.makeMove(new Point(1, 1));
+        model.aiMove();
+        model.makeMove(model.getSpace(0, 0) == CellValue.NONE ? new Point(0, 0) : new Point(2, 2));
+
+        saved = save();
+    }
+
+    @Benchmark
+    public byte[] save() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(model);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public TicTacToeModel restore() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(saved))) {
+            return (TicTacToeModel) in.readObject();
+        }
+    }
+}
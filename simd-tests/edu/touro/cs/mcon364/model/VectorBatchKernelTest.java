@@ -0,0 +1,60 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VectorBatchKernelTest {
+    @org.junit.jupiter.api.Test
+    void testAgreesWithScalar() {
+        int games = 4099; // not a whole number of vectors, so the tail is covered
+        BatchSimulator vector = new BatchSimulator(games, new VectorBatchKernel());
+        BatchSimulator scalar = new BatchSimulator(games, BatchSimulator.scalarKernel());
+        SplittableRandom random = new SplittableRandom(11);
+        int[] moves = new int[games];
+
+        for (int step = 0; step < 10; step++) {
+            for (int i = 0; i < games; i++) {
+                // mostly legal moves, some into taken cells or off the board either side, some skipped
+                moves[i] = random.nextInt(14) - 3;
+            }
+            vector.play(moves);
+            scalar.play(moves);
+        }
+
+        for (int i = 0; i < games; i++) {
+            assertEquals(scalar.getStatus(i), vector.getStatus(i));
+            assertEquals(scalar.getMask(i, CellValue.X), vector.getMask(i, CellValue.X));
+            assertEquals(scalar.getMask(i, CellValue.O), vector.getMask(i, CellValue.O));
+            assertEquals(scalar.getToMove(i), vector.getToMove(i));
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testOnlyNoMoveSkipsATurn() {
+        int games = 64; // whole vectors, so no game goes through the scalar tail
+        BatchSimulator batch = new BatchSimulator(games, new VectorBatchKernel());
+        int[] moves = new int[games];
+        for (int i = 0; i < games; i++) {
+            moves[i] = i % 4 == 0 ? BatchSimulator.NO_MOVE : i % 4 == 1 ? -2 : i % 4 == 2 ? Bitboard.CELLS : 4;
+        }
+        batch.play(moves);
+
+        for (int i = 0; i < games; i++) {
+            int expected = i % 4 == 0 || i % 4 == 3 ? BatchSimulator.CONTINUE : BatchSimulator.FORFEIT;
+            assertEquals(expected, batch.getStatus(i));
+        }
+        assertEquals(0, batch.getMask(0, CellValue.X));
+        assertEquals(1 << 4, batch.getMask(3, CellValue.X));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testIsTheBestKernel() {
+        // This module runs with the vector module, so BatchSimulator must pick the kernel up.
+        if (Boolean.parseBoolean(System.getProperty("tictactoe.simd", "true"))) {
+            assertTrue(BatchSimulator.bestKernel() instanceof VectorBatchKernel);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package edu.touro.cs.mcon364.model;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import static edu.touro.cs.mcon364.model.BatchSimulator.*;
+
+/**
+ * {@link BatchSimulator}'s kernel on the incubating Vector API: each step handles as many games as fit in
+ * one vector register, without a branch per game. Games are masked in and out of each step instead:
+ * finished ones, ones without a move, and forfeits. The games left over at the end, fewer than one
+ * register's worth, go through the scalar kernel.
+ * <p>
+ * Lives in its own source root, compiled and run with {@code --add-modules jdk.incubator.vector}, so the
+ * rest of the game builds without the incubator module. BatchSimulator finds it by name. Its tests are
+ * in {@code simd-tests}, which run the same way.
+ */
+public final class VectorBatchKernel implements BatchSimulator.Kernel {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final IntVector ONE = IntVector.broadcast(SPECIES, 1);
+
+    @Override
+    public void play(int[] xMasks, int[] oMasks, int[] toMove, int[] status, int[] moves, int from, int to) {
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            IntVector st = IntVector.fromArray(SPECIES, status, i);
+            IntVector cell = IntVector.fromArray(SPECIES, moves, i);
+
+            VectorMask<Integer> moving = st.eq(CONTINUE).and(cell.compare(VectorOperators.NE, NO_MOVE));
+            if (!moving.anyTrue()) {
+                continue;
+            }
+
+            IntVector x = IntVector.fromArray(SPECIES, xMasks, i);
+            IntVector o = IntVector.fromArray(SPECIES, oMasks, i);
+            IntVector turn = IntVector.fromArray(SPECIES, toMove, i);
+
+            // Shift counts wrap, so an off-board cell gives some bit or other; those lanes forfeit anyway.
+            IntVector bit = ONE.lanewise(VectorOperators.LSHL, cell);
+            VectorMask<Integer> legal = moving
+                    .and(cell.compare(VectorOperators.GE, 0))
+                    .and(cell.compare(VectorOperators.LT, Bitboard.CELLS))
+                    .and(x.or(o).and(bit).eq(0));
+            VectorMask<Integer> xMoves = legal.and(turn.eq(X_TO_MOVE));
+            VectorMask<Integer> oMoves = legal.andNot(xMoves);
+
+            x = x.blend(x.or(bit), xMoves);
+            o = o.blend(o.or(bit), oMoves);
+
+            // the same lines TicTacToeModel scores, checked for every lane at once
+            IntVector mover = x.blend(o, oMoves);
+            VectorMask<Integer> won = mover.and(Bitboard.WIN_MASKS[0]).eq(Bitboard.WIN_MASKS[0]);
+            for (int w = 1; w < Bitboard.WIN_MASKS.length; w++) {
+                won = won.or(mover.and(Bitboard.WIN_MASKS[w]).eq(Bitboard.WIN_MASKS[w]));
+            }
+            won = won.and(legal);
+            VectorMask<Integer> full = x.or(o).eq(Bitboard.FULL).and(legal).andNot(won);
+
+            st = st.blend(X_WIN, won.and(xMoves))
+                    .blend(O_WIN, won.and(oMoves))
+                    .blend(DRAW, full)
+                    .blend(FORFEIT, moving.andNot(legal));
+            turn = turn.blend(turn.lanewise(VectorOperators.XOR, 1), legal);
+
+            x.intoArray(xMasks, i);
+            o.intoArray(oMasks, i);
+            turn.intoArray(toMove, i);
+            st.intoArray(status, i);
+        }
+
+        BatchSimulator.scalarKernel().play(xMasks, oMasks, toMove, status, moves, i, to);
+    }
+
+    @Override
+    public String name() {
+        return "vector x" + SPECIES.length();
+    }
+}
@@ -1,10 +1,21 @@
 package edu.touro.cs.mcon364;
 
 import edu.touro.cs.mcon364.gui.TicTacToeGUI;
+import edu.touro.cs.mcon364.metrics.Metrics;
+import edu.touro.cs.mcon364.metrics.MetricsServer;
+
+import java.io.IOException;
 
 public class Main {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        // e.g. -Dtictactoe.metrics.port=9464 to let a local scraper read how the game is doing
+        Integer metricsPort = Integer.getInteger(MetricsServer.PORT_PROPERTY);
+        if (metricsPort != null) {
+            Metrics.setEnabled(true);
+            new MetricsServer(metricsPort);
+        }
+
         new TicTacToeGUI();
     }
 }
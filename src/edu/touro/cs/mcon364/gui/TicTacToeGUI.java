@@ -1,29 +1,62 @@
 package edu.touro.cs.mcon364.gui;
 
+import edu.touro.cs.mcon364.model.Bitboard;
+import edu.touro.cs.mcon364.model.Position;
 import edu.touro.cs.mcon364.model.TicTacToeModel;
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
 import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult;
 import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+import edu.touro.cs.mcon364.persistence.SaveStore;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.Serial;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static edu.touro.cs.mcon364.model.TicTacToeModel.GameType.COMPUTER;
 import static edu.touro.cs.mcon364.model.TicTacToeModel.GameType.HUMAN;
 
-public class TicTacToeGUI extends JFrame implements Serializable {
+public class TicTacToeGUI extends JFrame {
     private TicTacToeModel model;
-    private transient JSquare[][] board;
-    private transient JLabel currTurn;
-    private final JCheckBox aiCheckBox;
-    private transient final JButton save, restore;
-
-    // static fields aren't serialized
-    private static final int WIDTH = 317, HEIGHT = 295;
+    private final JSquare[][] board;
+    private final JLabel currTurn;
+    private final JCheckBox aiCheckBox, autosave;
+    private final JButton save, restore, undo, redo;
+
+    // Saves are written in the background, so the UI never waits on the disk. Every change to the game
+    // counts up; a save that finishes marks the count it was taken at as saved, and one that fails doesn't.
+    private final SaveStore saveStore = new SaveStore(Path.of(SAVE_FILE));
+    private long changes, savedChanges;
+
+    // The AI thinks on its own thread. Each AI move started gets a new generation, and anything that
+    // comes back for an older one (a late progress report, say) is dropped. A cancelled move stays pending
+    // until the AI has returned, and whatever resets or replaces the model waits in line for it.
+    private static final ExecutorService AI_THREAD = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "ai-worker");
+        t.setDaemon(true);
+        return t;
+    });
+    private CompletableFuture<MoveResult> pendingAiMove;
+    private int aiGeneration;
+    private final Deque<Runnable> afterAiStops = new ArrayDeque<>();
+
+    private static final int WIDTH = 317, HEIGHT = 330;
     private static final Dimension BUTTON_DIMENSIONS = new Dimension(50, 50);
     private static final String TURN_BUFFER = "   ", TURN_LABEL = "'s turn.";
+    private static final String SAVE_FILE = "save.bin";
+    private static final int AUTOSAVE_MILLIS = 10_000;
 
     @Serial
     private static final long serialVersionUID = 42L;
@@ -36,6 +69,15 @@ public class TicTacToeGUI extends JFrame implements Serializable {
         setSize(WIDTH, HEIGHT);
         setDefaultCloseOperation(EXIT_ON_CLOSE);
 
+        // Listeners run before the frame exits, so a save still queued gets written first.
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                cancelAiMove();
+                saveStore.close();
+            }
+        });
+
         // Makes the JFrame appear in the center of the screen.
         setLocationRelativeTo(null);
 
@@ -43,9 +85,18 @@ public class TicTacToeGUI extends JFrame implements Serializable {
         JPanel savePanel = new JPanel(new BorderLayout());
 
         save = new JButton("Save");
-        save.addActionListener(new SaveListener(this));
+        save.addActionListener(e -> saveGame());
         save.setEnabled(false);
 
+        // Saves every few seconds while a game with unsaved moves is in progress.
+        autosave = new JCheckBox("Autosave");
+        autosave.setHorizontalAlignment(SwingConstants.CENTER);
+        new Timer(AUTOSAVE_MILLIS, e -> {
+            if (autosave.isSelected() && changes != savedChanges && save.isEnabled()) {
+                saveGame();
+            }
+        }).start();
+
         restore = new JButton("Restore");
         restore.addActionListener(e -> loadSave());
         restore.setEnabled(false);
@@ -54,6 +105,7 @@ public class TicTacToeGUI extends JFrame implements Serializable {
         padding.setPreferredSize(new Dimension(0, 1));
 
         savePanel.add(save, BorderLayout.WEST);
+        savePanel.add(autosave, BorderLayout.CENTER);
         savePanel.add(restore, BorderLayout.EAST);
         savePanel.add(padding, BorderLayout.SOUTH);
         savePanel.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 0, Color.black));
@@ -78,6 +130,23 @@ public class TicTacToeGUI extends JFrame implements Serializable {
             boardPanel.add(row);
         }
 
+        // Set up history bar
+        JPanel historyPanel = new JPanel(new FlowLayout());
+
+        undo = new JButton("Undo");
+        undo.addActionListener(e -> undoMove());
+        undo.setEnabled(false);
+
+        redo = new JButton("Redo");
+        redo.addActionListener(e -> redoMove());
+        redo.setEnabled(false);
+
+        historyPanel.add(undo);
+        historyPanel.add(redo);
+
+        JPanel centerPanel = new JPanel(new BorderLayout());
+        centerPanel.add(boardPanel, BorderLayout.CENTER);
+        centerPanel.add(historyPanel, BorderLayout.SOUTH);
 
         // Set up info panel
         JPanel bottomInfo = new JPanel(new BorderLayout(5, 0));
@@ -98,7 +167,7 @@ public class TicTacToeGUI extends JFrame implements Serializable {
         // Compile
         JPanel mainPanel = new JPanel(new BorderLayout());
         mainPanel.add(savePanel, BorderLayout.NORTH);
-        mainPanel.add(boardPanel, BorderLayout.CENTER);
+        mainPanel.add(centerPanel, BorderLayout.CENTER);
         mainPanel.add(bottomInfo, BorderLayout.SOUTH);
 
         add(mainPanel, BorderLayout.CENTER);
@@ -107,25 +176,126 @@ public class TicTacToeGUI extends JFrame implements Serializable {
         setVisible(true);
     }
 
-    // initialization
+    // saving
+    private void saveGame() {
+        long saving = changes;
+        saveStore.save(model).whenComplete((r, ex) -> SwingUtilities.invokeLater(() -> {
+            if (ex != null) {
+                JOptionPane.showMessageDialog(this, "Save failed!", "Error", JOptionPane.ERROR_MESSAGE);
+            } else {
+                savedChanges = Math.max(savedChanges, saving);
+            }
+        }));
+    }
+
     private void loadSave() {
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream("save.bin"))) {
-            TicTacToeGUI tttg = (TicTacToeGUI) ois.readObject();
-            model = tttg.model;
+        saveStore.load().whenComplete((saved, ex) -> SwingUtilities.invokeLater(() -> {
+            if (ex != null || saved.isEmpty() || !saved.get().isClassic()) {
+                JOptionPane.showMessageDialog(
+                        this, "Restore failed!", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
 
-            for (int x = 0; x < 3; x++) {
-                for (int y = 0; y < 3; y++) {
-                    board[x][y].setText(tttg.board[x][y].getText());
+            whenAiStopped(() -> {
+                model = saved.get();
+                showModel();
+                if (isComputersTurn()) {
+                    startAiMove();
                 }
+            });
+        }));
+    }
+
+    // Rebuilds the whole view from the model.
+    private void showModel() {
+        for (int x = 0; x < 3; x++) {
+            for (int y = 0; y < 3; y++) {
+                CellValue v = model.getSpace(x, y);
+                board[x][y].setText(v == CellValue.NONE ? "" : v.getRepr());
+                board[x][y].setEnabled(true);
             }
+        }
+
+        currTurn.setText(TURN_BUFFER + model.previousPlayer().other().getRepr() + TURN_LABEL);
+        aiCheckBox.setSelected(model.getAiTeam() != CellValue.NONE);
+        aiCheckBox.setEnabled(false);
+        save.setEnabled(true);
+        restore.setEnabled(true);
+        savedChanges = changes;
+        updateHistoryButtons();
+
+        GameState state = Position.state(model.getPosition());
+        if (state != GameState.CONTINUE) {
+            showGameOver(state, winningLines(state));
+        }
+    }
 
-            currTurn.setText(tttg.currTurn.getText());
-            aiCheckBox.setSelected(tttg.aiCheckBox.isSelected());
+    // The lines the winner has, for a position that wasn't reached by a move just made.
+    private List<Point[]> winningLines(GameState state) {
+        List<Point[]> lines = new ArrayList<>();
+        if (state == GameState.DRAW) {
+            return lines;
+        }
 
-        } catch (IOException | ClassNotFoundException ex) {
-            JOptionPane.showMessageDialog(
-                    this, "Restore failed!", "Error", JOptionPane.ERROR_MESSAGE);
+        int stones = model.getMask(state == GameState.X_WIN ? CellValue.X : CellValue.O);
+        for (int line : Bitboard.WIN_MASKS) {
+            if ((stones & line) == line) {
+                Point[] points = new Point[Bitboard.SIZE];
+                for (int cell = 0, i = 0; cell < Bitboard.CELLS; cell++) {
+                    if ((line & 1 << cell) != 0) {
+                        points[i++] = new Point(cell / Bitboard.SIZE, cell % Bitboard.SIZE);
+                    }
+                }
+                lines.add(points);
+            }
         }
+        return lines;
+    }
+
+    // history
+    // Against the computer, moves are taken back and put back until it's the player's turn again.
+    private void undoMove() {
+        whenAiStopped(() -> {
+            if (!model.canUndo()) {
+                return; // already undone while waiting
+            }
+            do {
+                model.undoMove();
+            } while (model.canUndo() && isComputersTurn());
+
+            showModel();
+            changes++;
+            if (isComputersTurn()) {
+                startAiMove(); // everything was undone, and the computer moves first
+            }
+        });
+    }
+
+    private void redoMove() {
+        whenAiStopped(() -> {
+            if (!model.canRedo()) {
+                return;
+            }
+            MoveResult mv;
+            do {
+                mv = model.redoMove();
+            } while (mv.resultingState == GameState.CONTINUE && model.canRedo() && isComputersTurn());
+
+            showModel(); // shows the result, if the game is over again
+            changes++;
+            if (mv.resultingState == GameState.CONTINUE && isComputersTurn()) {
+                startAiMove();
+            }
+        });
+    }
+
+    private boolean isComputersTurn() {
+        return model.getAiTeam() == model.previousPlayer().other();
+    }
+
+    private void updateHistoryButtons() {
+        undo.setEnabled(model.canUndo());
+        redo.setEnabled(model.canRedo());
     }
 
     // gameplay
@@ -134,15 +304,21 @@ public class TicTacToeGUI extends JFrame implements Serializable {
 
         board[mv.moveX][mv.moveY].setText(previousPlayer.getRepr());
         currTurn.setText(TURN_BUFFER + previousPlayer.other().getRepr() + TURN_LABEL);
+        changes++;
+        updateHistoryButtons();
 
         if (mv.resultingState == GameState.CONTINUE) {
             if (aiCheckBox.isSelected() && model.getAiTeam() == previousPlayer.other()) {
-                processMoveResult(model.aiMove());
+                startAiMove();
             }
             return;
         }
 
-        if (mv.resultingState != GameState.DRAW) {
+        showGameOver(mv.resultingState, mv.affectedLines);
+    }
+
+    private void showGameOver(GameState state, List<Point[]> lines) {
+        if (state != GameState.DRAW) {
             // Show winning lines
             for (int i = 0; i < 3; i++) {
                 for (int j = 0; j < 3; j++) {
@@ -150,7 +326,7 @@ public class TicTacToeGUI extends JFrame implements Serializable {
                 }
             }
 
-            for (Point[] line : mv.affectedLines) {
+            for (Point[] line : lines) {
                 for (Point p : line) {
                     board[p.x][p.y].setEnabled(true);
                 }
@@ -158,7 +334,7 @@ public class TicTacToeGUI extends JFrame implements Serializable {
         }
 
         // If the game isn't continuing, it has ended
-        String msg = switch (mv.resultingState) {
+        String msg = switch (state) {
             case X_WIN -> "X won the game.";
             case O_WIN -> "O won the game.";
             case DRAW -> "The game is a draw.";
@@ -170,6 +346,62 @@ public class TicTacToeGUI extends JFrame implements Serializable {
         restore.setEnabled(false);
     }
 
+    private void startAiMove() {
+        int generation = ++aiGeneration;
+        currTurn.setText(TURN_BUFFER + "Thinking...");
+
+        pendingAiMove = model.aiMoveAsync(AI_THREAD, SwingUtilities::invokeLater, (move, depth) ->
+                SwingUtilities.invokeLater(() -> {
+                    if (generation == aiGeneration && pendingAiMove != null) {
+                        currTurn.setText(TURN_BUFFER + "Thinking... (depth " + depth + ")");
+                    }
+                }));
+
+        // Completes on the EDT, once the AI has returned, even if the move was cancelled.
+        pendingAiMove.whenComplete((mv, ex) -> {
+            pendingAiMove = null;
+            if (generation != aiGeneration || ex instanceof CancellationException) {
+                runAfterAiStops();
+                return;
+            }
+
+            if (ex != null) {
+                currTurn.setText(TURN_BUFFER + "The computer gave up.");
+                JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            processMoveResult(mv);
+        });
+    }
+
+    // Asks the AI to stop if it's thinking. The move stays pending until the AI has returned.
+    private void cancelAiMove() {
+        aiGeneration++;
+        if (pendingAiMove != null) {
+            pendingAiMove.cancel(true);
+        }
+    }
+
+    // Runs an action that resets or replaces the model once the AI has let go of it: straight away if it
+    // isn't thinking, otherwise after the cancelled move is dropped. Actions run in the order they came.
+    private void whenAiStopped(Runnable action) {
+        afterAiStops.add(action);
+        if (pendingAiMove == null) {
+            runAfterAiStops();
+        } else {
+            cancelAiMove();
+        }
+    }
+
+    private void runAfterAiStops() {
+        while (pendingAiMove == null && !afterAiStops.isEmpty()) {
+            afterAiStops.remove().run();
+        }
+        if (!afterAiStops.isEmpty()) {
+            cancelAiMove(); // an action started the AI again, and the next one needs it stopped
+        }
+    }
+
     // listeners
     private class MoveListener implements ActionListener {
 
@@ -177,6 +409,10 @@ public class TicTacToeGUI extends JFrame implements Serializable {
         public void actionPerformed(ActionEvent e) {
             JSquare s = (JSquare) e.getSource();
 
+            if (pendingAiMove != null) {
+                return; // the computer is thinking
+            }
+
             MoveResult moveResult;
 
             try {
@@ -195,6 +431,10 @@ public class TicTacToeGUI extends JFrame implements Serializable {
 
         @Override
         public void actionPerformed(ActionEvent e) {
+            whenAiStopped(this::newGame);
+        }
+
+        private void newGame() {
             model.newGame();
 
             for (int x = 0; x < 3; x++) {
@@ -210,56 +450,11 @@ public class TicTacToeGUI extends JFrame implements Serializable {
             restore.setEnabled(true);
 
             currTurn.setText(TURN_BUFFER + 'X' + TURN_LABEL);
+            updateHistoryButtons();
 
             if (model.getAiTeam() == TicTacToeModel.CellValue.X) {
-                processMoveResult(model.aiMove());
-            }
-        }
-    }
-
-    private static class SaveListener implements ActionListener {
-        private final TicTacToeGUI tttg;
-
-        public SaveListener(TicTacToeGUI tttg) {
-            this.tttg = tttg;
-        }
-
-        @Override
-        public void actionPerformed(ActionEvent e) {
-            try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream("save.bin"))) {
-                oos.writeObject(tttg);
-            } catch (IOException ex) {
-                JOptionPane.showMessageDialog(tttg, "Save failed!", "Error", JOptionPane.ERROR_MESSAGE);
-                ex.printStackTrace();
-            }
-        }
-    }
-
-    @Serial
-    private void writeObject(ObjectOutputStream s) throws IOException {
-        s.defaultWriteObject();
-
-        for (int x = 0; x < 3; x++) {
-            for (int y = 0; y < 3; y++) {
-                s.writeObject(board[x][y]);
+                startAiMove();
             }
         }
-
-        s.writeObject(aiCheckBox.isSelected());
-    }
-
-    @Serial
-    private void readObject(ObjectInputStream s) throws IOException, ClassNotFoundException {
-        s.defaultReadObject();
-
-        board = new JSquare[3][3];
-
-        for (int x = 0; x < 3; x++) {
-            for (int y = 0; y < 3; y++) {
-                board[x][y] = (JSquare) s.readObject();
-            }
-        }
-
-        currTurn = new JLabel(TURN_BUFFER + model.previousPlayer().other().getRepr() + TURN_LABEL);
     }
 }
@@ -0,0 +1,45 @@
+package edu.touro.cs.mcon364.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One {@code TicTacToeAI.calculateMove}. Its duration is how long the AI thought; compare it with the GC
+ * and safepoint events in the same recording to see where a slow move went.
+ */
+@Name(AiMoveEvent.NAME)
+@Label("AI Move")
+@Category({"Tic Tac Toe", "AI"})
+@Description("An AI working out its move")
+@StackTrace(false)
+public final class AiMoveEvent extends jdk.jfr.Event {
+    public static final String NAME = "tictactoe.AiMove";
+
+    @Label("AI")
+    public Class<?> ai;
+
+    @Label("X")
+    @Description("-1 if the AI failed")
+    public int x = -1;
+
+    @Label("Y")
+    @Description("-1 if the AI failed")
+    public int y = -1;
+
+    @Label("Depth")
+    @Description("How many plies deep the move was searched, 0 for AIs that don't search")
+    public int depth;
+
+    @Label("Nodes")
+    @Description("Positions searched, or playouts for Monte Carlo, 0 for AIs that don't search")
+    public long nodes;
+
+    @Label("Board Width")
+    public int width;
+
+    @Label("Board Height")
+    public int height;
+}
@@ -0,0 +1,32 @@
+package edu.touro.cs.mcon364.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * {@code TicTacToeModel.startGame}: a game against a person or the computer begins.
+ */
+@Name(GameStartEvent.NAME)
+@Label("Game Start")
+@Category({"Tic Tac Toe", "Game"})
+@StackTrace(false)
+public final class GameStartEvent extends jdk.jfr.Event {
+    public static final String NAME = "tictactoe.GameStart";
+
+    @Label("Board Width")
+    public int width;
+
+    @Label("Board Height")
+    public int height;
+
+    @Label("Win Length")
+    public int winLength;
+
+    @Label("AI Team")
+    public String aiTeam;
+
+    @Label("AI")
+    public Class<?> ai;
+}
@@ -0,0 +1,36 @@
+package edu.touro.cs.mcon364.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A move played with {@code TicTacToeModel.makeMove}, by a person or the AI. Its duration covers updating
+ * the board, the AI and the listeners.
+ */
+@Name(MoveEvent.NAME)
+@Label("Move")
+@Category({"Tic Tac Toe", "Game"})
+@Description("A move played on the board")
+@StackTrace(false)
+public final class MoveEvent extends jdk.jfr.Event {
+    public static final String NAME = "tictactoe.Move";
+
+    @Label("X")
+    public int x;
+
+    @Label("Y")
+    public int y;
+
+    @Label("Player")
+    public String player;
+
+    @Label("Move Number")
+    @Description("1 for the first move of the game")
+    public int moveNumber;
+
+    @Label("Resulting State")
+    public String resultingState;
+}
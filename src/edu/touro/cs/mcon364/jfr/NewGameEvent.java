@@ -0,0 +1,20 @@
+package edu.touro.cs.mcon364.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * {@code TicTacToeModel.newGame}: the board is cleared.
+ */
+@Name(NewGameEvent.NAME)
+@Label("New Game")
+@Category({"Tic Tac Toe", "Game"})
+@StackTrace(false)
+public final class NewGameEvent extends jdk.jfr.Event {
+    public static final String NAME = "tictactoe.NewGame";
+
+    @Label("Moves Cleared")
+    public int movesCleared;
+}
@@ -0,0 +1,31 @@
+package edu.touro.cs.mcon364.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A save read back and decoded by {@code SaveStore}.
+ */
+@Name(RestoreEvent.NAME)
+@Label("Restore")
+@Category({"Tic Tac Toe", "Persistence"})
+@StackTrace(false)
+public final class RestoreEvent extends jdk.jfr.Event {
+    public static final String NAME = "tictactoe.Restore";
+
+    @Label("File")
+    public String file;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Found")
+    public boolean found;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
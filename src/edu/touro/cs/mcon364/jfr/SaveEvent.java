@@ -0,0 +1,28 @@
+package edu.touro.cs.mcon364.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A save written to disk by {@code SaveStore}, including the fsyncs.
+ */
+@Name(SaveEvent.NAME)
+@Label("Save")
+@Category({"Tic Tac Toe", "Persistence"})
+@StackTrace(false)
+public final class SaveEvent extends jdk.jfr.Event {
+    public static final String NAME = "tictactoe.Save";
+
+    @Label("File")
+    public String file;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
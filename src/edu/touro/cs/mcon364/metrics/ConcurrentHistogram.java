@@ -0,0 +1,96 @@
+package edu.touro.cs.mcon364.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A latency histogram any number of threads can record into at once, without locks. It uses the same
+ * buckets as {@link edu.touro.cs.mcon364.tools.LatencyHistogram}.
+ * <p>
+ * Recording is an atomic increment of one bucket plus two {@link LongAdder} adds. The maximum is only
+ * compare-and-set when it actually grows, which after warmup is almost never. Reading while others record
+ * gives a view that may be a few values behind, never a corrupt one.
+ */
+public class ConcurrentHistogram {
+    private final AtomicLongArray counts = new AtomicLongArray(LogLinearBuckets.COUNT);
+    private final LongAdder count = new LongAdder(), total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+
+        counts.incrementAndGet(LogLinearBuckets.bucketOf(value));
+        count.increment();
+        total.add(value);
+
+        long m = max.get();
+        while (value > m && !max.compareAndSet(m, value)) {
+            m = max.get();
+        }
+    }
+
+    public void reset() {
+        for (int i = 0; i < LogLinearBuckets.COUNT; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.set(0);
+    }
+
+    // getters
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotal() {
+        return total.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the highest value in the bucket the percentile falls in, so it never underestimates
+     */
+    public long getPercentile(double percentile) {
+        return getPercentiles(percentile)[0];
+    }
+
+    /**
+     * Several percentiles in one pass over the buckets, so they all come from the same counts.
+     *
+     * @param percentiles between 0 and 100, in ascending order
+     */
+    public long[] getPercentiles(double... percentiles) {
+        long[] snapshot = new long[LogLinearBuckets.COUNT];
+        long n = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+
+        long[] values = new long[percentiles.length];
+        long highest = max.get();
+        if (n == 0) {
+            return values;
+        }
+
+        long seen = 0;
+        int bucket = 0;
+        for (int p = 0; p < percentiles.length; p++) {
+            long rank = Math.max(1, (long) Math.ceil(percentiles[p] / 100 * n));
+            while (bucket < snapshot.length - 1 && seen + snapshot[bucket] < rank) {
+                seen += snapshot[bucket++];
+            }
+            values[p] = Math.min(highest, LogLinearBuckets.highestValueIn(bucket));
+        }
+
+        return values;
+    }
+}
@@ -0,0 +1,40 @@
+package edu.touro.cs.mcon364.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count that only goes up. Backed by a {@link LongAdder}, so threads incrementing it at once don't
+ * fight over one cache line. Does nothing while metrics are off.
+ */
+public class Counter {
+    private final String name, labels;
+    private final LongAdder count = new LongAdder();
+
+    Counter(String name, String labels) {
+        this.name = name;
+        this.labels = labels;
+    }
+
+    public void increment() {
+        if (Metrics.isEnabled()) {
+            count.increment();
+        }
+    }
+
+    void reset() {
+        count.reset();
+    }
+
+    // getters
+    public String getName() {
+        return name;
+    }
+
+    public String getLabels() {
+        return labels;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+}
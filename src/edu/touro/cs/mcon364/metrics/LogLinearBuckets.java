@@ -0,0 +1,34 @@
+package edu.touro.cs.mcon364.metrics;
+
+/**
+ * The bucket layout shared by the latency histograms: exact below 64, and within about 3% above that, for
+ * any value a long can hold. Finding a value's bucket is a couple of shifts.
+ */
+public final class LogLinearBuckets {
+    private static final int SUB_BITS = 5, SUB_BUCKETS = 1 << SUB_BITS;
+    public static final int COUNT = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private LogLinearBuckets() {
+    }
+
+    // Values below 2 * SUB_BUCKETS get a bucket each. Above that, each power of two is split into
+    // SUB_BUCKETS buckets, using the bits just below the highest one.
+    public static int bucketOf(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    public static long highestValueIn(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+
+        int shift = bucket / SUB_BUCKETS - 1;
+        long sub = bucket - (long) shift * SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+}
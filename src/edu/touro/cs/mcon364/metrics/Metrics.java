@@ -0,0 +1,113 @@
+package edu.touro.cs.mcon364.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * Where the timers and counters live. Instrumented classes get theirs once, into static fields, so the hot
+ * path never looks anything up:
+ * <pre>
+ *     private static final Timer MAKE_MOVE = Metrics.timer("model_make_move");
+ * </pre>
+ * Metrics are off unless the {@value #ENABLED_PROPERTY} system property is true, or until
+ * {@link #setEnabled} turns them on. While off, timing an operation costs one volatile read.
+ * <p>
+ * {@link #snapshot()} reads everything recorded so far; {@link MetricsServer} serves it over HTTP.
+ */
+public final class Metrics {
+    public static final String ENABLED_PROPERTY = "tictactoe.metrics";
+    /** What {@link #start()} returns while metrics are off. */
+    public static final long NOT_TIMED = Long.MIN_VALUE;
+
+    private static final Pattern NAME = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+    private static final ConcurrentMap<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    private Metrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * @return the time now, for {@link Timer#stop}, or {@link #NOT_TIMED} if metrics are off
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : NOT_TIMED;
+    }
+
+    // registry
+    public static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(key(name, ""), k -> new Timer(name, ""));
+    }
+
+    /**
+     * A timer for one value of a label, like the decision rule behind an AI's move.
+     */
+    public static Timer timer(String name, String label, String value) {
+        String labels = labels(label, value);
+        return TIMERS.computeIfAbsent(key(name, labels), k -> new Timer(name, labels));
+    }
+
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(key(name, ""), k -> new Counter(name, ""));
+    }
+
+    public static Counter counter(String name, String label, String value) {
+        String labels = labels(label, value);
+        return COUNTERS.computeIfAbsent(key(name, labels), k -> new Counter(name, labels));
+    }
+
+    /**
+     * Reads every timer and counter. Safe to call while they are being recorded into.
+     */
+    public static MetricsSnapshot snapshot() {
+        List<MetricsSnapshot.TimerSnapshot> timers = new ArrayList<>();
+        for (Timer t : TIMERS.values()) {
+            timers.add(new MetricsSnapshot.TimerSnapshot(t));
+        }
+
+        List<MetricsSnapshot.CounterSnapshot> counters = new ArrayList<>();
+        for (Counter c : COUNTERS.values()) {
+            counters.add(new MetricsSnapshot.CounterSnapshot(c));
+        }
+
+        return new MetricsSnapshot(System.currentTimeMillis(), timers, counters);
+    }
+
+    /**
+     * Zeroes everything recorded so far. The timers and counters themselves stay registered.
+     */
+    public static void reset() {
+        for (Timer t : TIMERS.values()) {
+            t.getHistogram().reset();
+        }
+        for (Counter c : COUNTERS.values()) {
+            c.reset();
+        }
+    }
+
+    private static String key(String name, String labels) {
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Bad metric name: " + name);
+        }
+        return name + '{' + labels + '}';
+    }
+
+    private static String labels(String label, String value) {
+        if (!NAME.matcher(label).matches()) {
+            throw new IllegalArgumentException("Bad label name: " + label);
+        }
+        return label + "=\"" + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + '"';
+    }
+}
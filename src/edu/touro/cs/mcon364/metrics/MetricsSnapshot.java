@@ -0,0 +1,159 @@
+package edu.touro.cs.mcon364.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Everything the timers and counters had recorded at one moment, sorted by name and then labels.
+ * <p>
+ * {@link #toPrometheus()} writes it in the Prometheus text format, so any scraper that speaks it can poll
+ * {@link MetricsServer}. Timers become summaries in seconds, with a separate {@code _max} gauge, and
+ * counters get the usual {@code _total} suffix.
+ */
+public class MetricsSnapshot {
+    public static final String PREFIX = "tictactoe_";
+    private static final double[] QUANTILES = {50, 90, 99, 99.9};
+
+    public final long takenAtMillis;
+    public final List<TimerSnapshot> timers;
+    public final List<CounterSnapshot> counters;
+
+    MetricsSnapshot(long takenAtMillis, List<TimerSnapshot> timers, List<CounterSnapshot> counters) {
+        timers = new ArrayList<>(timers);
+        timers.sort(Comparator.comparing((TimerSnapshot t) -> t.name).thenComparing(t -> t.labels));
+        counters = new ArrayList<>(counters);
+        counters.sort(Comparator.comparing((CounterSnapshot c) -> c.name).thenComparing(c -> c.labels));
+
+        this.takenAtMillis = takenAtMillis;
+        this.timers = Collections.unmodifiableList(timers);
+        this.counters = Collections.unmodifiableList(counters);
+    }
+
+    /**
+     * @param labels like {@code rule="win"}, or an empty string for none
+     * @return the timer, or null if there isn't one
+     */
+    public TimerSnapshot timer(String name, String labels) {
+        for (TimerSnapshot t : timers) {
+            if (t.name.equals(name) && t.labels.equals(labels)) {
+                return t;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the counter's count, or 0 if there isn't one
+     */
+    public long count(String name, String labels) {
+        for (CounterSnapshot c : counters) {
+            if (c.name.equals(name) && c.labels.equals(labels)) {
+                return c.count;
+            }
+        }
+        return 0;
+    }
+
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder();
+
+        String family = null;
+        for (TimerSnapshot t : timers) {
+            String name = PREFIX + t.name + "_seconds";
+            if (!name.equals(family)) {
+                family = name;
+                out.append("# TYPE ").append(name).append(" summary\n");
+            }
+
+            for (int i = 0; i < QUANTILES.length; i++) {
+                String quantile = "quantile=\"" + QUANTILES[i] / 100 + '"';
+                sample(out, name, t.labels.isEmpty() ? quantile : t.labels + ',' + quantile, seconds(t.percentiles[i]));
+            }
+            sample(out, name + "_sum", t.labels, seconds(t.totalNanos));
+            sample(out, name + "_count", t.labels, Long.toString(t.count));
+        }
+
+        family = null;
+        for (TimerSnapshot t : timers) {
+            String name = PREFIX + t.name + "_seconds_max";
+            if (!name.equals(family)) {
+                family = name;
+                out.append("# TYPE ").append(name).append(" gauge\n");
+            }
+            sample(out, name, t.labels, seconds(t.maxNanos));
+        }
+
+        family = null;
+        for (CounterSnapshot c : counters) {
+            String name = PREFIX + c.name + "_total";
+            if (!name.equals(family)) {
+                family = name;
+                out.append("# TYPE ").append(name).append(" counter\n");
+            }
+            sample(out, name, c.labels, Long.toString(c.count));
+        }
+
+        return out.toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder(String.format("%-40s %10s %10s %10s %10s %10s%n",
+                "timer", "count", "p50 us", "p99 us", "max us", "mean us"));
+        for (TimerSnapshot t : timers) {
+            out.append(String.format("%-40s %10d %10.1f %10.1f %10.1f %10.1f%n",
+                    t.labels.isEmpty() ? t.name : t.name + '{' + t.labels + '}', t.count,
+                    t.percentiles[0] / 1e3, t.percentiles[2] / 1e3, t.maxNanos / 1e3, t.getMeanNanos() / 1e3));
+        }
+        for (CounterSnapshot c : counters) {
+            out.append(String.format("%-40s %10d%n", c.labels.isEmpty() ? c.name : c.name + '{' + c.labels + '}', c.count));
+        }
+        return out.toString();
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, String value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+
+    public static class TimerSnapshot {
+        public final String name, labels;
+        public final long count, totalNanos, maxNanos;
+        // at the 50th, 90th, 99th and 99.9th percentiles, in nanoseconds
+        public final long[] percentiles;
+
+        TimerSnapshot(Timer t) {
+            ConcurrentHistogram h = t.getHistogram();
+            name = t.getName();
+            labels = t.getLabels();
+            percentiles = h.getPercentiles(QUANTILES);
+            count = h.getCount();
+            totalNanos = h.getTotal();
+            maxNanos = h.getMax();
+        }
+
+        public double getMeanNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+    }
+
+    public static class CounterSnapshot {
+        public final String name, labels;
+        public final long count;
+
+        CounterSnapshot(Counter c) {
+            name = c.getName();
+            labels = c.getLabels();
+            count = c.getCount();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package edu.touro.cs.mcon364.metrics;
+
+/**
+ * Times one operation into a {@link ConcurrentHistogram}, in nanoseconds.
+ * <pre>
+ *     long start = Metrics.start();
+ *     ...
+ *     TIMER.stop(start);
+ * </pre>
+ * While metrics are off, {@link Metrics#start()} doesn't read the clock and {@code stop} does nothing.
+ */
+public class Timer {
+    private final String name, labels;
+    private final ConcurrentHistogram histogram = new ConcurrentHistogram();
+
+    Timer(String name, String labels) {
+        this.name = name;
+        this.labels = labels;
+    }
+
+    /**
+     * @param start what {@link Metrics#start()} returned when the operation began
+     */
+    public void stop(long start) {
+        if (start != Metrics.NOT_TIMED) {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    public void recordNanos(long nanos) {
+        if (Metrics.isEnabled()) {
+            histogram.record(nanos);
+        }
+    }
+
+    // getters
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return labels in exposition format, like {@code rule="win"}, or an empty string
+     */
+    public String getLabels() {
+        return labels;
+    }
+
+    public ConcurrentHistogram getHistogram() {
+        return histogram;
+    }
+}
@@ -0,0 +1,238 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Many classic 3x3 games played in lockstep, for Monte Carlo analytics. Instead of one object per game,
+ * the games are stored as parallel arrays, one entry per game: X's stones, O's stones (as {@link Bitboard}
+ * masks), whose turn it is and how the game stands. {@link #play(int[])} makes one move in every game at
+ * once, and checks each for a win against {@link Bitboard#WIN_MASKS}, the same lines
+ * {@link TicTacToeModel} scores.
+ * <p>
+ * The work is done by a {@link Kernel}. The default one uses the incubating Vector API, to handle a
+ * whole register of games per instruction, when it is on the class path and the JVM runs with
+ * {@code --add-modules jdk.incubator.vector}; otherwise a plain loop does the same thing one game at a
+ * time. {@code -Dtictactoe.simd=false} forces the plain loop.
+ * <p>
+ * A move into a taken cell, or off the board, forfeits the game instead of throwing, so one bad move
+ * doesn't stop the batch. Only {@link #NO_MOVE} skips a game's turn; any other negative cell is off the
+ * board too.
+ */
+public class BatchSimulator {
+    /** How a game stands. The first four match {@link GameState}'s ordinals. */
+    public static final int CONTINUE = 0, DRAW = 1, X_WIN = 2, O_WIN = 3, FORFEIT = 4;
+    /** Whose turn it is. */
+    public static final int X_TO_MOVE = 0, O_TO_MOVE = 1;
+    /** A move that leaves its game alone. */
+    public static final int NO_MOVE = -1;
+
+    private static final String VECTOR_KERNEL = "edu.touro.cs.mcon364.model.VectorBatchKernel";
+    private static final Kernel BEST = loadBest();
+    // NTH_EMPTY[empty << 4 | n] is the n-th lowest set bit of the 9-bit mask empty.
+    private static final byte[] NTH_EMPTY = new byte[(Bitboard.FULL + 1) << 4];
+
+    static {
+        for (int empty = 0; empty <= Bitboard.FULL; empty++) {
+            int n = 0;
+            for (int cell = 0; cell < Bitboard.CELLS; cell++) {
+                if ((empty & 1 << cell) != 0) {
+                    NTH_EMPTY[empty << 4 | n++] = (byte) cell;
+                }
+            }
+        }
+    }
+
+    private final int games;
+    private final Kernel kernel;
+    private final int[] xMasks, oMasks, toMove, status;
+
+    /**
+     * Does the work of {@link #play} for games {@code from} until {@code to}. Every array has one entry per
+     * game; the kernel updates all but {@code moves}.
+     */
+    public interface Kernel {
+        void play(int[] xMasks, int[] oMasks, int[] toMove, int[] status, int[] moves, int from, int to);
+
+        /**
+         * @return a short name for reports
+         */
+        String name();
+    }
+
+    public BatchSimulator(int games) {
+        this(games, BEST);
+    }
+
+    public BatchSimulator(int games, Kernel kernel) {
+        if (games < 0) {
+            throw new IllegalArgumentException("Can't simulate " + games + " games.");
+        }
+
+        this.games = games;
+        this.kernel = kernel;
+        xMasks = new int[games];
+        oMasks = new int[games];
+        toMove = new int[games];
+        status = new int[games];
+    }
+
+    // kernels
+    /**
+     * @return the vector kernel if this JVM can run it, or else {@link #scalarKernel()}
+     */
+    public static Kernel bestKernel() {
+        return BEST;
+    }
+
+    public static Kernel scalarKernel() {
+        return ScalarKernel.INSTANCE;
+    }
+
+    private static Kernel loadBest() {
+        if (!Boolean.parseBoolean(System.getProperty("tictactoe.simd", "true"))) {
+            return ScalarKernel.INSTANCE;
+        }
+
+        try {
+            return (Kernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return ScalarKernel.INSTANCE; // not built, or the JVM was started without the vector module
+        }
+    }
+
+    // gameplay
+    /**
+     * Starts every game over, with X to move.
+     */
+    public void reset() {
+        Arrays.fill(xMasks, 0);
+        Arrays.fill(oMasks, 0);
+        Arrays.fill(toMove, X_TO_MOVE);
+        Arrays.fill(status, CONTINUE);
+    }
+
+    /**
+     * Makes one move in every game still going.
+     *
+     * @param moves the cell to play in each game, as {@link Bitboard#index}, or {@link #NO_MOVE}. Ignored for
+     *              games that are over.
+     */
+    public void play(int[] moves) {
+        if (moves.length < games) {
+            throw new IllegalArgumentException("Need a move for each of the " + games + " games.");
+        }
+
+        kernel.play(xMasks, oMasks, toMove, status, moves, 0, games);
+    }
+
+    /**
+     * Picks a random empty cell for every game still going, and {@link #NO_MOVE} for the rest.
+     *
+     * @return how many games got a move
+     */
+    public int randomMoves(int[] moves, SplittableRandom random) {
+        int live = 0;
+
+        for (int i = 0; i < games; i++) {
+            if (status[i] != CONTINUE) {
+                moves[i] = NO_MOVE;
+                continue;
+            }
+
+            int empty = ~(xMasks[i] | oMasks[i]) & Bitboard.FULL;
+            moves[i] = NTH_EMPTY[empty << 4 | random.nextInt(Integer.bitCount(empty))];
+            live++;
+        }
+
+        return live;
+    }
+
+    /**
+     * Plays every game to the end with random moves.
+     */
+    public void playOutRandomly(SplittableRandom random) {
+        int[] moves = new int[games];
+        while (randomMoves(moves, random) > 0) {
+            play(moves);
+        }
+    }
+
+    // getters
+    public int getGames() {
+        return games;
+    }
+
+    public Kernel getKernel() {
+        return kernel;
+    }
+
+    public int getStatus(int game) {
+        return status[game];
+    }
+
+    public int getMask(int game, CellValue player) {
+        return switch (player) {
+            case X -> xMasks[game];
+            case O -> oMasks[game];
+            case NONE -> ~(xMasks[game] | oMasks[game]) & Bitboard.FULL;
+        };
+    }
+
+    public CellValue getToMove(int game) {
+        return toMove[game] == X_TO_MOVE ? CellValue.X : CellValue.O;
+    }
+
+    /**
+     * @return how many games stand at each status, indexed by status
+     */
+    public int[] countByStatus() {
+        int[] counts = new int[FORFEIT + 1];
+        for (int i = 0; i < games; i++) {
+            counts[status[i]]++;
+        }
+        return counts;
+    }
+
+    private static final class ScalarKernel implements Kernel {
+        static final ScalarKernel INSTANCE = new ScalarKernel();
+
+        @Override
+        public void play(int[] xMasks, int[] oMasks, int[] toMove, int[] status, int[] moves, int from, int to) {
+            for (int i = from; i < to; i++) {
+                int cell = moves[i];
+                if (status[i] != CONTINUE || cell == NO_MOVE) {
+                    continue;
+                }
+
+                int x = xMasks[i], o = oMasks[i];
+                if (cell < 0 || cell >= Bitboard.CELLS || ((x | o) & 1 << cell) != 0) {
+                    status[i] = FORFEIT;
+                    continue;
+                }
+
+                int mover;
+                if (toMove[i] == X_TO_MOVE) {
+                    mover = xMasks[i] = x | 1 << cell;
+                } else {
+                    mover = oMasks[i] = o | 1 << cell;
+                }
+
+                if (Bitboard.isWin(mover)) {
+                    status[i] = toMove[i] == X_TO_MOVE ? X_WIN : O_WIN;
+                } else if ((x | o | 1 << cell) == Bitboard.FULL) {
+                    status[i] = DRAW;
+                }
+                toMove[i] ^= 1;
+            }
+        }
+
+        @Override
+        public String name() {
+            return "scalar";
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package edu.touro.cs.mcon364.model;
+
+/**
+ * Helpers for the classic 3x3 board stored as one 9-bit mask per player.
+ * Cell (x, y) lives at bit {@code x * 3 + y}, matching the [x][y] indexing used everywhere else.
+ */
+public final class Bitboard {
+    public static final int SIZE = 3, CELLS = 9;
+    public static final int FULL = (1 << CELLS) - 1;
+
+    // columns, rows, diagonal, anti-diagonal
+    public static final int[] WIN_MASKS = {
+            0x007, 0x038, 0x1C0,
+            0x049, 0x092, 0x124,
+            0x111, 0x054,
+    };
+
+    private Bitboard() {
+    }
+
+    public static int index(int x, int y) {
+        return x * SIZE + y;
+    }
+
+    public static int bit(int x, int y) {
+        return 1 << index(x, y);
+    }
+
+    public static int legalMoves(int xMask, int oMask) {
+        return ~(xMask | oMask) & FULL;
+    }
+
+    public static boolean isWin(int mask) {
+        for (int w : WIN_MASKS) {
+            if ((mask & w) == w) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
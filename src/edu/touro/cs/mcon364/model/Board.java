@@ -0,0 +1,326 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+
+import java.util.Arrays;
+
+/**
+ * An m,n,k board: {@code width} by {@code height} cells, won by getting {@code winLength} in a row.
+ * <p>
+ * Each player's stones are a bitset. Cell (x, y) is bit {@code x * height + y}, so the classic 3x3 board
+ * uses the same layout as {@link Bitboard}. A move only needs to look at the runs through the cell that was
+ * just played, so win detection is O(winLength) no matter how big the board is.
+ * <p>
+ * The board keeps a Zobrist hash of its position, see {@link Zobrist}, updated with one XOR per stone
+ * placed or removed. Once a symmetric hash has been asked for, it also keeps one hash per symmetry of the
+ * board, the smallest of which is the same for every rotation and reflection of the position.
+ */
+public final class Board {
+    // Line directions in the order wins are reported: column, row, diagonal, anti-diagonal.
+    public static final int DIRECTIONS = 4;
+    private static final int[] DX = {0, 1, 1, 1}, DY = {1, 0, 1, -1};
+
+    private final int width, height, winLength, cells;
+    private final long[] xBits, oBits;
+    private int moveCount;
+
+    private final long[] keys;
+    private long hash;
+    private int[][] symmetries; // cell maps, identity first; null until a symmetric hash is asked for
+    private long[] symmetricHashes;
+
+    public Board(int width, int height, int winLength) {
+        if (width < 1 || height < 1 || winLength < 1 || winLength > Math.max(width, height)) {
+            throw new IllegalArgumentException("Invalid board " + width + "x" + height + ", k=" + winLength);
+        }
+
+        this.width = width;
+        this.height = height;
+        this.winLength = winLength;
+        cells = width * height;
+
+        int words = (cells + Long.SIZE - 1) / Long.SIZE;
+        xBits = new long[words];
+        oBits = new long[words];
+        keys = Zobrist.keys(cells);
+    }
+
+    private Board(Board other) {
+        width = other.width;
+        height = other.height;
+        winLength = other.winLength;
+        cells = other.cells;
+        xBits = other.xBits.clone();
+        oBits = other.oBits.clone();
+        moveCount = other.moveCount;
+        keys = other.keys;
+        hash = other.hash;
+        symmetries = other.symmetries;
+        symmetricHashes = other.symmetricHashes == null ? null : other.symmetricHashes.clone();
+    }
+
+    public Board copy() {
+        return new Board(this);
+    }
+
+    /**
+     * Overwrites this board with the position on {@code other}, which must have the same shape.
+     */
+    public void copyFrom(Board other) {
+        if (!sameShape(other)) {
+            throw new IllegalArgumentException("Boards have different shapes.");
+        }
+
+        System.arraycopy(other.xBits, 0, xBits, 0, xBits.length);
+        System.arraycopy(other.oBits, 0, oBits, 0, oBits.length);
+        moveCount = other.moveCount;
+        hash = other.hash;
+
+        if (symmetricHashes != null) {
+            if (other.symmetricHashes != null) {
+                System.arraycopy(other.symmetricHashes, 0, symmetricHashes, 0, symmetricHashes.length);
+            } else {
+                rehashSymmetries();
+            }
+        }
+    }
+
+    // getters
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    public int getCells() {
+        return cells;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    public boolean isFull() {
+        return moveCount == cells;
+    }
+
+    public boolean isClassic() {
+        return width == Bitboard.SIZE && height == Bitboard.SIZE && winLength == Bitboard.SIZE;
+    }
+
+    public boolean sameShape(Board other) {
+        return width == other.width && height == other.height && winLength == other.winLength;
+    }
+
+    // coordinates
+    public int index(int x, int y) {
+        return x * height + y;
+    }
+
+    public int xOf(int cell) {
+        return cell / height;
+    }
+
+    public int yOf(int cell) {
+        return cell % height;
+    }
+
+    public boolean inBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    // cells
+    public boolean isEmpty(int cell) {
+        return ((xBits[cell >>> 6] | oBits[cell >>> 6]) & (1L << cell)) == 0;
+    }
+
+    public CellValue get(int cell) {
+        long bit = 1L << cell;
+
+        if ((xBits[cell >>> 6] & bit) != 0) {
+            return CellValue.X;
+        }
+        return (oBits[cell >>> 6] & bit) != 0 ? CellValue.O : CellValue.NONE;
+    }
+
+    /**
+     * Puts a stone on an empty cell. The caller is responsible for checking the cell is empty.
+     */
+    public void place(int cell, CellValue player) {
+        bitsOf(player)[cell >>> 6] |= 1L << cell;
+        moveCount++;
+        toggleHash(cell, player == CellValue.X ? 0 : cells);
+    }
+
+    /**
+     * Removes the stone on an occupied cell, undoing {@link #place}.
+     */
+    public void clear(int cell) {
+        long bit = 1L << cell;
+        toggleHash(cell, (xBits[cell >>> 6] & bit) != 0 ? 0 : cells);
+
+        xBits[cell >>> 6] &= ~bit;
+        oBits[cell >>> 6] &= ~bit;
+        moveCount--;
+    }
+
+    public void clearAll() {
+        Arrays.fill(xBits, 0);
+        Arrays.fill(oBits, 0);
+        moveCount = 0;
+        hash = 0;
+        if (symmetricHashes != null) {
+            Arrays.fill(symmetricHashes, 0);
+        }
+    }
+
+    // hashing
+    /**
+     * @return the Zobrist hash of the position. Equal positions on boards of the same size hash the same.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * @return a hash that is the same for every rotation and reflection of the position: eight of them on
+     * square boards, four on others. The first call costs a pass over the board; after that each move
+     * costs one XOR per symmetry.
+     */
+    public long getSymmetricHash() {
+        if (symmetricHashes == null) {
+            symmetries = Zobrist.symmetries(width, height);
+            symmetricHashes = new long[symmetries.length];
+            rehashSymmetries();
+        }
+
+        long min = symmetricHashes[0];
+        for (int t = 1; t < symmetricHashes.length; t++) {
+            min = Math.min(min, symmetricHashes[t]);
+        }
+        return min;
+    }
+
+    // offset is 0 for X's keys, cells for O's
+    private void toggleHash(int cell, int offset) {
+        hash ^= keys[offset + cell];
+
+        if (symmetricHashes != null) {
+            for (int t = 0; t < symmetricHashes.length; t++) {
+                symmetricHashes[t] ^= keys[offset + symmetries[t][cell]];
+            }
+        }
+    }
+
+    private void rehashSymmetries() {
+        Arrays.fill(symmetricHashes, 0);
+
+        for (int cell = 0; cell < cells; cell++) {
+            if (!isEmpty(cell)) {
+                int offset = get(cell) == CellValue.X ? 0 : cells;
+                for (int t = 0; t < symmetricHashes.length; t++) {
+                    symmetricHashes[t] ^= keys[offset + symmetries[t][cell]];
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the {@code i}th 64-cell word of the player's bitset, or of the empty cells for {@link CellValue#NONE}
+     */
+    public long word(CellValue player, int i) {
+        if (player == CellValue.NONE) {
+            long empty = ~(xBits[i] | oBits[i]);
+            int remaining = cells - i * Long.SIZE;
+            return remaining >= Long.SIZE ? empty : empty & ((1L << remaining) - 1);
+        }
+
+        return bitsOf(player)[i];
+    }
+
+    public int words() {
+        return xBits.length;
+    }
+
+    // win detection
+    /**
+     * @return whether the stone on {@code cell} is part of at least {@code winLength} in a row
+     */
+    public boolean isWinningMove(int cell) {
+        long[] bits = ownerBits(cell);
+        int x = xOf(cell), y = yOf(cell);
+
+        for (int d = 0; d < DIRECTIONS; d++) {
+            int run = 1 + count(bits, x, y, DX[d], DY[d], winLength - 1);
+            if (run < winLength) {
+                run += count(bits, x, y, -DX[d], -DY[d], winLength - run);
+            }
+
+            if (run >= winLength) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the number of stones matching the one on {@code cell} that run backwards from it in
+     * direction {@code d}, not counting the cell itself
+     */
+    public int runBehind(int cell, int d) {
+        return count(ownerBits(cell), xOf(cell), yOf(cell), -DX[d], -DY[d], Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return the length of the whole run through {@code cell} in direction {@code d}
+     */
+    public int runLength(int cell, int d) {
+        long[] bits = ownerBits(cell);
+        int x = xOf(cell), y = yOf(cell);
+
+        return 1 + count(bits, x, y, DX[d], DY[d], Integer.MAX_VALUE)
+                + count(bits, x, y, -DX[d], -DY[d], Integer.MAX_VALUE);
+    }
+
+    public static int dx(int d) {
+        return DX[d];
+    }
+
+    public static int dy(int d) {
+        return DY[d];
+    }
+
+    // Counts consecutive stones from (x, y), exclusive, stepping by (dx, dy), stopping at limit.
+    private int count(long[] bits, int x, int y, int dx, int dy, int limit) {
+        int n = 0;
+
+        for (x += dx, y += dy; n < limit && inBounds(x, y); x += dx, y += dy) {
+            int cell = index(x, y);
+            if ((bits[cell >>> 6] & (1L << cell)) == 0) {
+                break;
+            }
+            n++;
+        }
+
+        return n;
+    }
+
+    private long[] ownerBits(int cell) {
+        return (xBits[cell >>> 6] & (1L << cell)) != 0 ? xBits : oBits;
+    }
+
+    private long[] bitsOf(CellValue player) {
+        return switch (player) {
+            case X -> xBits;
+            case O -> oBits;
+            case NONE -> throw new IllegalArgumentException("NONE has no stones.");
+        };
+    }
+}
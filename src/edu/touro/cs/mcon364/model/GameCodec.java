@@ -0,0 +1,235 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.function.Function;
+
+/**
+ * A compact, versioned binary format for a game: where the stones are, whose turn it is and which team
+ * the computer plays. The AI itself is not saved. A decoded game gets a fresh AI, which picks up the
+ * position from the board.
+ * <p>
+ * The classic board takes {@value #CLASSIC_SIZE} bytes: the version, then 24 big-endian bits holding X's 9-bit mask
+ * in bits 0-8, O's in 9-17, X-to-move in bit 18 and the AI team in 19-20 (0 none, 1 X, 2 O). Bits 21-23
+ * are reserved and must be 0. They are written a byte at a time, so the buffer's byte order doesn't matter.
+ * <p>
+ * Other boards take {@code 5 + 2 * ceil(cells / 8)} bytes: the version, width, height and win length (one
+ * unsigned byte each), a flags byte with X-to-move in bit 0 and the AI team in bits 1-2, then X's and O's
+ * bitsets, low bit first, in {@link Board} cell order.
+ */
+public final class GameCodec {
+    public static final byte VERSION_CLASSIC = 1, VERSION_MNK = 2;
+    public static final int CLASSIC_SIZE = 4;
+
+    private static final int O_SHIFT = Bitboard.CELLS, X_TO_MOVE = 1 << 18, TEAM_SHIFT = 19;
+    private static final int MAX_DIMENSION = 0xFF;
+
+    private GameCodec() {
+    }
+
+    /**
+     * @return how many bytes {@link #encode(TicTacToeModel, ByteBuffer)} writes for this model
+     */
+    public static int encodedSize(TicTacToeModel model) {
+        return model.isClassic() ? CLASSIC_SIZE : 5 + 2 * bitmapBytes(model.getWidth() * model.getHeight());
+    }
+
+    public static byte[] encode(TicTacToeModel model) {
+        ByteBuffer out = ByteBuffer.allocate(encodedSize(model));
+        encode(model, out);
+        return out.array();
+    }
+
+    /**
+     * Writes the game at the buffer's position, advancing it.
+     *
+     * @throws java.nio.BufferOverflowException if there is less than {@link #encodedSize} room left
+     */
+    public static void encode(TicTacToeModel model, ByteBuffer out) {
+        Board board = model.copyBoard();
+        boolean xToMove = model.previousPlayer() == CellValue.O;
+        int team = teamCode(model.getAiTeam());
+
+        if (board.isClassic()) {
+            int packed = (int) board.word(CellValue.X, 0)
+                    | (int) board.word(CellValue.O, 0) << O_SHIFT
+                    | (xToMove ? X_TO_MOVE : 0)
+                    | team << TEAM_SHIFT;
+
+            out.put(VERSION_CLASSIC);
+            out.put((byte) (packed >>> 16));
+            out.put((byte) (packed >>> 8));
+            out.put((byte) packed);
+            return;
+        }
+
+        if (board.getWidth() > MAX_DIMENSION || board.getHeight() > MAX_DIMENSION) {
+            throw new IllegalArgumentException("Boards bigger than 255x255 can't be saved.");
+        }
+
+        out.put(VERSION_MNK);
+        out.put((byte) board.getWidth());
+        out.put((byte) board.getHeight());
+        out.put((byte) board.getWinLength());
+        out.put((byte) ((xToMove ? 1 : 0) | team << 1));
+        putBitmap(board, CellValue.X, out);
+        putBitmap(board, CellValue.O, out);
+    }
+
+    /**
+     * Reads a game at the buffer's position, advancing it. A game against the computer gets the same AI
+     * {@link TicTacToeModel#startGame(TicTacToeModel.GameType)} would pick.
+     *
+     * @throws IllegalArgumentException if the data is not a valid game
+     */
+    public static TicTacToeModel decode(ByteBuffer in) {
+        return decode(in, null);
+    }
+
+    /**
+     * @param aiFactory creates the AI for a game against the computer, or null for the default one
+     */
+    public static TicTacToeModel decode(ByteBuffer in, Function<TicTacToeModel, ? extends TicTacToeAI> aiFactory) {
+        Decoded game = read(in);
+
+        TicTacToeModel model = new TicTacToeModel(game.board.getWidth(), game.board.getHeight(), game.board.getWinLength());
+        model.restore(game.board, game.xToMove);
+
+        if (game.aiTeam == CellValue.NONE) {
+            model.startGame(TicTacToeModel.GameType.HUMAN);
+        } else {
+            model.startGame(game.aiTeam, aiFactory != null ? aiFactory : TicTacToeModel.defaultAI(model.isClassic()));
+        }
+
+        return model;
+    }
+
+    // The decoded parts, for callers that restore into an existing model.
+    static final class Decoded {
+        final Board board;
+        final boolean xToMove;
+        final CellValue aiTeam;
+
+        private Decoded(Board board, boolean xToMove, CellValue aiTeam) {
+            this.board = board;
+            this.xToMove = xToMove;
+            this.aiTeam = aiTeam;
+        }
+    }
+
+    static Decoded read(ByteBuffer in) {
+        try {
+            byte version = in.get();
+
+            return switch (version) {
+                case VERSION_CLASSIC -> readClassic(in);
+                case VERSION_MNK -> readMnk(in);
+                default -> throw new IllegalArgumentException("Unknown save format version " + version + ".");
+            };
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("The game is cut short.", e);
+        }
+    }
+
+    private static Decoded readClassic(ByteBuffer in) {
+        int packed = (in.get() & 0xFF) << 16 | (in.get() & 0xFF) << 8 | in.get() & 0xFF;
+        if (packed >>> 21 != 0) {
+            throw new IllegalArgumentException("Reserved bits are set.");
+        }
+
+        Board board = new Board(Bitboard.SIZE, Bitboard.SIZE, Bitboard.SIZE);
+        int x = packed & Bitboard.FULL, o = packed >>> O_SHIFT & Bitboard.FULL;
+        for (int cell = 0; cell < Bitboard.CELLS; cell++) {
+            placeBits(board, cell, (x >>> cell & 1) != 0, (o >>> cell & 1) != 0);
+        }
+
+        return validated(board, (packed & X_TO_MOVE) != 0, teamOf(packed >>> TEAM_SHIFT & 3));
+    }
+
+    private static Decoded readMnk(ByteBuffer in) {
+        int width = in.get() & 0xFF, height = in.get() & 0xFF, winLength = in.get() & 0xFF;
+        int flags = in.get() & 0xFF;
+        if (flags >>> 3 != 0) {
+            throw new IllegalArgumentException("Reserved bits are set.");
+        }
+
+        Board board = new Board(width, height, winLength);
+        int cells = board.getCells(), bytes = bitmapBytes(cells);
+        byte[] x = new byte[bytes], o = new byte[bytes];
+        in.get(x);
+        in.get(o);
+
+        for (int cell = 0; cell < bytes * Byte.SIZE; cell++) {
+            boolean isX = (x[cell >>> 3] >>> (cell & 7) & 1) != 0, isO = (o[cell >>> 3] >>> (cell & 7) & 1) != 0;
+
+            if (cell >= cells) {
+                if (isX || isO) {
+                    throw new IllegalArgumentException("Stone outside the board.");
+                }
+            } else {
+                placeBits(board, cell, isX, isO);
+            }
+        }
+
+        return validated(board, (flags & 1) != 0, teamOf(flags >>> 1 & 3));
+    }
+
+    private static void placeBits(Board board, int cell, boolean x, boolean o) {
+        if (x && o) {
+            throw new IllegalArgumentException("Both players have a stone on cell " + cell + ".");
+        }
+
+        if (x) {
+            board.place(cell, CellValue.X);
+        } else if (o) {
+            board.place(cell, CellValue.O);
+        }
+    }
+
+    // X always moves first, so X has as many stones as O, or one more.
+    private static Decoded validated(Board board, boolean xToMove, CellValue aiTeam) {
+        int xs = 0;
+        for (int i = 0; i < board.words(); i++) {
+            xs += Long.bitCount(board.word(CellValue.X, i));
+        }
+        int os = board.getMoveCount() - xs;
+
+        if (xs - os != (xToMove ? 0 : 1)) {
+            throw new IllegalArgumentException("Stone counts don't match the side to move.");
+        }
+
+        return new Decoded(board, xToMove, aiTeam);
+    }
+
+    // helpers
+    private static int bitmapBytes(int cells) {
+        return (cells + Byte.SIZE - 1) / Byte.SIZE;
+    }
+
+    private static void putBitmap(Board board, CellValue player, ByteBuffer out) {
+        int bytes = bitmapBytes(board.getCells());
+
+        for (int i = 0; i < bytes; i++) {
+            out.put((byte) (board.word(player, i >>> 3) >>> ((i & 7) * Byte.SIZE)));
+        }
+    }
+
+    private static int teamCode(CellValue team) {
+        return team == null ? 0 : switch (team) {
+            case NONE -> 0;
+            case X -> 1;
+            case O -> 2;
+        };
+    }
+
+    private static CellValue teamOf(int code) {
+        return switch (code) {
+            case 0 -> CellValue.NONE;
+            case 1 -> CellValue.X;
+            case 2 -> CellValue.O;
+            default -> throw new IllegalArgumentException("Unknown AI team " + code + ".");
+        };
+    }
+}
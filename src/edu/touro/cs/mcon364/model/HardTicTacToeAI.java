@@ -1,220 +1,244 @@
 package edu.touro.cs.mcon364.model;
 
+import edu.touro.cs.mcon364.metrics.Metrics;
+import edu.touro.cs.mcon364.metrics.Timer;
 import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
 
 import java.awt.*;
 import java.io.*;
 
+/**
+ * The rule-based AI: win, block, fork, block a fork, center, opposite corner, empty corner, empty side.
+ * <p>
+ * Each move starts from the model's {@link Position}, so the AI keeps no copy of the board to keep in
+ * step, and any number of threads may ask it for a move at once. The eight lines' stone counts are packed
+ * into one int, four bits a line: two for the AI's stones and two for the opponent's, built with one add
+ * per stone. Deciding on a move allocates nothing; the returned points are shared, so callers must not
+ * change them.
+ * <p>
+ * With {@link Metrics} on, each move is timed, both overall and under the {@link Rule} that chose it.
+ */
 public class HardTicTacToeAI implements TicTacToeAI, Serializable {
+    /**
+     * The strategy regions, in the order they are tried.
+     */
+    public enum Rule {
+        WIN, BLOCK, FORK, BLOCK_FORK, CENTER, OPPOSITE_CORNER, EMPTY_CORNER, EMPTY_SIDE;
+
+        final Timer timer = Metrics.timer("hard_ai_decision", "rule", name().toLowerCase());
+    }
+
+    private static final Timer CALCULATE_MOVE = Metrics.timer("hard_ai_calculate_move");
+    private static final Rule[] RULES = Rule.values();
+    private static final int RULE_SHIFT = 4; // decide() returns the rule above the cell
+
+    // Lines are numbered in Bitboard.WIN_MASKS order: columns 0-2, rows 3-5, diagonal 6, anti-diagonal 7.
+    private static final int LINES = 8, ANTI_DIAGONAL = 7;
+    // For each cell, the lines through it as a bitmask, and as packed counter increments.
+    private static final int[] CELL_LINES = new int[Bitboard.CELLS], CELL_COUNTS = new int[Bitboard.CELLS];
+    private static final int CORNERS = Bitboard.bit(0, 0) | Bitboard.bit(0, 2) | Bitboard.bit(2, 0) | Bitboard.bit(2, 2);
+    private static final int SIDES = Bitboard.bit(0, 1) | Bitboard.bit(1, 0) | Bitboard.bit(1, 2) | Bitboard.bit(2, 1);
+    private static final int[] SIDE_ORDER = {Bitboard.index(0, 1), Bitboard.index(1, 0), Bitboard.index(2, 1), Bitboard.index(1, 2)};
+    private static final int CENTER = Bitboard.index(1, 1);
+    private static final Point[] POINTS = new Point[Bitboard.CELLS];
+
+    static {
+        for (int line = 0; line < LINES; line++) {
+            for (int cell = 0; cell < Bitboard.CELLS; cell++) {
+                if ((Bitboard.WIN_MASKS[line] & 1 << cell) != 0) {
+                    CELL_LINES[cell] |= 1 << line;
+                    CELL_COUNTS[cell] += 1 << 4 * line;
+                }
+            }
+        }
+
+        for (int cell = 0; cell < Bitboard.CELLS; cell++) {
+            POINTS[cell] = new Point(cell / Bitboard.SIZE, cell % Bitboard.SIZE);
+        }
+    }
+
     private final TicTacToeModel model;
-    private transient CellValue[][] board; // Because getting it every time is a lot of extra operations
     private transient CellValue myTeam;
-
-    private transient ScorePair[] colScores;
-    private transient ScorePair[] rowScores;
-    private transient ScorePair[] diagScores;
+    private transient volatile Rule lastRule;
 
     @Serial
     private static final long serialVersionUID = 44L;
 
     public HardTicTacToeAI(TicTacToeModel m) {
+        if (!m.isClassic()) {
+            throw new IllegalArgumentException("HardTicTacToeAI only plays the classic 3x3 board.");
+        }
+
         model = m;
         init();
     }
 
     //setup
     private void init() {
-        board = model.getBoard();
         myTeam = model.getAiTeam();
-
-        colScores = new ScorePair[3];
-        rowScores = new ScorePair[3];
-        diagScores = new ScorePair[2];
-
-        for (int x = 0; x < 3; x++) {
-            for (int y = 0; y < 3; y++) {
-                addToLineScore(colScores, x, board[x][y]);
-                addToLineScore(rowScores, y, board[x][y]);
-                if (x == y) {
-                    addToLineScore(diagScores, 0, board[x][y]);
-                }
-                if (x == 2 - y) {
-                    addToLineScore(diagScores, 1, board[x][y]);
-                }
-            }
-        }
-    }
-
-    private void addToLineScore(ScorePair[] line, int index, CellValue v) {
-        if (line[index] == null) {
-            line[index] = ScorePair.empty();
-        }
-
-        line[index].increment(v);
     }
 
     // gameplay
+    // Moves are read from the model's position when needed, so there is nothing to keep up to date.
     @Override
     public void submitMoveToAI(Point loc) {
-        int x = loc.x, y = loc.y;
-        CellValue player = model.previousPlayer().other();
-        board[x][y] = player;
-
-        colScores[x].increment(player);
-        rowScores[y].increment(player);
-        if (x == y) {
-            diagScores[0].increment(player);
-        }
-        if (x == 2 - y) {
-            diagScores[1].increment(player);
-        }
+    }
+
+    @Override
+    public void retractMoveFromAI(Point loc) {
     }
 
     /**
      * Logic is modified from https://onlinelibrary.wiley.com/doi/epdf/10.1207/s15516709cog1704_3, pg. 536
      *
-     * @return the requested move location
+     * @return the requested move location. Shared, so don't change it.
      */
     @Override
     public Point calculateMove() {
-        Point block = null; // Only need to keep track of one. If there's more than one, we've lost either way.
+        long start = Metrics.start();
+        int choice = decide(model.getPosition());
+        Rule rule = RULES[choice >>> RULE_SHIFT];
+
+        lastRule = rule;
+        CALCULATE_MOVE.stop(start);
+        rule.timer.stop(start);
+        return POINTS[choice & (1 << RULE_SHIFT) - 1];
+    }
 
-        // region 1. Win
-        // columns
-        LineStats colResults = calculateWinBlockAndFork(colScores);
-        int[] winBlockStats = colResults.winBlockScores;
-        for (int y = 0; y < 3; y++) {
-            if (winBlockStats[0] != -1 && board[winBlockStats[0]][y] == CellValue.NONE) {
-                return new Point(winBlockStats[0], y);
-            }
+    /**
+     * @return the rule behind the last move calculated, on any thread, or null if there hasn't been one
+     */
+    public Rule getLastRule() {
+        return lastRule;
+    }
 
-            if (winBlockStats[1] != -1 && board[winBlockStats[1]][y] == CellValue.NONE) {
-                block = new Point(winBlockStats[1], y);
-            }
-        }
+    private static int choose(Rule rule, int cell) {
+        return rule.ordinal() << RULE_SHIFT | cell;
+    }
 
-        // rows
-        LineStats rowResults = calculateWinBlockAndFork(rowScores);
-        winBlockStats = rowResults.winBlockScores;
-        for (int x = 0; x < 3; x++) {
-            if (winBlockStats[0] != -1 && board[x][winBlockStats[0]] == CellValue.NONE) {
-                return new Point(x, winBlockStats[0]);
-            }
+    private int decide(long position) {
+        int mine = myTeam == CellValue.X || myTeam == CellValue.O ? Position.mask(position, myTeam) : 0;
+        int theirs = (Position.xMask(position) | Position.oMask(position)) & ~mine;
+        int empty = ~(mine | theirs) & Bitboard.FULL;
 
-            if (winBlockStats[1] != -1 && board[x][winBlockStats[1]] == CellValue.NONE) {
-                block = new Point(x, winBlockStats[1]);
-            }
+        int counts = 0; // per line: bits 4i-4i+1 count the AI's stones, bits 4i+2-4i+3 the opponent's
+        for (int stones = mine; stones != 0; stones &= stones - 1) {
+            counts += CELL_COUNTS[Integer.numberOfTrailingZeros(stones)];
+        }
+        for (int stones = theirs; stones != 0; stones &= stones - 1) {
+            counts += CELL_COUNTS[Integer.numberOfTrailingZeros(stones)] << 2;
         }
 
-        // diagonals
-        LineStats diagResults = calculateWinBlockAndFork(diagScores);
-        winBlockStats = diagResults.winBlockScores;
-        for (int i = 0; i < 3; i++) {
-            if (winBlockStats[0] == 0 && board[i][i] == CellValue.NONE) {
-                return new Point(i, i);
-            }
-            if (winBlockStats[0] == 1 && board[i][2 - i] == CellValue.NONE) {
-                return new Point(i, 2 - i);
-            }
+        if (empty == 0) {
+            throw new IllegalStateException("Can't return move while board is full.");
+        }
+
+        // region 1. Win
+        // Columns, rows, then diagonals. Within each group only the last line with two of the AI's stones
+        // counts, and the same for the opponent's, even if that line is already blocked. Every line's
+        // cells are in ascending bit order, so its first empty cell is its lowest empty bit.
+        int block = -1; // Only need to keep track of one. If there's more than one, we've lost either way.
+        int myForks = 0, theirForks = 0; // lines holding a single stone
+
+        for (int group = 0; group < 3; group++) {
+            int first = group * 3, last = group == 2 ? ANTI_DIAGONAL : first + 2;
+            int winLine = -1, blockLine = -1;
+
+            for (int line = first; line <= last; line++) {
+                int c = counts >>> 4 * line;
+                int my = c & 3, their = c >>> 2 & 3;
+
+                if (my == 2) {
+                    winLine = line;
+                } else if (their == 2) {
+                    blockLine = line;
+                }
 
-            if (winBlockStats[1] == 0 && board[i][i] == CellValue.NONE) {
-                block = new Point(i, i);
+                if (my + their == 1) {
+                    if (my == 1) {
+                        myForks |= 1 << line;
+                    } else {
+                        theirForks |= 1 << line;
+                    }
+                }
             }
 
-            if (winBlockStats[1] == 1 && board[i][2 - i] == CellValue.NONE) {
-                block = new Point(i, 2 - i);
+            if (winLine >= 0) {
+                int open = Bitboard.WIN_MASKS[winLine] & empty;
+                if (open != 0) {
+                    return choose(Rule.WIN, Integer.numberOfTrailingZeros(open));
+                }
+            }
+            if (blockLine >= 0) {
+                int open = Bitboard.WIN_MASKS[blockLine] & empty;
+                if (open != 0) {
+                    block = 31 - Integer.numberOfLeadingZeros(open);
+                }
             }
         }
         //endregion
 
         // region 2. Block Win
-        if (block != null) {
-            return block; // make this random for replayability?
+        if (block >= 0) {
+            return choose(Rule.BLOCK, block);
         }
         //endregion
 
-        Point forkBlock = null; // Only need to keep track of one. If there's more than one, we've lost either way.
-        Point locationToMakeTwoInARow = null; // Also need only one; it's just to stave off a fork.
-
         // region 3. Fork
-        for (int col = 0; col < 3; col++) {
-            for (int row = 0; row < 3; row++) {
-                // Fork score for a space is the number of lines that intersect on a
-                // space that have only one space claimed, and it's by the AI
-                int myForkScore = colResults.myForkScores[col]
-                        + rowResults.myForkScores[row]
-                        + (col == row ? diagResults.myForkScores[0] : 0)
-                        + (col == 2 - row ? diagResults.myForkScores[1] : 0);
-
-                if (board[col][row] == CellValue.NONE) {
-                    Point possibleLocation = new Point(col, row);
-
-                    if (myForkScore > 1) {
-                        return possibleLocation;
-                    }
-                    if (myForkScore > 0) {
-                        if (locationToMakeTwoInARow == null ||
-                                Math.abs(possibleLocation.x - possibleLocation.y) != 1) {
-                            locationToMakeTwoInARow = possibleLocation;
-                        }
-                    }
-                }
+        // A cell's fork score is the number of lines through it holding only one stone, the AI's.
+        int forkBlock = -1, twoInARow = -1;
+        for (int cell = 0; cell < Bitboard.CELLS; cell++) {
+            if ((empty & 1 << cell) == 0) {
+                continue;
+            }
 
-                int theirForkScore = colResults.theirForkScores[col]
-                        + rowResults.theirForkScores[row]
-                        + (col == row ? diagResults.theirForkScores[0] : 0)
-                        + (col == 2 - row ? diagResults.theirForkScores[1] : 0);
-                if (theirForkScore > 1 && board[col][row] == CellValue.NONE) {
-                    forkBlock = new Point(col, row);
-                }
+            int myForkScore = Integer.bitCount(CELL_LINES[cell] & myForks);
+            if (myForkScore > 1) {
+                return choose(Rule.FORK, cell);
+            }
+            if (myForkScore > 0 && (twoInARow < 0 || (SIDES & 1 << cell) == 0)) {
+                twoInARow = cell; // a corner or the center beats a side, to stave off a fork
+            }
+
+            if (Integer.bitCount(CELL_LINES[cell] & theirForks) > 1) {
+                forkBlock = cell;
             }
         }
         //endregion
 
         // region 4. Block fork
-        if (forkBlock != null) {
-            if (locationToMakeTwoInARow != null) {
-                return locationToMakeTwoInARow; // make this random for replayability?
-            }
-
-            return forkBlock;
+        if (forkBlock >= 0) {
+            return choose(Rule.BLOCK_FORK, twoInARow >= 0 ? twoInARow : forkBlock);
         }
         //endregion
 
         // region 5. Center
-        if (board[1][1] == CellValue.NONE) {
-            return new Point(1, 1);
+        if ((empty & 1 << CENTER) != 0) {
+            return choose(Rule.CENTER, CENTER);
         }
         //endregion
 
-        Point emptyCorner = null;
-
         //region 6. Opposite corner
-        int[] cornerPoints = new int[]{0, 2};
-
-        for (int x : cornerPoints) {
-            for (int y : cornerPoints) {
-                if (board[x][y] == myTeam.other() && board[2 - x][2 - y] == CellValue.NONE) {
-                    return new Point(2 - x, 2 - y);
-                }
-
-                if (board[x][y] == CellValue.NONE) {
-                    emptyCorner = new Point(x, y);
-                }
+        // Corners in cell order; the opposite of corner c is cell 8 - c.
+        for (int corners = CORNERS; corners != 0; corners &= corners - 1) {
+            int corner = Integer.numberOfTrailingZeros(corners);
+            if ((theirs & 1 << corner) != 0 && (empty & 1 << Bitboard.CELLS - 1 - corner) != 0) {
+                return choose(Rule.OPPOSITE_CORNER, Bitboard.CELLS - 1 - corner);
             }
         }
         //endregion
 
         //region 7. Empty corner
-        if (emptyCorner != null) {
-            return emptyCorner; // make this random for replayability?
+        int emptyCorners = empty & CORNERS;
+        if (emptyCorners != 0) {
+            return choose(Rule.EMPTY_CORNER, 31 - Integer.numberOfLeadingZeros(emptyCorners));
         }
         //endregion
 
         //region 8. Empty side
-        for (Point loc : new Point[]{new Point(0, 1), new Point(1, 0), new Point(2, 1), new Point(1, 2)}) {
-            if (board[loc.x][loc.y] == CellValue.NONE) {
-                return loc; // make this random for replayability?
+        for (int side : SIDE_ORDER) {
+            if ((empty & 1 << side) != 0) {
+                return choose(Rule.EMPTY_SIDE, side);
             }
         }
         //endregion
@@ -222,29 +246,6 @@ public class HardTicTacToeAI implements TicTacToeAI, Serializable {
         throw new IllegalStateException("Can't return move while board is full.");
     }
 
-    private LineStats calculateWinBlockAndFork(ScorePair[] line) {
-        int[] lineScores = new int[]{-1, -1}, canFork = new int[line.length], theyCanFork = new int[line.length];
-
-        for (int i = 0; i < line.length; i++) {
-            if (line[i].getValue(myTeam) == 2) {
-                lineScores[0] = i;
-            } else if (line[i].getValue(myTeam.other()) == 2) {
-                lineScores[1] = i;
-            }
-
-
-            if (line[i].total() == 1) {
-                if (line[i].getValue(myTeam) == 1) {
-                    canFork[i] = 1;
-                } else if (line[i].getValue(myTeam.other()) == 1) {
-                    theyCanFork[i] = 1;
-                }
-            }
-        }
-
-        return new LineStats(lineScores, canFork, theyCanFork);
-    }
-
     // built-in
     @Serial
     private void writeObject(ObjectOutputStream s) throws IOException {
@@ -256,50 +257,4 @@ public class HardTicTacToeAI implements TicTacToeAI, Serializable {
         s.defaultReadObject();
         init();
     }
-
-    // helpers
-    public static class ScorePair implements Serializable {
-        private int x, o;
-
-        public ScorePair(int x, int o) {
-            this.x = x;
-            this.o = o;
-        }
-
-        public static ScorePair empty() {
-            return new ScorePair(0, 0);
-        }
-
-        public void increment(CellValue c) {
-            switch (c) {
-                case X -> x++;
-                case O -> o++;
-                default -> {}
-            }
-        }
-
-        public int getValue(CellValue c) {
-            return switch (c) {
-                case X -> x;
-                case O -> o;
-                default -> -1;
-            };
-        }
-
-        public int total() {
-            return x + o;
-        }
-    }
-
-    private static class LineStats {
-        // winBlockScores[0] is number of spaces in the line controlled by the AI,
-        // [1] is the number controlled by the other player
-        public final int[] winBlockScores, myForkScores, theirForkScores;
-
-        public LineStats(int[] scores, int[] mine, int[] theirs) {
-            winBlockScores = scores;
-            myForkScores = mine;
-            theirForkScores = theirs;
-        }
-    }
 }
@@ -0,0 +1,411 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+
+import java.awt.*;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Monte Carlo Tree Search (UCT) for boards too big to search exhaustively.
+ * <p>
+ * Several workers grow one shared tree at the same time. Node statistics are updated with atomic field
+ * updaters. A node's visit count goes up on the way down, before its playout finishes. This "virtual loss"
+ * makes the other workers try different lines instead of piling onto the same one. Random playouts run on
+ * a per-worker board and move buffer, so they allocate nothing. The search stops when the time budget or
+ * the playout budget runs out, and plays the most visited move.
+ * <p>
+ * After each move the subtree under the move actually played becomes the new root, so work from earlier
+ * turns is reused.
+ */
+public class MctsTicTacToeAI implements TicTacToeAI, Serializable {
+    public static final long DEFAULT_BUDGET_MILLIS = 200;
+    public static final long UNLIMITED_PLAYOUTS = Long.MAX_VALUE;
+
+    private static final double EXPLORATION = Math.sqrt(2);
+    // A leaf is expanded once it has been visited this many times.
+    private static final int EXPAND_VISITS = 2;
+    // New nodes allowed per move, to bound memory on big boards.
+    private static final int MAX_NEW_NODES = 1 << 21;
+    private static final int NEIGHBORHOOD = 2, SMALL_BOARD = 25;
+    // Workers claim playouts from the shared budget in batches, to keep contention on it low.
+    private static final int PLAYOUT_BATCH = 16;
+
+    // Shared by every instance. The threads are daemons, so an AI never has to be closed.
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors();
+    private static final ExecutorService SHARED_WORKERS = Executors.newFixedThreadPool(POOL_SIZE, r -> {
+        Thread t = new Thread(r, "mcts-worker");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final TicTacToeModel model;
+    private final long budgetMillis, maxPlayouts;
+    private final int threads;
+
+    private transient ExecutorService workers;
+    private transient Board board;
+    private transient Node root;
+    private transient Worker[] contexts;
+    private transient AtomicInteger newNodes;
+    private transient long lastPlayouts, lastNanos;
+
+    @Serial
+    private static final long serialVersionUID = 48L;
+
+    public MctsTicTacToeAI(TicTacToeModel m) {
+        this(m, DEFAULT_BUDGET_MILLIS, UNLIMITED_PLAYOUTS, POOL_SIZE);
+    }
+
+    /**
+     * @param budgetMillis how long each move may take
+     * @param maxPlayouts  the most playouts each move may use
+     * @param threads      the number of workers growing the tree, at most one per core: the workers share
+     *                     a pool of that size, and any more would only start once the time was up
+     */
+    public MctsTicTacToeAI(TicTacToeModel m, long budgetMillis, long maxPlayouts, int threads) {
+        model = m;
+        this.budgetMillis = budgetMillis;
+        this.maxPlayouts = maxPlayouts;
+        this.threads = Math.min(threads, POOL_SIZE);
+        init();
+    }
+
+    private void init() {
+        workers = SHARED_WORKERS;
+        board = model.copyBoard();
+        root = new Node(-1, Node.ONGOING);
+        newNodes = new AtomicInteger();
+        contexts = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            contexts[i] = new Worker(board.copy());
+        }
+    }
+
+    // gameplay
+    @Override
+    public void submitMoveToAI(Point loc) {
+        int cell = board.index(loc.x, loc.y);
+        board.place(cell, moverAt(board.getMoveCount()));
+
+        Node next = null;
+        Node[] children = root.children;
+        if (children != null) {
+            for (Node child : children) {
+                if (child.cell == cell) {
+                    next = child;
+                    break;
+                }
+            }
+        }
+
+        root = next != null ? next : new Node(cell, Node.ONGOING);
+        newNodes.set(0);
+    }
+
+    // The tree only goes forwards, so going back starts a new one.
+    @Override
+    public void retractMoveFromAI(Point loc) {
+        board.clear(board.index(loc.x, loc.y));
+        root = new Node(-1, Node.ONGOING);
+        newNodes.set(0);
+    }
+
+    @Override
+    public Point calculateMove() {
+        return calculateMove(() -> false);
+    }
+
+    @Override
+    public Point calculateMove(BooleanSupplier stop) {
+        if (board.isFull()) {
+            throw new IllegalStateException("Can't return move while board is full.");
+        }
+
+        long start = System.nanoTime();
+        long deadline = NegamaxSearcher.deadlineAfter(TimeUnit.MILLISECONDS.toNanos(budgetMillis));
+        AtomicLong remaining = new AtomicLong(maxPlayouts);
+
+        if (root.children == null) {
+            expand(root, board);
+        }
+
+        List<Callable<Long>> tasks = new ArrayList<>(threads);
+        for (Worker w : contexts) {
+            tasks.add(() -> w.run(deadline, remaining, stop));
+        }
+
+        long playouts = 0;
+        try {
+            for (Future<Long> f : workers.invokeAll(tasks)) {
+                playouts += f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("MCTS worker failed.", e.getCause());
+        }
+
+        lastPlayouts = playouts;
+        lastNanos = System.nanoTime() - start;
+
+        Node best = null;
+        for (Node child : root.children) {
+            if (best == null || child.visits > best.visits) {
+                best = child;
+            }
+        }
+
+        return new Point(board.xOf(best.cell), board.yOf(best.cell));
+    }
+
+    // getters
+    public int getThreads() {
+        return threads;
+    }
+
+    // statistics about the last move
+    public long getLastPlayouts() {
+        return lastPlayouts;
+    }
+
+    @Override
+    public long getLastNodes() {
+        return lastPlayouts;
+    }
+
+    public double getLastPlayoutsPerSecond() {
+        return lastNanos == 0 ? 0 : lastPlayouts * 1e9 / lastNanos;
+    }
+
+    // How many playouts the tree kept from earlier moves has been through, before the next search.
+    int getRootVisits() {
+        return root.visits;
+    }
+
+    // tree
+    private static CellValue moverAt(int moveNumber) {
+        return (moveNumber & 1) == 0 ? CellValue.X : CellValue.O;
+    }
+
+    // Creates children for the legal moves from this node. If one of them wins on the spot, it is the only child.
+    private Node[] expand(Node node, Board position) {
+        return expand(node, position, position.getCells() > SMALL_BOARD && position.getMoveCount() > 0);
+    }
+
+    private Node[] expand(Node node, Board position, boolean nearOnly) {
+        int cells = position.getCells();
+        CellValue side = moverAt(position.getMoveCount());
+
+        int count = 0;
+        Node[] candidates = new Node[cells - position.getMoveCount()];
+
+        for (int cell = 0; cell < cells; cell++) {
+            if (!position.isEmpty(cell) || (nearOnly && !hasNeighbor(position, cell))) {
+                continue;
+            }
+
+            position.place(cell, side);
+            byte result = position.isWinningMove(cell) ? Node.WIN : position.isFull() ? Node.DRAW : Node.ONGOING;
+            position.clear(cell);
+
+            if (result == Node.WIN) {
+                candidates = new Node[]{new Node(cell, result)};
+                count = 1;
+                break;
+            }
+            candidates[count++] = new Node(cell, result);
+        }
+
+        if (count == 0 && nearOnly) {
+            return expand(node, position, false); // every cell near a stone is taken
+        }
+
+        Node[] children = Arrays.copyOf(candidates, count);
+        if (Node.CHILDREN.compareAndSet(node, null, children)) {
+            newNodes.addAndGet(count);
+            return children;
+        }
+        return node.children; // another worker expanded it first
+    }
+
+    private static boolean hasNeighbor(Board position, int cell) {
+        int x = position.xOf(cell), y = position.yOf(cell);
+
+        for (int nx = x - NEIGHBORHOOD; nx <= x + NEIGHBORHOOD; nx++) {
+            for (int ny = y - NEIGHBORHOOD; ny <= y + NEIGHBORHOOD; ny++) {
+                if (position.inBounds(nx, ny) && !position.isEmpty(position.index(nx, ny))) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static Node select(Node parent, Node[] children) {
+        double logVisits = Math.log(Math.max(1, parent.visits));
+        Node best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+
+        for (Node child : children) {
+            int visits = child.visits;
+            if (visits == 0) {
+                return child;
+            }
+
+            double value = child.score / (2.0 * visits) + EXPLORATION * Math.sqrt(logVisits / visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+
+        return best;
+    }
+
+    private final class Worker {
+        private final Board position;
+        private final int[] empties;
+        private final Node[] path;
+
+        Worker(Board position) {
+            this.position = position;
+            empties = new int[position.getCells()];
+            path = new Node[position.getCells() + 1];
+        }
+
+        long run(long deadline, AtomicLong remaining, BooleanSupplier stop) {
+            long done = 0;
+
+            while (!stop.getAsBoolean() && System.nanoTime() < deadline) {
+                long claimed = Math.min(PLAYOUT_BATCH, remaining.getAndAdd(-PLAYOUT_BATCH));
+                if (claimed <= 0) {
+                    break;
+                }
+
+                for (int i = 0; i < claimed; i++) {
+                    playout();
+                }
+                done += claimed;
+            }
+
+            return done;
+        }
+
+        private void playout() {
+            position.copyFrom(board);
+            int rootMoves = position.getMoveCount();
+
+            Node node = root;
+            int depth = 0;
+            path[0] = node;
+            Node.VISITS.incrementAndGet(node);
+
+            CellValue winner = CellValue.NONE;
+            boolean over = false;
+
+            // selection and expansion
+            while (true) {
+                Node[] children = node.children;
+                if (children == null) {
+                    if (node.visits < EXPAND_VISITS || newNodes.get() >= MAX_NEW_NODES || position.isFull()) {
+                        break;
+                    }
+                    children = expand(node, position);
+                }
+
+                Node child = select(node, children);
+                CellValue side = moverAt(position.getMoveCount());
+                position.place(child.cell, side);
+                path[++depth] = child;
+                Node.VISITS.incrementAndGet(child); // virtual loss until the result is backed up
+                node = child;
+
+                if (child.result != Node.ONGOING) {
+                    winner = child.result == Node.WIN ? side : CellValue.NONE;
+                    over = true;
+                    break;
+                }
+            }
+
+            if (!over) {
+                winner = rollout();
+            }
+
+            // backpropagation: each node is scored for the player who moved into it
+            for (int i = 0; i <= depth; i++) {
+                CellValue mover = moverAt(rootMoves + i - 1);
+                int reward = winner == CellValue.NONE ? 1 : winner == mover ? 2 : 0;
+                if (reward != 0) {
+                    Node.SCORE.addAndGet(path[i], reward);
+                }
+                path[i] = null;
+            }
+        }
+
+        // Plays random moves to the end of the game, without allocating.
+        private CellValue rollout() {
+            int n = 0;
+            for (int cell = 0; cell < position.getCells(); cell++) {
+                if (position.isEmpty(cell)) {
+                    empties[n++] = cell;
+                }
+            }
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (n > 0) {
+                int r = random.nextInt(n);
+                int cell = empties[r];
+                empties[r] = empties[--n];
+
+                CellValue side = moverAt(position.getMoveCount());
+                position.place(cell, side);
+                if (position.isWinningMove(cell)) {
+                    return side;
+                }
+            }
+
+            return CellValue.NONE;
+        }
+    }
+
+    private static final class Node {
+        // result of the move into this node
+        static final byte ONGOING = 0, WIN = 1, DRAW = 2;
+
+        static final AtomicIntegerFieldUpdater<Node> VISITS =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+        static final AtomicLongFieldUpdater<Node> SCORE =
+                AtomicLongFieldUpdater.newUpdater(Node.class, "score");
+        static final AtomicReferenceFieldUpdater<Node, Node[]> CHILDREN =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node[].class, "children");
+
+        final int cell;
+        final byte result;
+        volatile int visits;
+        volatile long score; // 2 per win, 1 per draw, for the player who moved into this node
+        volatile Node[] children;
+
+        Node(int cell, byte result) {
+            this.cell = cell;
+            this.result = result;
+        }
+    }
+
+    // built-in
+    @Serial
+    private void readObject(ObjectInputStream s) throws IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        init();
+    }
+}
@@ -0,0 +1,439 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Negamax with alpha-beta pruning over its own copy of a {@link Board}, deepened one ply at a time
+ * until the time budget runs out.
+ * <p>
+ * Moves are tried in order: the transposition table's best move, then moves that caused cutoffs before
+ * (history heuristic), then cells closest to the center. On boards bigger than 5x5, only cells within two
+ * of an existing stone are considered.
+ * <p>
+ * A searcher is single-threaded, but several searchers may share one {@link TranspositionTable}.
+ */
+final class NegamaxSearcher {
+    // Scores are from the point of view of the player to move. A win found at ply p scores WIN - p,
+    // so faster wins score higher. Anything beyond MATE_BOUND is a proven result.
+    static final int WIN = 1 << 30, MATE_BOUND = WIN - (1 << 16);
+    private static final int MAX_EVAL = 1 << 29;
+    private static final int NEIGHBORHOOD = 2, SMALL_BOARD = 25;
+
+    // How many nodes are searched between clock and stop checks, minus one.
+    private static final int CHECK_INTERVAL = 1023;
+    private static final BooleanSupplier NEVER = () -> false;
+
+    private final Board board;
+    private final TranspositionTable table;
+
+    private final boolean restrictToNeighborhood;
+    private final int[] nearbyStones; // stones within NEIGHBORHOOD of each cell
+    private final int[] centrality, history;
+    private final int[][] moves, orderKeys; // per-ply buffers, so searching allocates nothing
+
+    private long deadline, nodes;
+    private BooleanSupplier stopRequested = NEVER;
+    private volatile boolean stopped;
+    private int rootBest, lastDepth, lastScore;
+    private volatile TicTacToeAI.ProgressListener progress;
+
+    NegamaxSearcher(Board board, TranspositionTable table) {
+        this.board = board;
+        this.table = table;
+        int cells = board.getCells();
+
+        restrictToNeighborhood = cells > SMALL_BOARD;
+        nearbyStones = new int[cells];
+        centrality = new int[cells];
+        history = new int[cells];
+        moves = new int[cells + 1][cells];
+        orderKeys = new int[cells + 1][cells];
+
+        double cx = (board.getWidth() - 1) / 2.0, cy = (board.getHeight() - 1) / 2.0;
+        for (int cell = 0; cell < cells; cell++) {
+            centrality[cell] = 255 - (int) Math.min(255, Math.abs(board.xOf(cell) - cx) + Math.abs(board.yOf(cell) - cy));
+        }
+
+        reset(board);
+    }
+
+    /**
+     * Moves this searcher to the position on {@code root}, which must have the same shape as its own board.
+     */
+    void reset(Board root) {
+        if (root != board) {
+            board.copyFrom(root);
+        }
+
+        Arrays.fill(nearbyStones, 0);
+
+        for (int cell = 0; cell < board.getCells(); cell++) {
+            if (!board.isEmpty(cell)) {
+                markNeighborhood(cell, 1);
+            }
+        }
+    }
+
+    // position
+    Board getBoard() {
+        return board;
+    }
+
+    CellValue sideToMove() {
+        return (board.getMoveCount() & 1) == 0 ? CellValue.X : CellValue.O;
+    }
+
+    void play(int cell) {
+        CellValue player = sideToMove();
+        board.place(cell, player);
+        markNeighborhood(cell, 1);
+    }
+
+    void undo(int cell) {
+        board.clear(cell);
+        markNeighborhood(cell, -1);
+    }
+
+    private void markNeighborhood(int cell, int delta) {
+        if (!restrictToNeighborhood) {
+            return;
+        }
+
+        int x = board.xOf(cell), y = board.yOf(cell);
+        for (int nx = x - NEIGHBORHOOD; nx <= x + NEIGHBORHOOD; nx++) {
+            for (int ny = y - NEIGHBORHOOD; ny <= y + NEIGHBORHOOD; ny++) {
+                if (board.inBounds(nx, ny)) {
+                    nearbyStones[board.index(nx, ny)] += delta;
+                }
+            }
+        }
+    }
+
+    // results of the last search
+    int getLastDepth() {
+        return lastDepth;
+    }
+
+    int getLastScore() {
+        return lastScore;
+    }
+
+    long getNodes() {
+        return nodes;
+    }
+
+    boolean isStopped() {
+        return stopped;
+    }
+
+    void setProgressListener(TicTacToeAI.ProgressListener progress) {
+        this.progress = progress;
+    }
+
+    // search
+    /**
+     * Searches the current position with iterative deepening.
+     *
+     * @return the best cell found, or -1 if there are no legal moves
+     */
+    int search(long budgetNanos, int maxDepth) {
+        return search(budgetNanos, maxDepth, NEVER);
+    }
+
+    /**
+     * Like {@link #search(long, int)}, but also returns early once {@code stop} turns true, even if it
+     * already had before the search began.
+     */
+    int search(long budgetNanos, int maxDepth, BooleanSupplier stop) {
+        prepare(deadlineAfter(budgetNanos), stop);
+        lastDepth = 0;
+        lastScore = 0;
+        table.newSearch();
+
+        int empties = board.getCells() - board.getMoveCount();
+        int best = -1;
+
+        for (int depth = 1; depth <= Math.min(maxDepth, empties); depth++) {
+            rootBest = -1;
+            int score = negamax(depth, -WIN, WIN, 0);
+
+            // A stopped iteration still only records moves whose subtrees were searched completely.
+            if (rootBest != -1) {
+                best = rootBest;
+            }
+            if (stopped) {
+                break;
+            }
+
+            lastDepth = depth;
+            lastScore = score;
+            reportProgress(best, depth);
+            if (Math.abs(score) >= MATE_BOUND) {
+                break;
+            }
+        }
+
+        if (best == -1 && empties > 0) {
+            best = generateMoves(0, -1) > 0 ? moves[0][0] : -1;
+        }
+
+        return best;
+    }
+
+    // Tells the progress listener, if any, about the best move after a completed iteration.
+    private void reportProgress(int cell, int depth) {
+        TicTacToeAI.ProgressListener listener = progress;
+        if (listener != null && cell >= 0) {
+            listener.bestMoveSoFar(new Point(board.xOf(cell), board.yOf(cell)), depth);
+        }
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} at which a budget starting now runs out, saturating instead of overflowing
+     */
+    static long deadlineAfter(long budgetNanos) {
+        long now = System.nanoTime();
+        return now + Math.min(budgetNanos, Long.MAX_VALUE - Math.max(now, 0));
+    }
+
+    /**
+     * Readies this searcher for a search that must finish by {@code deadline}, in {@link System#nanoTime()}
+     * terms, or as soon as it can once {@code stop} turns true.
+     */
+    void prepare(long deadline, BooleanSupplier stop) {
+        this.deadline = deadline;
+        stopRequested = stop;
+        stopped = stop.getAsBoolean();
+        nodes = 0;
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 1;
+        }
+    }
+
+    /**
+     * Fills {@code out} with the legal moves at the root, best first.
+     *
+     * @return the number of moves
+     */
+    int orderedRootMoves(int[] out) {
+        long entry = table.probe(board.getHash());
+        int count = generateMoves(0, entry == TranspositionTable.MISS ? -1 : TranspositionTable.moveOf(entry));
+
+        for (int i = 0; i < count; i++) {
+            out[i] = nextMove(0, i, count);
+        }
+
+        return count;
+    }
+
+    /**
+     * Searches one root move to {@code depth} plies, counting the move itself.
+     *
+     * @return the score of the move for the player to move at the root, or 0 if the search was stopped
+     */
+    int searchRootMove(int cell, int depth, int alpha, int beta) {
+        int score;
+
+        play(cell);
+        if (board.isWinningMove(cell)) {
+            score = WIN - 1;
+        } else if (board.isFull()) {
+            score = 0;
+        } else {
+            score = -negamax(depth - 1, -beta, -alpha, 1);
+        }
+        undo(cell);
+
+        return stopped ? 0 : score;
+    }
+
+    /**
+     * Records the result of a completed root iteration, so the next one tries the best move first.
+     */
+    void storeRoot(int score, int move, int depth) {
+        table.store(board.getHash(), toTable(score, 0), move, depth, TranspositionTable.EXACT);
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        if ((++nodes & CHECK_INTERVAL) == 0 && (System.nanoTime() > deadline || stopRequested.getAsBoolean())) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+
+        int alphaOrig = alpha;
+        int tableMove = -1;
+        long entry = table.probe(board.getHash());
+
+        if (entry != TranspositionTable.MISS) {
+            tableMove = TranspositionTable.moveOf(entry);
+
+            if (ply > 0 && TranspositionTable.depthOf(entry) >= depth) {
+                int score = fromTable(TranspositionTable.scoreOf(entry), ply);
+
+                switch (TranspositionTable.boundOf(entry)) {
+                    case TranspositionTable.EXACT -> {
+                        return score;
+                    }
+                    case TranspositionTable.LOWER -> alpha = Math.max(alpha, score);
+                    case TranspositionTable.UPPER -> beta = Math.min(beta, score);
+                    default -> {}
+                }
+
+                if (alpha >= beta) {
+                    return score;
+                }
+            }
+        }
+
+        if (depth == 0) {
+            return evaluate();
+        }
+
+        int count = generateMoves(ply, tableMove);
+        int best = -WIN, bestCell = -1;
+
+        for (int i = 0; i < count; i++) {
+            int cell = nextMove(ply, i, count);
+            int score;
+
+            play(cell);
+            if (board.isWinningMove(cell)) {
+                score = WIN - ply - 1;
+            } else if (board.isFull()) {
+                score = 0;
+            } else {
+                score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            }
+            undo(cell);
+
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+                bestCell = cell;
+                if (ply == 0) {
+                    rootBest = cell;
+                }
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                history[cell] += depth * depth;
+                break;
+            }
+        }
+
+        int bound = best <= alphaOrig ? TranspositionTable.UPPER
+                : best >= beta ? TranspositionTable.LOWER
+                : TranspositionTable.EXACT;
+        table.store(board.getHash(), toTable(best, ply), bestCell, depth, bound);
+
+        return best;
+    }
+
+    // Proven results are stored relative to the node rather than the root, so they stay correct when
+    // the same position is reached at a different ply.
+    private static int toTable(int score, int ply) {
+        return score >= MATE_BOUND ? score + ply : score <= -MATE_BOUND ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        return score >= MATE_BOUND ? score - ply : score <= -MATE_BOUND ? score + ply : score;
+    }
+
+    // move ordering
+    private int generateMoves(int ply, int tableMove) {
+        int[] buffer = moves[ply], keys = orderKeys[ply];
+        boolean nearOnly = restrictToNeighborhood && board.getMoveCount() > 0;
+        int count = 0;
+
+        for (int cell = 0; cell < board.getCells(); cell++) {
+            if (!board.isEmpty(cell) || (nearOnly && nearbyStones[cell] == 0)) {
+                continue;
+            }
+
+            buffer[count] = cell;
+            keys[count++] = cell == tableMove ? Integer.MAX_VALUE : (Math.min(history[cell], 1 << 22) << 8) + centrality[cell];
+        }
+
+        return count;
+    }
+
+    // Selection sort one step at a time: cutoffs usually come early, so most moves are never sorted.
+    private int nextMove(int ply, int i, int count) {
+        int[] buffer = moves[ply], keys = orderKeys[ply];
+        int best = i;
+
+        for (int j = i + 1; j < count; j++) {
+            if (keys[j] > keys[best]) {
+                best = j;
+            }
+        }
+
+        int cell = buffer[best];
+        buffer[best] = buffer[i];
+        buffer[i] = cell;
+
+        int key = keys[best];
+        keys[best] = keys[i];
+        keys[i] = key;
+
+        return cell;
+    }
+
+    // evaluation
+    // Scores every window of winLength cells that only one player has stones in, weighted by how full it is.
+    private int evaluate() {
+        int width = board.getWidth(), height = board.getHeight(), k = board.getWinLength();
+        long score = 0;
+
+        for (int d = 0; d < Board.DIRECTIONS; d++) {
+            int dx = Board.dx(d), dy = Board.dy(d);
+
+            for (int startX = 0; startX < width; startX++) {
+                for (int startY = 0; startY < height; startY++) {
+                    if (board.inBounds(startX - dx, startY - dy)) {
+                        continue; // not the start of a line
+                    }
+
+                    int xs = 0, os = 0, length = 0;
+                    for (int x = startX, y = startY; board.inBounds(x, y); x += dx, y += dy) {
+                        switch (board.get(board.index(x, y))) {
+                            case X -> xs++;
+                            case O -> os++;
+                            default -> {}
+                        }
+
+                        if (++length > k) {
+                            switch (board.get(board.index(x - k * dx, y - k * dy))) {
+                                case X -> xs--;
+                                case O -> os--;
+                                default -> {}
+                            }
+                        }
+
+                        if (length >= k && (xs == 0 || os == 0)) {
+                            score += xs > 0 ? weight(xs) : -weight(os);
+                        }
+                    }
+                }
+            }
+        }
+
+        score = Math.max(-MAX_EVAL, Math.min(MAX_EVAL, score));
+        return (int) (sideToMove() == CellValue.X ? score : -score);
+    }
+
+    private static long weight(int stones) {
+        return stones == 0 ? 0 : 1L << Math.min(3 * stones, 40);
+    }
+}
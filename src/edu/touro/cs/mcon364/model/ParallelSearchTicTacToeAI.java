@@ -0,0 +1,277 @@
+package edu.touro.cs.mcon364.model;
+
+import java.awt.*;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A multi-threaded version of {@link SearchTicTacToeAI}, splitting the root across a {@link ForkJoinPool}
+ * in "young brothers wait" style.
+ * <p>
+ * Each iteration of the deepening loop searches the first (most promising) root move alone, to get a good
+ * bound. The rest of the root moves are then searched in parallel against the best score found so far.
+ * Every worker has its own board and move buffers, and all of them share one lock-free
+ * {@link TranspositionTable}, so each worker also benefits from what the others have already searched.
+ * <p>
+ * AIs with the same parallelism share one pool of daemon threads, so a new AI every game costs no threads.
+ */
+public class ParallelSearchTicTacToeAI implements TicTacToeAI, Serializable {
+    // by parallelism
+    private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    private final TicTacToeModel model;
+    private final long budgetMillis;
+    private final int tableBits, parallelism;
+    private int maxDepth = Integer.MAX_VALUE;
+
+    private transient ForkJoinPool pool;
+    private transient Board board;
+    private transient TranspositionTable table;
+    private transient ConcurrentLinkedQueue<NegamaxSearcher> idleSearchers;
+    private transient volatile ProgressListener progress;
+    private transient int[] rootMoves;
+    private transient int lastDepth, lastScore;
+    private transient long lastNodes;
+
+    @Serial
+    private static final long serialVersionUID = 47L;
+
+    public ParallelSearchTicTacToeAI(TicTacToeModel m) {
+        this(m, SearchTicTacToeAI.DEFAULT_BUDGET_MILLIS, SearchTicTacToeAI.DEFAULT_TABLE_BITS,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param budgetMillis how long each move may take
+     * @param tableBits    the shared transposition table holds {@code 2^tableBits} entries, 16 bytes each
+     * @param parallelism  the number of worker threads, in a pool shared with every other AI of the same parallelism
+     */
+    public ParallelSearchTicTacToeAI(TicTacToeModel m, long budgetMillis, int tableBits, int parallelism) {
+        model = m;
+        this.budgetMillis = budgetMillis;
+        this.tableBits = tableBits;
+        this.parallelism = parallelism;
+        init();
+    }
+
+    private void init() {
+        pool = POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+        board = model.copyBoard();
+        table = new TranspositionTable(tableBits);
+        idleSearchers = new ConcurrentLinkedQueue<>();
+        rootMoves = new int[board.getCells()];
+    }
+
+    // gameplay
+    @Override
+    public void submitMoveToAI(Point loc) {
+        board.place(board.index(loc.x, loc.y), (board.getMoveCount() & 1) == 0
+                ? TicTacToeModel.CellValue.X : TicTacToeModel.CellValue.O);
+    }
+
+    @Override
+    public void retractMoveFromAI(Point loc) {
+        board.clear(board.index(loc.x, loc.y));
+    }
+
+    @Override
+    public Point calculateMove() {
+        return calculateMove(() -> false);
+    }
+
+    @Override
+    public Point calculateMove(BooleanSupplier stop) {
+        int cell = search(TimeUnit.MILLISECONDS.toNanos(budgetMillis), stop);
+
+        if (cell < 0) {
+            throw new IllegalStateException("Can't return move while board is full.");
+        }
+
+        return new Point(board.xOf(cell), board.yOf(cell));
+    }
+
+    @Override
+    public void setProgressListener(ProgressListener listener) {
+        progress = listener;
+    }
+
+    /**
+     * Limits how many plies deep each move is searched, whatever the time budget.
+     */
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    // statistics about the last move
+    @Override
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    @Override
+    public long getLastNodes() {
+        return lastNodes;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    // search
+    // Every worker checks the same stop, so one set before a worker starts still stops it.
+    private int search(long budgetNanos, BooleanSupplier stop) {
+        long deadline = NegamaxSearcher.deadlineAfter(budgetNanos);
+        int empties = board.getCells() - board.getMoveCount();
+        AtomicLong nodes = new AtomicLong();
+
+        table.newSearch();
+        lastDepth = 0;
+        lastScore = 0;
+
+        NegamaxSearcher main = acquire(deadline, stop);
+        int count = main.orderedRootMoves(rootMoves);
+        int best = count > 0 ? rootMoves[0] : -1;
+
+        for (int depth = 1; depth <= Math.min(maxDepth, empties) && count > 0; depth++) {
+            count = main.orderedRootMoves(rootMoves);
+
+            // Eldest brother: searched alone, with a full window.
+            int eldest = rootMoves[0];
+            int score = main.searchRootMove(eldest, depth, -NegamaxSearcher.WIN, NegamaxSearcher.WIN);
+            if (main.isStopped()) {
+                break;
+            }
+
+            // Young brothers: searched in parallel, each against the best score known when it starts.
+            AtomicLong bestSoFar = new AtomicLong(packResult(score, eldest));
+            List<RootMoveTask> tasks = new ArrayList<>(count - 1);
+            for (int i = 1; i < count; i++) {
+                tasks.add(new RootMoveTask(rootMoves[i], depth, deadline, stop, bestSoFar, nodes));
+            }
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+
+            // Moves are only credited once their subtree is searched completely, so a stopped
+            // iteration still improves on the last one.
+            best = moveOf(bestSoFar.get());
+            if (tasks.stream().anyMatch(t -> t.stopped)) {
+                break;
+            }
+
+            lastDepth = depth;
+            lastScore = scoreOf(bestSoFar.get());
+            main.storeRoot(lastScore, best, depth);
+            ProgressListener listener = progress;
+            if (listener != null) {
+                listener.bestMoveSoFar(new Point(board.xOf(best), board.yOf(best)), depth);
+            }
+            if (Math.abs(lastScore) >= NegamaxSearcher.MATE_BOUND) {
+                break;
+            }
+        }
+
+        lastNodes = nodes.addAndGet(main.getNodes());
+        release(main);
+
+        return best;
+    }
+
+    // The best root move so far is a (score, move) pair in one long, so workers can update it with a CAS.
+    private static long packResult(int score, int move) {
+        return (long) score << 32 | (move & 0xFFFFFFFFL);
+    }
+
+    private static int scoreOf(long result) {
+        return (int) (result >> 32);
+    }
+
+    private static int moveOf(long result) {
+        return (int) result;
+    }
+
+    // Workers keep their buffers between searches instead of reallocating them.
+    private NegamaxSearcher acquire(long deadline, BooleanSupplier stop) {
+        NegamaxSearcher searcher = idleSearchers.poll();
+
+        if (searcher == null) {
+            searcher = new NegamaxSearcher(board.copy(), table);
+        } else {
+            searcher.reset(board);
+        }
+
+        searcher.prepare(deadline, stop);
+        return searcher;
+    }
+
+    private void release(NegamaxSearcher searcher) {
+        idleSearchers.add(searcher);
+    }
+
+    private class RootMoveTask extends RecursiveAction {
+        private final int cell, depth;
+        private final long deadline;
+        private final BooleanSupplier stop;
+        private final AtomicLong bestSoFar, nodes;
+        private boolean stopped;
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        RootMoveTask(int cell, int depth, long deadline, BooleanSupplier stop, AtomicLong bestSoFar, AtomicLong nodes) {
+            this.cell = cell;
+            this.depth = depth;
+            this.deadline = deadline;
+            this.stop = stop;
+            this.bestSoFar = bestSoFar;
+            this.nodes = nodes;
+        }
+
+        @Override
+        protected void compute() {
+            NegamaxSearcher searcher = acquire(deadline, stop);
+            int bound = scoreOf(bestSoFar.get());
+            int score = searcher.searchRootMove(cell, depth, bound, NegamaxSearcher.WIN);
+
+            stopped = searcher.isStopped();
+            nodes.addAndGet(searcher.getNodes());
+            release(searcher);
+
+            // With an open upper bound, anything above the starting bound is an exact score.
+            if (stopped || score <= bound) {
+                return;
+            }
+
+            long current;
+            do {
+                current = bestSoFar.get();
+                if (score <= scoreOf(current)) {
+                    return;
+                }
+            } while (!bestSoFar.compareAndSet(current, packResult(score, cell)));
+        }
+    }
+
+    // built-in
+    @Serial
+    private void readObject(ObjectInputStream s) throws IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        init();
+    }
+}
@@ -0,0 +1,183 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+
+import java.awt.*;
+import java.io.*;
+
+/**
+ * Plays perfectly by looking the current position up in a table of every 3x3 position.
+ * The table is solved once, when the class is loaded, and is indexed by the base 3 number whose
+ * digit for cell i (see {@link Bitboard}) is 0 when empty, 1 for X and 2 for O.
+ */
+public class PerfectPlayTicTacToeAI implements TicTacToeAI, Serializable {
+    public static final int WIN = 1, DRAW = 0, LOSS = -1;
+    private static final int POSITIONS = 19683; // 3^9
+
+    private static final int[] POW3 = new int[Bitboard.CELLS];
+
+    // Indexed by position. Values are from the point of view of the player to move.
+    private static final byte[] BEST_MOVE = new byte[POSITIONS];
+    private static final byte[] OUTCOME = new byte[POSITIONS];
+    private static final byte[] DISTANCE = new byte[POSITIONS];
+    private static final boolean[] SOLVED = new boolean[POSITIONS];
+
+    // Ties are broken in favor of the center, then the corners.
+    private static final int[] MOVE_ORDER = {4, 0, 2, 6, 8, 1, 3, 5, 7};
+
+    private final TicTacToeModel model;
+    private transient int position;
+
+    @Serial
+    private static final long serialVersionUID = 45L;
+
+    static {
+        for (int i = 0, p = 1; i < Bitboard.CELLS; i++, p *= 3) {
+            POW3[i] = p;
+        }
+
+        solve(0, 0, 0);
+    }
+
+    public PerfectPlayTicTacToeAI(TicTacToeModel m) {
+        if (!m.isClassic()) {
+            throw new IllegalArgumentException("PerfectPlayTicTacToeAI only plays the classic 3x3 board.");
+        }
+
+        model = m;
+        init();
+    }
+
+    private void init() {
+        position = index(model.getMask(CellValue.X), model.getMask(CellValue.O));
+    }
+
+    // gameplay
+    @Override
+    public void submitMoveToAI(Point loc) {
+        // Called before the model flips the turn, so the mover is the "next" player.
+        int digit = model.previousPlayer().other() == CellValue.X ? 1 : 2;
+        position += digit * POW3[Bitboard.index(loc.x, loc.y)];
+    }
+
+    @Override
+    public void retractMoveFromAI(Point loc) {
+        // The stone is still on the model's board.
+        int digit = model.getSpace(loc.x, loc.y) == CellValue.X ? 1 : 2;
+        position -= digit * POW3[Bitboard.index(loc.x, loc.y)];
+    }
+
+    @Override
+    public Point calculateMove() {
+        int cell = BEST_MOVE[position];
+
+        if (cell < 0) {
+            throw new IllegalStateException("Can't return move once the game is over.");
+        }
+
+        return new Point(cell / Bitboard.SIZE, cell % Bitboard.SIZE);
+    }
+
+    // table access
+    public static int index(int xMask, int oMask) {
+        int index = 0;
+
+        for (int i = 0; i < Bitboard.CELLS; i++) {
+            if ((xMask & (1 << i)) != 0) {
+                index += POW3[i];
+            } else if ((oMask & (1 << i)) != 0) {
+                index += 2 * POW3[i];
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * @return the best cell for the player to move, or -1 if the game is over or the position can't occur
+     */
+    public static int bestMove(int index) {
+        return BEST_MOVE[index];
+    }
+
+    /**
+     * @return {@link #WIN}, {@link #DRAW} or {@link #LOSS} for the player to move, under perfect play
+     */
+    public static int outcome(int index) {
+        return OUTCOME[index];
+    }
+
+    /**
+     * @return the number of moves left in the game under perfect play
+     */
+    public static int distance(int index) {
+        return DISTANCE[index];
+    }
+
+    public static boolean isReachable(int index) {
+        return SOLVED[index];
+    }
+
+    // Negamax over every reachable position. Wins are taken as fast as possible, losses delayed as long as possible.
+    private static void solve(int xMask, int oMask, int index) {
+        if (SOLVED[index]) {
+            return;
+        }
+        SOLVED[index] = true;
+        BEST_MOVE[index] = -1;
+
+        boolean xToMove = Integer.bitCount(xMask) == Integer.bitCount(oMask);
+
+        if (Bitboard.isWin(xToMove ? oMask : xMask)) {
+            OUTCOME[index] = LOSS;
+            return;
+        }
+        if ((xMask | oMask) == Bitboard.FULL) {
+            OUTCOME[index] = DRAW;
+            return;
+        }
+
+        int bestScore = Integer.MIN_VALUE;
+
+        for (int cell : MOVE_ORDER) {
+            int bit = 1 << cell;
+            if (((xMask | oMask) & bit) != 0) {
+                continue;
+            }
+
+            int child = index + (xToMove ? 1 : 2) * POW3[cell];
+            if (xToMove) {
+                solve(xMask | bit, oMask, child);
+            } else {
+                solve(xMask, oMask | bit, child);
+            }
+
+            int outcome = -OUTCOME[child], distance = DISTANCE[child] + 1;
+            int score = score(outcome, distance);
+
+            if (score > bestScore) {
+                bestScore = score;
+                BEST_MOVE[index] = (byte) cell;
+                OUTCOME[index] = (byte) outcome;
+                DISTANCE[index] = (byte) distance;
+            }
+        }
+    }
+
+    // Orders (outcome, distance) pairs: quick wins first, then draws, then slow losses. Tablebase uses the
+    // same outcome values, and TablebaseBuilder orders its moves by this too.
+    static int score(int outcome, int distance) {
+        return switch (outcome) {
+            case WIN -> 100 - distance;
+            case LOSS -> -100 + distance;
+            default -> 0;
+        };
+    }
+
+    // built-in
+    @Serial
+    private void readObject(ObjectInputStream s) throws IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        init();
+    }
+}
@@ -0,0 +1,129 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+/**
+ * A whole position packed into one long: both players' stones, whose turn it is, how the game stands and
+ * the board's shape. A long can't change, so a position can be handed to any number of threads and read
+ * without locks or copies. {@link TicTacToeModel#getPosition()} returns the current one.
+ * <p>
+ * Only boards of at most {@value #MAX_CELLS} cells fit. Stones use {@link Board}'s cell numbering,
+ * {@code x * height + y}, so on the 3x3 board the masks are the same as {@link Bitboard}'s.
+ * <pre>
+ *     bits  0-24  X's stones
+ *          25-49  O's stones
+ *             50  X to move
+ *          51-52  game state
+ *          53-55  width - 1
+ *          56-58  height - 1
+ *          59-61  win length - 1
+ * </pre>
+ */
+public final class Position {
+    public static final int MAX_CELLS = 25;
+
+    private static final int O_SHIFT = MAX_CELLS, X_TO_MOVE = 50, STATE_SHIFT = 51;
+    private static final int WIDTH_SHIFT = 53, HEIGHT_SHIFT = 56, WIN_LENGTH_SHIFT = 59;
+    private static final long STONES = (1L << MAX_CELLS) - 1;
+    private static final GameState[] STATES = GameState.values();
+
+    private Position() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the board doesn't fit, or the stones are off it or overlap
+     */
+    public static long of(int xMask, int oMask, boolean xToMove, GameState state, int width, int height, int winLength) {
+        if (!fits(width, height) || winLength < 1 || winLength > 8) {
+            throw new IllegalArgumentException("A " + width + "x" + height + " board doesn't fit in a position.");
+        }
+
+        long board = (1L << width * height) - 1;
+        if ((xMask & ~board) != 0 || (oMask & ~board) != 0 || (xMask & oMask) != 0) {
+            throw new IllegalArgumentException("Stones must be on the board, one to a cell.");
+        }
+
+        return (xMask & STONES)
+                | (oMask & STONES) << O_SHIFT
+                | (xToMove ? 1L : 0) << X_TO_MOVE
+                | (long) state.ordinal() << STATE_SHIFT
+                | (long) (width - 1) << WIDTH_SHIFT
+                | (long) (height - 1) << HEIGHT_SHIFT
+                | (long) (winLength - 1) << WIN_LENGTH_SHIFT;
+    }
+
+    public static boolean fits(int width, int height) {
+        return width >= 1 && height >= 1 && width <= 8 && height <= 8 && width * height <= MAX_CELLS;
+    }
+
+    // stones
+    public static int xMask(long position) {
+        return (int) (position & STONES);
+    }
+
+    public static int oMask(long position) {
+        return (int) (position >>> O_SHIFT & STONES);
+    }
+
+    /**
+     * @return the player's stones, or the empty cells for {@link CellValue#NONE}
+     */
+    public static int mask(long position, CellValue player) {
+        return switch (player) {
+            case X -> xMask(position);
+            case O -> oMask(position);
+            case NONE -> ~(xMask(position) | oMask(position)) & (int) ((1L << cells(position)) - 1);
+        };
+    }
+
+    public static CellValue get(long position, int x, int y) {
+        int bit = 1 << x * height(position) + y;
+        return (xMask(position) & bit) != 0 ? CellValue.X : (oMask(position) & bit) != 0 ? CellValue.O : CellValue.NONE;
+    }
+
+    public static int moveCount(long position) {
+        return Integer.bitCount(xMask(position)) + Integer.bitCount(oMask(position));
+    }
+
+    // game
+    public static CellValue toMove(long position) {
+        return (position >>> X_TO_MOVE & 1) != 0 ? CellValue.X : CellValue.O;
+    }
+
+    public static GameState state(long position) {
+        return STATES[(int) (position >>> STATE_SHIFT & 3)];
+    }
+
+    // shape
+    public static int width(long position) {
+        return (int) (position >>> WIDTH_SHIFT & 7) + 1;
+    }
+
+    public static int height(long position) {
+        return (int) (position >>> HEIGHT_SHIFT & 7) + 1;
+    }
+
+    public static int winLength(long position) {
+        return (int) (position >>> WIN_LENGTH_SHIFT & 7) + 1;
+    }
+
+    public static int cells(long position) {
+        return width(position) * height(position);
+    }
+
+    /**
+     * @return the board, one row of {@code X}, {@code O} and {@code .} per y, for logs and debugging
+     */
+    public static String toString(long position) {
+        StringBuilder out = new StringBuilder();
+        for (int y = 0; y < height(position); y++) {
+            for (int x = 0; x < width(position); x++) {
+                CellValue v = get(position, x, y);
+                out.append(v == CellValue.NONE ? "." : v.getRepr());
+            }
+            out.append('\n');
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,60 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+
+import java.awt.*;
+import java.io.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Plays a uniformly random legal move. Useful as a baseline opponent.
+ */
+public class RandomTicTacToeAI implements TicTacToeAI, Serializable {
+    private final TicTacToeModel model;
+    private transient Board board;
+
+    @Serial
+    private static final long serialVersionUID = 49L;
+
+    public RandomTicTacToeAI(TicTacToeModel m) {
+        model = m;
+        init();
+    }
+
+    private void init() {
+        board = model.copyBoard();
+    }
+
+    // gameplay
+    @Override
+    public void submitMoveToAI(Point loc) {
+        board.place(board.index(loc.x, loc.y), (board.getMoveCount() & 1) == 0 ? CellValue.X : CellValue.O);
+    }
+
+    @Override
+    public void retractMoveFromAI(Point loc) {
+        board.clear(board.index(loc.x, loc.y));
+    }
+
+    @Override
+    public Point calculateMove() {
+        int empties = board.getCells() - board.getMoveCount();
+        if (empties == 0) {
+            throw new IllegalStateException("Can't return move while board is full.");
+        }
+
+        int skip = ThreadLocalRandom.current().nextInt(empties);
+        for (int cell = 0; ; cell++) {
+            if (board.isEmpty(cell) && skip-- == 0) {
+                return new Point(board.xOf(cell), board.yOf(cell));
+            }
+        }
+    }
+
+    // built-in
+    @Serial
+    private void readObject(ObjectInputStream s) throws IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        init();
+    }
+}
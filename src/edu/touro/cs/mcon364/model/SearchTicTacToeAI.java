@@ -0,0 +1,296 @@
+package edu.touro.cs.mcon364.model;
+
+import java.awt.*;
+import java.io.*;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Picks moves by searching the game tree, see {@link NegamaxSearcher}. Works on any board size: small boards
+ * are solved outright, bigger ones are searched as deep as the per-move time budget allows.
+ * <p>
+ * With pondering on, the AI keeps searching while the opponent thinks. A second searcher, sharing the
+ * transposition table, first works out the opponent's most likely reply and searches the answer to it
+ * for up to {@link #PONDER_FACTOR} move budgets, then gives every other reply one budget each. If the
+ * real reply was pondered for at least a full budget, the pondered answer is played straight away.
+ * Otherwise the normal search runs, starting from a table the ponderer has already warmed.
+ */
+public class SearchTicTacToeAI implements TicTacToeAI, Serializable {
+    public static final long DEFAULT_BUDGET_MILLIS = 200;
+    public static final int DEFAULT_TABLE_BITS = 18;
+    public static final int PONDER_FACTOR = 10;
+
+    // Shared by every instance, one thread per AI pondering at the time, so no AI ever waits for
+    // another's ponder to stop. The threads are daemons, so an AI never has to be closed.
+    private static final ExecutorService PONDER_THREADS = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "search-ponder");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final TicTacToeModel model;
+    private final long budgetMillis;
+    private final int tableBits;
+    private int maxDepth = Integer.MAX_VALUE;
+    private boolean ponderingEnabled;
+    private transient NegamaxSearcher searcher;
+
+    // pondering
+    private transient NegamaxSearcher ponderer;
+    private transient Future<?> ponderTask;
+    private transient volatile boolean pondering;
+    private transient Map<Integer, Pondered> pondered;
+    private transient volatile int predictedReply;
+    private transient int lastMove;
+    private transient boolean lastPonderHit;
+
+    @Serial
+    private static final long serialVersionUID = 46L;
+
+    public SearchTicTacToeAI(TicTacToeModel m) {
+        this(m, DEFAULT_BUDGET_MILLIS, DEFAULT_TABLE_BITS);
+    }
+
+    /**
+     * @param budgetMillis how long each move may take
+     * @param tableBits    the transposition table holds {@code 2^tableBits} entries, 16 bytes each
+     */
+    public SearchTicTacToeAI(TicTacToeModel m, long budgetMillis, int tableBits) {
+        model = m;
+        this.budgetMillis = budgetMillis;
+        this.tableBits = tableBits;
+        init();
+    }
+
+    private void init() {
+        TranspositionTable table = new TranspositionTable(tableBits);
+        searcher = new NegamaxSearcher(model.copyBoard(), table);
+        ponderer = new NegamaxSearcher(searcher.getBoard().copy(), table);
+        pondered = new ConcurrentHashMap<>();
+        predictedReply = -1;
+        lastMove = -1;
+    }
+
+    // gameplay
+    @Override
+    public void submitMoveToAI(Point loc) {
+        stopPondering();
+        lastMove = searcher.getBoard().index(loc.x, loc.y);
+        searcher.play(lastMove);
+    }
+
+    @Override
+    public void retractMoveFromAI(Point loc) {
+        stopPondering();
+        searcher.undo(searcher.getBoard().index(loc.x, loc.y));
+        lastMove = -1;
+    }
+
+    @Override
+    public Point calculateMove() {
+        return calculateMove(() -> false);
+    }
+
+    @Override
+    public Point calculateMove(BooleanSupplier stop) {
+        int cell = ponderedMove();
+        lastPonderHit = cell >= 0;
+
+        if (!lastPonderHit) {
+            cell = searcher.search(TimeUnit.MILLISECONDS.toNanos(budgetMillis), maxDepth, stop);
+        }
+        pondered.clear();
+
+        if (cell < 0) {
+            throw new IllegalStateException("Can't return move while board is full.");
+        }
+
+        Board board = searcher.getBoard();
+        return new Point(board.xOf(cell), board.yOf(cell));
+    }
+
+    @Override
+    public void setProgressListener(ProgressListener listener) {
+        searcher.setProgressListener(listener);
+    }
+
+    /**
+     * Turns pondering on or off. It is off by default, and on in {@link TicTacToeModel#defaultAI}.
+     */
+    public void setPondering(boolean ponderingEnabled) {
+        this.ponderingEnabled = ponderingEnabled;
+        if (!ponderingEnabled) {
+            stopPondering();
+        }
+    }
+
+    public boolean isPonderingEnabled() {
+        return ponderingEnabled;
+    }
+
+    /**
+     * Starts searching in the background, if pondering is on and it's the opponent's turn. The model
+     * calls this after each of the AI's moves.
+     */
+    @Override
+    public void startPondering() {
+        Board board = searcher.getBoard();
+        if (!ponderingEnabled || pondering || board.isFull() || (board.getMoveCount() & 1) == myParity()) {
+            return;
+        }
+
+        ponderer.reset(board);
+        pondered.clear();
+        predictedReply = -1;
+        pondering = true;
+        ponderTask = PONDER_THREADS.submit(this::ponder);
+    }
+
+    /**
+     * Stops pondering and waits for the background search to let go of its board, which takes at most a
+     * few thousand nodes.
+     */
+    @Override
+    public void stopPondering() {
+        if (ponderTask == null) {
+            return;
+        }
+
+        // Every search the ponderer starts checks this, so it can't be missed between two of them.
+        pondering = false;
+        try {
+            ponderTask.get();
+        } catch (ExecutionException e) {
+            // it's stopped either way
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ponderTask = null;
+    }
+
+    private void ponder() {
+        long budget = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        Board board = ponderer.getBoard();
+
+        // Guess the reply by searching from the opponent's side.
+        int reply = ponderer.search(budget, maxDepth, this::ponderingStopped);
+        if (!pondering || reply < 0) {
+            return;
+        }
+        predictedReply = reply;
+        ponderReply(reply, budget * PONDER_FACTOR);
+
+        int[] others = new int[board.getCells()];
+        int count = ponderer.orderedRootMoves(others);
+        for (int i = 0; i < count && pondering; i++) {
+            if (others[i] != reply) {
+                ponderReply(others[i], budget);
+            }
+        }
+    }
+
+    private void ponderReply(int reply, long budgetNanos) {
+        Board board = ponderer.getBoard();
+        ponderer.play(reply);
+
+        if (!board.isWinningMove(reply) && !board.isFull()) {
+            long start = System.nanoTime();
+            int empties = board.getCells() - board.getMoveCount();
+
+            ponderer.setProgressListener((move, depth) -> pondered.put(reply, new Pondered(
+                    board.index(move.x, move.y), System.nanoTime() - start,
+                    depth >= Math.min(maxDepth, empties)
+                            || Math.abs(ponderer.getLastScore()) >= NegamaxSearcher.MATE_BOUND)));
+            ponderer.search(budgetNanos, maxDepth, this::ponderingStopped);
+            ponderer.setProgressListener(null);
+        }
+
+        ponderer.undo(reply);
+    }
+
+    private boolean ponderingStopped() {
+        return !pondering;
+    }
+
+    // The pondered answer to the opponent's last move, if it was searched for long enough to use.
+    private int ponderedMove() {
+        return lastMove >= 0 ? ponderedAnswer(lastMove) : -1;
+    }
+
+    private int ponderedAnswer(int reply) {
+        Board board = searcher.getBoard();
+        Pondered answer = pondered.get(reply);
+
+        if (answer == null || !board.isEmpty(answer.cell)) {
+            return -1;
+        }
+        return answer.complete || answer.nanos >= TimeUnit.MILLISECONDS.toNanos(budgetMillis) ? answer.cell : -1;
+    }
+
+    // Whether the answer to this reply has been pondered well enough to be played without a search.
+    boolean isPondered(Point reply) {
+        return ponderedAnswer(searcher.getBoard().index(reply.x, reply.y)) >= 0;
+    }
+
+    private int myParity() {
+        return model.getAiTeam() == TicTacToeModel.CellValue.X ? 0 : 1;
+    }
+
+    private static final class Pondered {
+        final int cell;
+        final long nanos;
+        final boolean complete;
+
+        Pondered(int cell, long nanos, boolean complete) {
+            this.cell = cell;
+            this.nanos = nanos;
+            this.complete = complete;
+        }
+    }
+
+    /**
+     * Limits how many plies deep each move is searched, whatever the time budget.
+     */
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    // statistics about the last move
+    @Override
+    public int getLastDepth() {
+        return searcher.getLastDepth();
+    }
+
+    public int getLastScore() {
+        return searcher.getLastScore();
+    }
+
+    @Override
+    public long getLastNodes() {
+        return searcher.getNodes();
+    }
+
+    /**
+     * @return whether the last move came straight from pondering
+     */
+    public boolean wasLastPonderHit() {
+        return lastPonderHit;
+    }
+
+    /**
+     * @return the reply being pondered, or null if there isn't one yet
+     */
+    public Point getPredictedReply() {
+        int reply = predictedReply;
+        Board board = searcher.getBoard();
+        return reply < 0 ? null : new Point(board.xOf(reply), board.yOf(reply));
+    }
+
+    // built-in
+    @Serial
+    private void readObject(ObjectInputStream s) throws IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        init();
+    }
+}
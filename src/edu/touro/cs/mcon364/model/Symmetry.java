@@ -0,0 +1,140 @@
+package edu.touro.cs.mcon364.model;
+
+/**
+ * The 8 symmetries of the 3x3 board (rotations and reflections) and a compact position key.
+ * <p>
+ * A key packs both player masks into 18 bits: {@code xMask | oMask << 9}. The canonical key of a position
+ * is the smallest key among its 8 images, so all symmetric positions share it. {@link #canonicalize}
+ * returns that key together with the transform that produced it, packed into one int, so a move picked
+ * on the canonical board can be mapped back with {@link #toOriginal}.
+ */
+public final class Symmetry {
+    public static final int COUNT = 8;
+    public static final int IDENTITY = 0;
+
+    private static final int KEY_BITS = 2 * Bitboard.CELLS, TRANSFORM_BITS = 3;
+
+    // CELL_MAP[t][cell] is where cell ends up after applying transform t.
+    private static final int[][] CELL_MAP = new int[COUNT][Bitboard.CELLS];
+    private static final int[] INVERSE = new int[COUNT];
+    // MASK_MAP[t][mask] is the image of a whole player mask under transform t.
+    private static final short[][] MASK_MAP = new short[COUNT][Bitboard.FULL + 1];
+
+    static {
+        for (int x = 0; x < Bitboard.SIZE; x++) {
+            for (int y = 0; y < Bitboard.SIZE; y++) {
+                int cell = Bitboard.index(x, y), m = Bitboard.SIZE - 1;
+
+                CELL_MAP[0][cell] = Bitboard.index(x, y);         // identity
+                CELL_MAP[1][cell] = Bitboard.index(y, m - x);     // rotate 90
+                CELL_MAP[2][cell] = Bitboard.index(m - x, m - y); // rotate 180
+                CELL_MAP[3][cell] = Bitboard.index(m - y, x);     // rotate 270
+                CELL_MAP[4][cell] = Bitboard.index(m - x, y);     // mirror x
+                CELL_MAP[5][cell] = Bitboard.index(x, m - y);     // mirror y
+                CELL_MAP[6][cell] = Bitboard.index(y, x);         // transpose
+                CELL_MAP[7][cell] = Bitboard.index(m - y, m - x); // anti-transpose
+            }
+        }
+
+        for (int t = 0; t < COUNT; t++) {
+            for (int u = 0; u < COUNT; u++) {
+                boolean undoes = true;
+                for (int cell = 0; cell < Bitboard.CELLS; cell++) {
+                    undoes &= CELL_MAP[u][CELL_MAP[t][cell]] == cell;
+                }
+
+                if (undoes) {
+                    INVERSE[t] = u;
+                }
+            }
+
+            for (int mask = 0; mask <= Bitboard.FULL; mask++) {
+                int image = 0;
+                for (int cell = 0; cell < Bitboard.CELLS; cell++) {
+                    if ((mask & (1 << cell)) != 0) {
+                        image |= 1 << CELL_MAP[t][cell];
+                    }
+                }
+                MASK_MAP[t][mask] = (short) image;
+            }
+        }
+    }
+
+    private Symmetry() {
+    }
+
+    // keys
+    public static int key(int xMask, int oMask) {
+        return xMask | oMask << Bitboard.CELLS;
+    }
+
+    public static int xMaskOf(int key) {
+        return key & Bitboard.FULL;
+    }
+
+    public static int oMaskOf(int key) {
+        return key >>> Bitboard.CELLS & Bitboard.FULL;
+    }
+
+    // transforms
+    public static int transformCell(int cell, int transform) {
+        return CELL_MAP[transform][cell];
+    }
+
+    public static int transformMask(int mask, int transform) {
+        return MASK_MAP[transform][mask];
+    }
+
+    public static int transformKey(int key, int transform) {
+        return key(MASK_MAP[transform][xMaskOf(key)], MASK_MAP[transform][oMaskOf(key)]);
+    }
+
+    public static int inverse(int transform) {
+        return INVERSE[transform];
+    }
+
+    // canonical form
+    /**
+     * @return the canonical key and the transform that maps this position onto it, packed into one int.
+     * Use {@link #canonicalKeyOf} and {@link #transformOf} to unpack it.
+     */
+    public static int canonicalize(int xMask, int oMask) {
+        int best = key(xMask, oMask), bestTransform = IDENTITY;
+
+        for (int t = 1; t < COUNT; t++) {
+            int k = key(MASK_MAP[t][xMask], MASK_MAP[t][oMask]);
+            if (k < best) {
+                best = k;
+                bestTransform = t;
+            }
+        }
+
+        return best << TRANSFORM_BITS | bestTransform;
+    }
+
+    public static int canonicalKey(int xMask, int oMask) {
+        return canonicalKeyOf(canonicalize(xMask, oMask));
+    }
+
+    public static int canonicalKeyOf(int canonical) {
+        return canonical >>> TRANSFORM_BITS & ((1 << KEY_BITS) - 1);
+    }
+
+    public static int transformOf(int canonical) {
+        return canonical & ((1 << TRANSFORM_BITS) - 1);
+    }
+
+    /**
+     * Maps a cell on the canonical board back onto the board that was canonicalized.
+     */
+    public static int toOriginal(int canonicalCell, int canonical) {
+        return CELL_MAP[INVERSE[transformOf(canonical)]][canonicalCell];
+    }
+
+    /**
+     * Maps a cell on the original board onto its canonical board.
+     */
+    public static int toCanonical(int cell, int canonical) {
+        return CELL_MAP[transformOf(canonical)][cell];
+    }
+}
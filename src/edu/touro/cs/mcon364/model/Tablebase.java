@@ -0,0 +1,203 @@
+package edu.touro.cs.mcon364.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The solved value of every position on a small m,n,k board, read from a file written by
+ * {@link TablebaseBuilder}. The file is memory-mapped, so opening it costs next to nothing, the pages
+ * are shared by every process that opens it, and none of it is on the heap.
+ * <p>
+ * One byte per position: the outcome for the player to move in the top two bits, and how many moves
+ * the game lasts under perfect play below them. Wins are taken as fast as possible and losses put off as
+ * long as possible, as in {@link PerfectPlayTicTacToeAI}. Only one position of each set of rotations and
+ * reflections is stored, see {@link TablebaseIndex}; the others are looked up through it.
+ * <p>
+ * File layout: a 4-byte magic number, the width, height and win length as ints, then one layer per move
+ * count, fewest moves first, holding just the layer's canonical positions. The magic number is written last, so an unfinished build can't be opened.
+ * <p>
+ * Thread-safe: any number of threads may probe at once.
+ */
+public final class Tablebase {
+    public static final int WIN = 1, DRAW = 0, LOSS = -1;
+
+    static final int MAGIC = 0x54544202; // "TTB", version 2: canonical positions only
+    static final int HEADER_SIZE = 4 * Integer.BYTES;
+    // entry codes, in the top two bits; 0 is never written
+    static final int LOSS_CODE = 1, DRAW_CODE = 2, WIN_CODE = 3, DISTANCE_MASK = 0x3F;
+
+    // Ties are broken towards the middle of the board.
+    private final int[] moveOrder;
+    private final TablebaseIndex index;
+    private final MappedByteBuffer[] layers;
+    private final Path file;
+
+    private Tablebase(Path file, TablebaseIndex index, MappedByteBuffer[] layers) {
+        this.file = file;
+        this.index = index;
+        this.layers = layers;
+
+        moveOrder = new int[index.cells];
+        double cx = (index.width - 1) / 2.0, cy = (index.height - 1) / 2.0;
+        Integer[] cells = new Integer[index.cells];
+        for (int cell = 0; cell < cells.length; cell++) {
+            cells[cell] = cell;
+        }
+        Arrays.sort(cells, Comparator.comparingDouble(cell -> {
+            double dx = cell / index.height - cx, dy = cell % index.height - cy;
+            return dx * dx + dy * dy;
+        }));
+        for (int i = 0; i < cells.length; i++) {
+            moveOrder[i] = cells[i];
+        }
+    }
+
+    /**
+     * @throws IOException if the file isn't a complete tablebase
+     */
+    public static Tablebase open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException(file + " is not a finished tablebase.");
+            }
+            while (header.hasRemaining()) {
+                channel.read(header, header.position());
+            }
+            if (header.flip().getInt() != MAGIC) {
+                throw new IOException(file + " is not a finished tablebase.");
+            }
+
+            TablebaseIndex index;
+            try {
+                index = new TablebaseIndex(header.getInt(), header.getInt(), header.getInt());
+            } catch (IllegalArgumentException e) {
+                throw new IOException(file + " has a bad header.", e);
+            }
+            if (channel.size() != HEADER_SIZE + index.size()) {
+                throw new IOException(file + " is the wrong size for its board.");
+            }
+
+            MappedByteBuffer[] layers = new MappedByteBuffer[index.cells + 1];
+            for (int layer = 0; layer <= index.cells; layer++) {
+                layers[layer] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        HEADER_SIZE + index.layerOffset(layer), index.layerSize(layer));
+            }
+            return new Tablebase(file, index, layers); // mappings outlive the channel
+        }
+    }
+
+    // getters
+    public Path getFile() {
+        return file;
+    }
+
+    public int getWidth() {
+        return index.width;
+    }
+
+    public int getHeight() {
+        return index.height;
+    }
+
+    public int getWinLength() {
+        return index.winLength;
+    }
+
+    /**
+     * @return how many positions the file holds, one for each set of rotations and reflections of an
+     * arrangement of stones with legal counts
+     */
+    public long getSize() {
+        return index.size();
+    }
+
+    // probing
+    /**
+     * @return the position's entry, for {@link #outcomeOf} and {@link #distanceOf}. Masks use {@link Board}'s
+     * cell numbering.
+     * @throws IllegalArgumentException if the stones are off the board, overlap, or their counts can't occur
+     */
+    public int probe(int xMask, int oMask) {
+        int xs = Integer.bitCount(xMask), os = Integer.bitCount(oMask);
+        if ((xMask & oMask) != 0 || ((xMask | oMask) >>> index.cells) != 0 || (xs != os && xs != os + 1)) {
+            throw new IllegalArgumentException("Not a position on a " + index.width + "x" + index.height + " board.");
+        }
+
+        long canonical = index.canonical(xMask, oMask);
+        return layers[xs + os].get(index.slot((int) (canonical >>> 32), (int) canonical)) & 0xFF;
+    }
+
+    /**
+     * @return {@link #WIN}, {@link #DRAW} or {@link #LOSS} for the player to move
+     */
+    public static int outcomeOf(int entry) {
+        return switch (entry >>> 6) {
+            case WIN_CODE -> WIN;
+            case LOSS_CODE -> LOSS;
+            default -> DRAW;
+        };
+    }
+
+    /**
+     * @return the number of moves left under perfect play
+     */
+    public static int distanceOf(int entry) {
+        return entry & DISTANCE_MASK;
+    }
+
+    /**
+     * @return the best cell for the player to move, or -1 if the game is over
+     */
+    public int bestMove(int xMask, int oMask) {
+        int entry = probe(xMask, oMask);
+        if (distanceOf(entry) == 0) {
+            return -1;
+        }
+
+        boolean xToMove = Integer.bitCount(xMask) == Integer.bitCount(oMask);
+        int empty = ~(xMask | oMask);
+        for (int cell : moveOrder) {
+            if ((empty & 1 << cell) == 0) {
+                continue;
+            }
+
+            int child = xToMove ? probe(xMask | 1 << cell, oMask) : probe(xMask, oMask | 1 << cell);
+            if (outcomeOf(child) == -outcomeOf(entry) && distanceOf(child) + 1 == distanceOf(entry)) {
+                return cell;
+            }
+        }
+
+        throw new IllegalStateException(file + " is inconsistent.");
+    }
+
+    /**
+     * @return how many stored positions each player to move wins, draws and loses, indexed by
+     * {@code outcome + 1}. Reads the whole file.
+     */
+    public long[] countByOutcome() {
+        long[] counts = new long[3];
+        for (MappedByteBuffer layer : layers) {
+            for (int i = 0; i < layer.capacity(); i++) {
+                counts[outcomeOf(layer.get(i) & 0xFF) + 1]++;
+            }
+        }
+        return counts;
+    }
+
+    // building
+    static int entry(int outcome, int distance) {
+        int code = switch (outcome) {
+            case WIN -> WIN_CODE;
+            case LOSS -> LOSS_CODE;
+            default -> DRAW_CODE;
+        };
+        return code << 6 | distance;
+    }
+}
@@ -0,0 +1,172 @@
+package edu.touro.cs.mcon364.model;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Solves every position of a small m,n,k board by retrograde analysis, and writes the results as a
+ * {@link Tablebase}.
+ * <p>
+ * Stones are never taken back, so every move leads from one layer, the positions with some number of
+ * stones, to the next. The builder starts from the full board and works back to the empty one; each
+ * layer is solved from the one after it alone. Layers are written straight into the memory-mapped file,
+ * and only the layer being solved and the one it reads from are mapped at a time, so the heap never holds
+ * more than a few tables, whatever the board. Within a layer, ranges of positions are solved in parallel
+ * on a fork/join pool.
+ */
+public final class TablebaseBuilder {
+    // positions per task, below which a range isn't split further
+    private static final long MIN_TASK = 1 << 14;
+
+    private final TablebaseIndex index;
+    private final LongAdder solved = new LongAdder();
+
+    /**
+     * @throws IllegalArgumentException if the board is too big: no more than {@value Position#MAX_CELLS}
+     *                                  cells, and a layer must fit in one mapping
+     */
+    public TablebaseBuilder(int width, int height, int winLength) {
+        index = new TablebaseIndex(width, height, winLength);
+    }
+
+    /**
+     * Builds the tablebase into {@code file}, replacing anything there, and opens it.
+     */
+    public Tablebase build(Path file, int threads) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        solved.reset();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // No magic number until every layer is down.
+            ByteBuffer header = ByteBuffer.allocate(Tablebase.HEADER_SIZE)
+                    .putInt(0).putInt(index.width).putInt(index.height).putInt(index.winLength).flip();
+            writeFully(channel, header, 0);
+
+            MappedByteBuffer next = null;
+            for (int layer = index.cells; layer >= 0; layer--) {
+                MappedByteBuffer current = channel.map(FileChannel.MapMode.READ_WRITE,
+                        Tablebase.HEADER_SIZE + index.layerOffset(layer), index.layerSize(layer));
+                pool.invoke(new LayerTask(layer, current, next, 0, TablebaseIndex.choose(index.cells, TablebaseIndex.xStones(layer))));
+                current.force();
+                next = current;
+            }
+
+            channel.force(true);
+            writeFully(channel, ByteBuffer.allocate(Integer.BYTES).putInt(Tablebase.MAGIC).flip(), 0);
+            channel.force(true);
+        } finally {
+            pool.shutdown();
+        }
+
+        return Tablebase.open(file);
+    }
+
+    /**
+     * @return how many canonical positions the last build solved
+     */
+    public long getSolved() {
+        return solved.sum();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    // Solves the positions in one layer whose X stones rank from..to-1.
+    private final class LayerTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int layer;
+        private final MappedByteBuffer current, next;
+        private final long from, to;
+
+        LayerTask(int layer, MappedByteBuffer current, MappedByteBuffer next, long from, long to) {
+            this.layer = layer;
+            this.current = current;
+            this.next = next;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int xs = TablebaseIndex.xStones(layer), os = TablebaseIndex.oStones(layer);
+            int free = index.cells - xs;
+            long oSets = TablebaseIndex.choose(free, os);
+
+            if (to - from > 1 && (to - from) * oSets > MIN_TASK) {
+                long middle = (from + to) >>> 1;
+                invokeAll(new LayerTask(layer, current, next, from, middle), new LayerTask(layer, current, next, middle, to));
+                return;
+            }
+
+            int[] freeCells = new int[free];
+            long count = 0;
+
+            int xMask = TablebaseIndex.unrank(from, index.cells, xs);
+            for (long xRank = from; xRank < to; xRank++) {
+                if (index.hasCanonical(layer, xRank)) {
+                    index.freeCells(xMask, freeCells);
+                    int compressed = (1 << os) - 1;
+                    for (long oRank = 0; oRank < oSets; oRank++) {
+                        int oMask = TablebaseIndex.spread(compressed, freeCells);
+                        int slot = index.slot(xMask, oMask);
+                        if (slot >= 0) {
+                            current.put(slot, (byte) solve(xMask, oMask));
+                            count++;
+                        }
+                        if (oRank + 1 < oSets) {
+                            compressed = TablebaseIndex.nextCombination(compressed);
+                        }
+                    }
+                }
+
+                if (xRank + 1 < to) {
+                    xMask = TablebaseIndex.nextCombination(xMask);
+                }
+            }
+
+            solved.add(count);
+        }
+
+        private int solve(int xMask, int oMask) {
+            boolean xToMove = (layer & 1) == 0;
+            if (index.isWin(xToMove ? oMask : xMask)) {
+                return Tablebase.entry(Tablebase.LOSS, 0);
+            }
+            if (index.isWin(xToMove ? xMask : oMask)) {
+                return Tablebase.entry(Tablebase.WIN, 0); // can't happen in play: the game ended a move ago
+            }
+            if (layer == index.cells) {
+                return Tablebase.entry(Tablebase.DRAW, 0);
+            }
+
+            int bestScore = Integer.MIN_VALUE, best = 0;
+            for (int empty = ~(xMask | oMask) & (1 << index.cells) - 1; empty != 0; empty &= empty - 1) {
+                int bit = empty & -empty;
+                long child = xToMove ? index.canonical(xMask | bit, oMask) : index.canonical(xMask, oMask | bit);
+                int entry = next.get(index.slot((int) (child >>> 32), (int) child)) & 0xFF;
+
+                int outcome = -Tablebase.outcomeOf(entry), distance = Tablebase.distanceOf(entry) + 1;
+                int score = PerfectPlayTicTacToeAI.score(outcome, distance);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = Tablebase.entry(outcome, distance);
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package edu.touro.cs.mcon364.model;
+
+import java.util.Arrays;
+
+/**
+ * Numbers the positions of one m,n,k board for {@link Tablebase}, see there for the layout. Positions with
+ * the same move count form a layer. Every arrangement in a layer has a rank: the colex rank of X's stones
+ * among all sets of that many cells, times the number of ways to place O's, plus the colex rank of O's
+ * stones among the cells X left empty.
+ * <p>
+ * Only canonical positions are stored: of each position's rotations and reflections, the one with the
+ * smallest {@code xMask}, then the smallest {@code oMask}. A canonical position's X set is the smallest
+ * image of itself, so X sets that aren't take no room at all, and the rest are stored in rank order, each
+ * followed by its O sets. Every O set is canonical with an X set that no symmetry maps onto itself; for
+ * the few X sets that some symmetry does, which O sets are stored is worked out once, up front.
+ */
+final class TablebaseIndex {
+    private static final int CHUNK = 8; // cells per mask lookup
+    private static final long[][] CHOOSE = new long[Position.MAX_CELLS + 1][Position.MAX_CELLS + 1];
+
+    static {
+        for (int n = 0; n <= Position.MAX_CELLS; n++) {
+            CHOOSE[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                CHOOSE[n][k] = CHOOSE[n - 1][k - 1] + CHOOSE[n - 1][k];
+            }
+        }
+    }
+
+    final int width, height, winLength, cells;
+    private final int[] lines;
+    // images[t][chunk][bits] is where the chunk's cells go under symmetry t, as a mask
+    private final int[][][] images;
+    // bases[layer][xRank] is where the X set's positions start in the layer, or -1 if none are canonical
+    private final int[][] bases;
+    // the ranks of the X sets that some symmetry maps onto themselves, in order, and for each of them,
+    // ordinals[layer][i][oRank] is the O set's place among those stored with it, or -1 if it isn't
+    private final int[][] symmetric;
+    private final int[][][] ordinals;
+    private final long[] layerOffsets;
+
+    TablebaseIndex(int width, int height, int winLength) {
+        if (!Position.fits(width, height) || winLength < 1 || winLength > Math.max(width, height)) {
+            throw new IllegalArgumentException("No tablebase for a " + width + "x" + height + " board, k=" + winLength);
+        }
+
+        this.width = width;
+        this.height = height;
+        this.winLength = winLength;
+        cells = width * height;
+        lines = lines(width, height, winLength);
+
+        int[][] symmetries = Zobrist.symmetries(width, height);
+        int chunks = (cells + CHUNK - 1) / CHUNK;
+        images = new int[symmetries.length][chunks][1 << CHUNK];
+        for (int t = 0; t < symmetries.length; t++) {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                for (int bits = 0; bits < 1 << CHUNK; bits++) {
+                    int image = 0;
+                    for (int i = 0; i < CHUNK && chunk * CHUNK + i < cells; i++) {
+                        if ((bits & 1 << i) != 0) {
+                            image |= 1 << symmetries[t][chunk * CHUNK + i];
+                        }
+                    }
+                    images[t][chunk][bits] = image;
+                }
+            }
+        }
+
+        bases = new int[cells + 1][];
+        symmetric = new int[cells + 1][];
+        ordinals = new int[cells + 1][][];
+        layerOffsets = new long[cells + 2];
+        for (int layer = 0; layer <= cells; layer++) {
+            if (arrangements(layer) > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("A " + width + "x" + height + " tablebase is too big to map.");
+            }
+            layerOffsets[layer + 1] = layerOffsets[layer] + lay(layer);
+        }
+    }
+
+    // Fills in where each canonical position of the layer goes, and returns how many there are.
+    private int lay(int layer) {
+        int xs = xStones(layer), os = oStones(layer);
+        int xSets = (int) choose(cells, xs), oSets = (int) choose(cells - xs, os);
+        int[] base = new int[xSets], ranks = new int[xSets];
+        int[][] stored = new int[xSets][];
+        int[] freeCells = new int[cells - xs];
+        int size = 0, count = 0;
+
+        int xMask = (1 << xs) - 1;
+        for (int xRank = 0; xRank < xSets; xRank++) {
+            int stabilizer = 0; // the symmetries that map the X set onto itself
+            boolean canonical = true;
+            for (int t = 1; t < images.length && canonical; t++) {
+                int image = image(xMask, t);
+                canonical = image >= xMask;
+                if (image == xMask) {
+                    stabilizer |= 1 << t;
+                }
+            }
+
+            if (!canonical) {
+                base[xRank] = -1;
+            } else if (stabilizer == 0) {
+                base[xRank] = size;
+                size += oSets;
+            } else {
+                base[xRank] = size;
+                freeCells(xMask, freeCells);
+                int[] ordinal = new int[oSets];
+                int compressed = (1 << os) - 1;
+                for (int oRank = 0; oRank < oSets; oRank++) {
+                    int oMask = spread(compressed, freeCells);
+                    boolean smallest = true;
+                    for (int bits = stabilizer; bits != 0 && smallest; bits &= bits - 1) {
+                        smallest = image(oMask, Integer.numberOfTrailingZeros(bits)) >= oMask;
+                    }
+                    ordinal[oRank] = smallest ? size++ - base[xRank] : -1;
+
+                    if (oRank + 1 < oSets) {
+                        compressed = nextCombination(compressed);
+                    }
+                }
+                ranks[count] = xRank;
+                stored[count++] = ordinal;
+            }
+
+            if (xRank + 1 < xSets) {
+                xMask = nextCombination(xMask);
+            }
+        }
+
+        bases[layer] = base;
+        symmetric[layer] = Arrays.copyOf(ranks, count);
+        ordinals[layer] = Arrays.copyOf(stored, count);
+        return size;
+    }
+
+    // Every run of winLength cells, in each of Board's four directions.
+    private static int[] lines(int width, int height, int winLength) {
+        int[] found = new int[Board.DIRECTIONS * width * height];
+        int count = 0;
+
+        for (int d = 0; d < Board.DIRECTIONS; d++) {
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    int endX = x + Board.dx(d) * (winLength - 1), endY = y + Board.dy(d) * (winLength - 1);
+                    if (endX < 0 || endX >= width || endY < 0 || endY >= height) {
+                        continue;
+                    }
+
+                    int line = 0;
+                    for (int i = 0; i < winLength; i++) {
+                        line |= 1 << (x + Board.dx(d) * i) * height + y + Board.dy(d) * i;
+                    }
+                    found[count++] = line;
+                }
+            }
+        }
+
+        return Arrays.copyOf(found, count);
+    }
+
+    static long choose(int n, int k) {
+        return k < 0 || k > n ? 0 : CHOOSE[n][k];
+    }
+
+    // layers
+    static int xStones(int layer) {
+        return (layer + 1) / 2;
+    }
+
+    static int oStones(int layer) {
+        return layer / 2;
+    }
+
+    /**
+     * @return how many arrangements of stones the layer has, canonical or not
+     */
+    long arrangements(int layer) {
+        return choose(cells, xStones(layer)) * choose(cells - xStones(layer), oStones(layer));
+    }
+
+    /**
+     * @return how many canonical positions the layer has
+     */
+    long layerSize(int layer) {
+        return layerOffsets[layer + 1] - layerOffsets[layer];
+    }
+
+    /**
+     * @return where the layer starts, counted in entries from the first
+     */
+    long layerOffset(int layer) {
+        return layerOffsets[layer];
+    }
+
+    long size() {
+        return layerOffsets[cells + 1];
+    }
+
+    // positions
+    boolean isWin(int mask) {
+        for (int line : lines) {
+            if ((mask & line) == line) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int image(int mask, int t) {
+        int[][] chunks = images[t];
+        int image = 0;
+        for (int chunk = 0; mask != 0; chunk++, mask >>>= CHUNK) {
+            image |= chunks[chunk][mask & (1 << CHUNK) - 1];
+        }
+        return image;
+    }
+
+    /**
+     * @return the canonical image of the position, as {@code xMask << 32 | oMask}
+     */
+    long canonical(int xMask, int oMask) {
+        long best = (long) xMask << 32 | oMask;
+        for (int t = 1; t < images.length; t++) {
+            long key = (long) image(xMask, t) << 32 | image(oMask, t);
+            if (key < best) {
+                best = key;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return whether any position in the layer with the X set of this rank is canonical
+     */
+    boolean hasCanonical(int layer, long xRank) {
+        return bases[layer][(int) xRank] >= 0;
+    }
+
+    /**
+     * @return where the position is stored in its layer, or -1 if it isn't canonical
+     */
+    int slot(int xMask, int oMask) {
+        int layer = Integer.bitCount(xMask) + Integer.bitCount(oMask);
+        int xRank = xRank(xMask), base = bases[layer][xRank];
+        if (base < 0) {
+            return -1;
+        }
+
+        int oRank = oRank(xMask, oMask), i = Arrays.binarySearch(symmetric[layer], xRank);
+        if (i < 0) {
+            return base + oRank;
+        }
+        int ordinal = ordinals[layer][i][oRank];
+        return ordinal < 0 ? -1 : base + ordinal;
+    }
+
+    /**
+     * @return the position's rank among every arrangement in its layer. The position itself is ranked,
+     * not its canonical image.
+     */
+    int rank(int xMask, int oMask) {
+        int xCount = Integer.bitCount(xMask);
+        return (int) (xRank(xMask) * choose(cells - xCount, Integer.bitCount(oMask)) + oRank(xMask, oMask));
+    }
+
+    private static int xRank(int xMask) {
+        int rank = 0, j = 1;
+        for (int stones = xMask; stones != 0; stones &= stones - 1, j++) {
+            rank += (int) CHOOSE[Integer.numberOfTrailingZeros(stones)][j];
+        }
+        return rank;
+    }
+
+    private static int oRank(int xMask, int oMask) {
+        int rank = 0, j = 1;
+        for (int stones = oMask; stones != 0; stones &= stones - 1, j++) {
+            int cell = Integer.numberOfTrailingZeros(stones);
+            int free = cell - Integer.bitCount(xMask & (1 << cell) - 1); // O's cell among those X left empty
+            rank += (int) choose(free, j);
+        }
+        return rank;
+    }
+
+    /**
+     * Fills {@code out} with the cells not in {@code mask}, lowest first.
+     */
+    void freeCells(int mask, int[] out) {
+        for (int i = 0, cell = 0; cell < cells; cell++) {
+            if ((mask & 1 << cell) == 0) {
+                out[i++] = cell;
+            }
+        }
+    }
+
+    /**
+     * @return the mask of the cells that {@code bits} picks out of {@code cells}
+     */
+    static int spread(int bits, int[] cells) {
+        int mask = 0;
+        for (; bits != 0; bits &= bits - 1) {
+            mask |= 1 << cells[Integer.numberOfTrailingZeros(bits)];
+        }
+        return mask;
+    }
+
+    /**
+     * @return the set of {@code k} of the first {@code n} cells with colex rank {@code rank}
+     */
+    static int unrank(long rank, int n, int k) {
+        int mask = 0;
+        for (int j = k, cell = n - 1; j > 0; j--) {
+            while (CHOOSE[cell][j] > rank) {
+                cell--;
+            }
+            mask |= 1 << cell;
+            rank -= CHOOSE[cell][j];
+            cell--;
+        }
+        return mask;
+    }
+
+    /**
+     * @return the next set with as many members, in colex order
+     */
+    static int nextCombination(int mask) {
+        int lowest = mask & -mask, ripple = mask + lowest;
+        return ripple | ((mask ^ ripple) >>> 2) / lowest;
+    }
+}
@@ -0,0 +1,65 @@
+package edu.touro.cs.mcon364.model;
+
+import java.awt.*;
+import java.io.*;
+import java.nio.file.Path;
+
+/**
+ * Plays perfectly on any board a {@link Tablebase} was built for, by probing it for the current
+ * position and each position one move on. Wins are taken as fast as possible, and losses put off.
+ * <p>
+ * Each move starts from the model's {@link Position}, so the AI keeps no board of its own. When saved,
+ * only the tablebase's file name is written; it is opened again on restore.
+ */
+public class TablebaseTicTacToeAI implements TicTacToeAI, Serializable {
+    private final TicTacToeModel model;
+    private final String file;
+    private transient Tablebase tablebase;
+
+    @Serial
+    private static final long serialVersionUID = 50L;
+
+    /**
+     * @throws IllegalArgumentException if the tablebase is for a different board than the model's
+     */
+    public TablebaseTicTacToeAI(TicTacToeModel m, Tablebase tablebase) {
+        if (m.getWidth() != tablebase.getWidth() || m.getHeight() != tablebase.getHeight()
+                || m.getWinLength() != tablebase.getWinLength()) {
+            throw new IllegalArgumentException("The tablebase is for a " + tablebase.getWidth() + "x"
+                    + tablebase.getHeight() + " board, k=" + tablebase.getWinLength() + ".");
+        }
+
+        model = m;
+        file = tablebase.getFile().toString();
+        this.tablebase = tablebase;
+    }
+
+    // gameplay
+    // Moves are read from the model's position when needed, so there is nothing to keep up to date.
+    @Override
+    public void submitMoveToAI(Point loc) {
+    }
+
+    @Override
+    public void retractMoveFromAI(Point loc) {
+    }
+
+    @Override
+    public Point calculateMove() {
+        long position = model.getPosition();
+        int cell = tablebase.bestMove(Position.xMask(position), Position.oMask(position));
+
+        if (cell < 0) {
+            throw new IllegalStateException("Can't return move once the game is over.");
+        }
+
+        return new Point(cell / model.getHeight(), cell % model.getHeight());
+    }
+
+    // built-in
+    @Serial
+    private void readObject(ObjectInputStream s) throws IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        tablebase = Tablebase.open(Path.of(file));
+    }
+}
@@ -1,9 +1,76 @@
 package edu.touro.cs.mcon364.model;
 
 import java.awt.*;
+import java.util.function.BooleanSupplier;
 
 public interface TicTacToeAI {
     Point calculateMove();
 
     void submitMoveToAI(Point loc);
+
+    /**
+     * Takes back the last move submitted, which was at {@code loc}. Called before the model removes the
+     * stone, so the AI can still see whose it was.
+     *
+     * @throws UnsupportedOperationException if this AI can't go backwards
+     */
+    default void retractMoveFromAI(Point loc) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " can't take back moves.");
+    }
+
+    /**
+     * Like {@link #calculateMove()}, but returns as soon as it can, with the best move it has so far, once
+     * {@code stop} turns true. The stop belongs to this one call: another thread may set it at any time,
+     * even before the calculation starts, and it never turns false again. AIs that always answer quickly
+     * can ignore it.
+     */
+    default Point calculateMove(BooleanSupplier stop) {
+        return calculateMove();
+    }
+
+    /**
+     * Sets who to tell as the AI improves on its move during {@link #calculateMove()}, or null for nobody.
+     * AIs that always answer quickly never call it.
+     */
+    default void setProgressListener(ProgressListener listener) {
+    }
+
+    /**
+     * Lets the AI use the opponent's thinking time, searching ahead in the background. Called after each
+     * of the AI's own moves while the game goes on. Whatever it starts must stop as soon as
+     * {@link #submitMoveToAI(Point)} brings the real reply, or {@link #stopPondering()} is called.
+     */
+    default void startPondering() {
+    }
+
+    /**
+     * Stops any background search, and returns once it has stopped.
+     */
+    default void stopPondering() {
+    }
+
+    /**
+     * @return how many plies deep the last move was searched, or 0 for an AI that doesn't search
+     */
+    default int getLastDepth() {
+        return 0;
+    }
+
+    /**
+     * @return how much work the last move took: positions searched, or playouts for Monte Carlo. 0 for an
+     * AI that doesn't search.
+     */
+    default long getLastNodes() {
+        return 0;
+    }
+
+    /**
+     * Is told about the best move so far, on the thread doing the calculating.
+     */
+    interface ProgressListener {
+        /**
+         * @param depth how many plies deep the move has been searched
+         */
+        void bestMoveSoFar(Point move, int depth);
+    }
 }
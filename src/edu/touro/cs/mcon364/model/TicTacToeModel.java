@@ -1,64 +1,279 @@
 package edu.touro.cs.mcon364.model;
 
+import edu.touro.cs.mcon364.jfr.AiMoveEvent;
+import edu.touro.cs.mcon364.jfr.GameStartEvent;
+import edu.touro.cs.mcon364.jfr.MoveEvent;
+import edu.touro.cs.mcon364.jfr.NewGameEvent;
+import edu.touro.cs.mcon364.metrics.Counter;
+import edu.touro.cs.mcon364.metrics.Metrics;
+import edu.touro.cs.mcon364.metrics.Timer;
+
 import java.awt.*;
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
 
 public class TicTacToeModel implements Serializable {
-    private transient CellValue[][] board = new CellValue[3][3];
-    private boolean XTurn;
+    // Recorded only while Metrics are on. aiMove's time includes the AI's.
+    private static final Timer MAKE_MOVE = Metrics.timer("model_make_move"), AI_MOVE = Metrics.timer("model_ai_move");
+    private static final Counter AI_FAILURES = Metrics.counter("model_ai_failures");
 
-    private transient int moveCount;
+    private int width, height, winLength;
+    private transient Board board;
+    private boolean XTurn;
 
     private transient TicTacToeAI ai;
     private CellValue aiTeam = null;
+    private transient List<MoveListener> listeners = new ArrayList<>();
+
+    // Cells in the order they were played. Entries from historySize up to redoSize are undone moves that
+    // can still be redone. Only moves made since the game started or was restored are kept.
+    private transient int[] history;
+    private transient int historySize, redoSize;
+
+    // The current position, see Position, republished after every change on boards small enough for one.
+    // Only the thread playing the game writes it; any thread may read it.
+    private transient volatile long position;
 
     @Serial
     private static final long serialVersionUID = 43L;
 
-    // Since TicTacToe was designed to be played on a 3x3 grid, all values are hardcoded.
+    /**
+     * Creates a classic 3x3 game, three in a row to win.
+     */
     public TicTacToeModel() {
+        this(Bitboard.SIZE, Bitboard.SIZE, Bitboard.SIZE);
+    }
+
+    /**
+     * Creates an m,n,k game: a {@code width} by {@code height} board, won by {@code winLength} in a row.
+     */
+    public TicTacToeModel(int width, int height, int winLength) {
+        board = new Board(width, height, winLength);
+        this.width = width;
+        this.height = height;
+        this.winLength = winLength;
+        history = new int[board.getCells()];
         init();
     }
 
     // initialization
     public void newGame() {
+        if (ai != null) {
+            ai.stopPondering();
+        }
+
+        NewGameEvent event = new NewGameEvent();
+        event.movesCleared = historySize;
+        event.commit();
         init();
+
+        for (MoveListener l : listeners) {
+            l.gameReset(this);
+        }
     }
 
     private void init() {
         // set up game
-        for (int x = 0; x < 3; x++) {
-            Arrays.fill(board[x], CellValue.NONE);
-        }
+        board.clearAll();
+        historySize = redoSize = 0;
 
         XTurn = true;
-        moveCount = 0;
+        publish(MoveResult.GameState.CONTINUE);
     }
 
     public void startGame(GameType gt) {
         if (gt == GameType.COMPUTER) {
-            aiTeam = (new Random().nextBoolean()) ? CellValue.X : CellValue.O;
-            ai = new HardTicTacToeAI(this);
+            startGame((new Random().nextBoolean()) ? CellValue.X : CellValue.O, defaultAI(board.isClassic()));
         } else {
+            if (ai != null) {
+                ai.stopPondering();
+            }
             aiTeam = CellValue.NONE;
             ai = null;
+            gameStarted();
         }
     }
 
+    /**
+     * Starts a game against the computer.
+     *
+     * @param team      the team the AI plays
+     * @param aiFactory creates the AI for this model. It is called after the AI team is set.
+     */
+    public void startGame(CellValue team, Function<TicTacToeModel, ? extends TicTacToeAI> aiFactory) {
+        if (team == CellValue.NONE) {
+            throw new IllegalArgumentException("The AI must play X or O.");
+        }
+
+        if (ai != null) {
+            ai.stopPondering();
+        }
+        aiTeam = team;
+        ai = aiFactory.apply(this);
+        gameStarted();
+    }
+
+    private void gameStarted() {
+        GameStartEvent event = new GameStartEvent();
+        if (event.shouldCommit()) {
+            event.width = width;
+            event.height = height;
+            event.winLength = winLength;
+            event.aiTeam = aiTeam.name();
+            event.ai = ai == null ? null : ai.getClass();
+            event.commit();
+        }
+    }
+
+    /**
+     * Registers a listener to be told about every move made from now on, and every {@link #newGame()}.
+     */
+    public void addMoveListener(MoveListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeMoveListener(MoveListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return the AI {@link #startGame(GameType)} uses against the computer. The rule-based AI only knows
+     * the 3x3 board. On other boards the search ponders, since its opponent there is a person, whose time
+     * to think it would otherwise leave unused.
+     */
+    public static Function<TicTacToeModel, TicTacToeAI> defaultAI(boolean classic) {
+        return classic ? HardTicTacToeAI::new : m -> {
+            SearchTicTacToeAI ai = new SearchTicTacToeAI(m);
+            ai.setPondering(true);
+            return ai;
+        };
+    }
+
+    // Sets up a position before the game is started, see GameCodec.
+    void restore(Board position, boolean xTurn) {
+        board.copyFrom(position);
+        XTurn = xTurn;
+        historySize = redoSize = 0;
+        publish(currentState());
+    }
+
     // getters
+    /**
+     * Copies the board. Readers that only look should use {@link #getPosition()}, which doesn't.
+     */
     protected CellValue[][] getBoard() {
-        CellValue[][] boardCopy = new CellValue[3][3];
+        CellValue[][] boardCopy = new CellValue[width][height];
 
-        for (int i = 0; i < 3; i++) {
-            System.arraycopy(board[i], 0, boardCopy[i], 0, 3);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                boardCopy[x][y] = getSpace(x, y);
+            }
         }
 
         return boardCopy;
     }
 
+    // Package-private: AIs that keep their own copy of the position start from this.
+    Board copyBoard() {
+        return board.copy();
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    public boolean isClassic() {
+        return board.isClassic();
+    }
+
+    /**
+     * Only available on boards of at most 32 cells, see {@link Board} for the layout.
+     *
+     * @return the player's stones, or the empty cells for {@link CellValue#NONE}
+     */
+    public int getMask(CellValue player) {
+        if (board.getCells() > Integer.SIZE) {
+            throw new UnsupportedOperationException("Board is too big to fit in an int mask.");
+        }
+
+        return (int) board.word(player, 0);
+    }
+
+    public int getLegalMoves() {
+        return getMask(CellValue.NONE);
+    }
+
+    /**
+     * @return a 64-bit Zobrist hash of the position, kept up to date with one XOR per move or undo. Equal
+     * positions on boards of the same size hash the same, whatever order the stones went down in.
+     */
+    public long getHash() {
+        return board.getHash();
+    }
+
+    /**
+     * @return like {@link #getHash()}, but the same for every rotation and reflection of the position.
+     * Costs a pass over the board the first time, and one XOR per symmetry on every move after that.
+     */
+    public long getSymmetricHash() {
+        return board.getSymmetricHash();
+    }
+
+    /**
+     * Safe to call from any thread, even while the game is being played on another: it is a single
+     * volatile read, and the position it returns can never change. Decode it with {@link Position}.
+     *
+     * @throws UnsupportedOperationException if the board has more than {@value Position#MAX_CELLS} cells
+     */
+    public long getPosition() {
+        if (!Position.fits(width, height)) {
+            throw new UnsupportedOperationException("Board is too big to fit in a position.");
+        }
+
+        return position;
+    }
+
+    public int getPositionKey() {
+        requireClassic();
+        return Symmetry.key(getMask(CellValue.X), getMask(CellValue.O));
+    }
+
+    /**
+     * @return the canonical key of the current position packed with the transform that maps it there,
+     * see {@link Symmetry#canonicalize}
+     */
+    public int getCanonicalPosition() {
+        requireClassic();
+        return Symmetry.canonicalize(getMask(CellValue.X), getMask(CellValue.O));
+    }
+
+    /**
+     * @return the cells played since the game was started or restored, in order, without undone moves.
+     * Cells are numbered {@code x * height + y}.
+     */
+    public int[] getMoves() {
+        return Arrays.copyOf(history, historySize);
+    }
+
     public CellValue getAiTeam() {
         return aiTeam;
     }
@@ -67,59 +282,151 @@ public class TicTacToeModel implements Serializable {
         return XTurn ? CellValue.O : CellValue.X;
     }
 
-    protected CellValue getSpace(int x, int y) {
-        return board[x][y];
+    public CellValue getSpace(int x, int y) {
+        return board.get(board.index(x, y));
+    }
+
+    private void requireClassic() {
+        if (!board.isClassic()) {
+            throw new UnsupportedOperationException("Only available on the classic 3x3 board.");
+        }
     }
 
     // move methods
     public MoveResult makeMove(Point p){
         int x = p.x, y = p.y;
 
-        if (x < 0 || x > 2 || y < 0 || y > 2 || board[x][y] != CellValue.NONE) {
+        if (!board.inBounds(x, y)) {
+            throw new IllegalArgumentException();
+        }
+
+        int cell = board.index(x, y);
+        if (!board.isEmpty(cell)) {
             throw new IllegalArgumentException();
         }
 
-        CellValue currentPlayer = XTurn ? CellValue.X : CellValue.O;
+        long start = Metrics.start();
+        MoveEvent event = new MoveEvent();
+        event.begin();
+
+        redoSize = historySize + 1; // a new move ends what could be redone
+        MoveResult res = play(cell);
+
+        MAKE_MOVE.stop(start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.x = x;
+            event.y = y;
+            event.player = previousPlayer().getRepr();
+            event.moveNumber = historySize;
+            event.resultingState = res.resultingState.name();
+            event.commit();
+        }
+        return res;
+    }
+
+    private MoveResult play(int cell) {
+        int x = board.xOf(cell), y = board.yOf(cell);
+        CellValue mover = XTurn ? CellValue.X : CellValue.O;
+        board.place(cell, mover);
+        history[historySize++] = cell;
 
-        board[x][y] = currentPlayer;
         if (ai != null) {
             ai.submitMoveToAI(new Point(x, y));
         }
         XTurn = !XTurn;
 
-        return scoreAndCheckWin(x, y);
+        MoveResult res = scoreAndCheckWin(x, y);
+        publish(res.resultingState);
+        for (MoveListener l : listeners) {
+            l.moveMade(this, res);
+        }
+
+        // The opponent's turn is the AI's time to think ahead.
+        if (ai != null && mover == aiTeam && res.resultingState == MoveResult.GameState.CONTINUE) {
+            ai.startPondering();
+        }
+
+        return res;
     }
 
-    // Each time a move is made, update the scores for that player in that row, column, and diagonal
-    // (if applicable), and check whether there is a win along each of those lines.
-    // Adapted from https://stackoverflow.com/a/1610176
-    private MoveResult scoreAndCheckWin(int x, int y) {
+    public boolean canUndo() {
+        return historySize > 0;
+    }
 
-        MoveResult res = new MoveResult(x, y);
+    public boolean canRedo() {
+        return redoSize > historySize;
+    }
 
-        // Add a point for the player along the column the move was in.
-        if (board[x][0] == board[x][1] && board[x][0] == board[x][2]) {
-            res.affectedLines.add(new Point[]{new Point(x, 0), new Point(x, 1), new Point(x, 2)});
+    /**
+     * Takes back the last move, in the model and in the AI if there is one. The move can be put back
+     * with {@link #redoMove()} until another move is made. The model allocates nothing to do it; only the
+     * AI, if there is one, is handed a new {@link Point}.
+     *
+     * @throws IllegalStateException         if there is no move to take back
+     * @throws UnsupportedOperationException if the AI can't take moves back. The model is unchanged.
+     */
+    public void undoMove() {
+        if (historySize == 0) {
+            throw new IllegalStateException("No move to undo.");
         }
 
-        // And in the row.
-        if (board[0][y] == board[1][y] && board[0][y] == board[2][y]) {
-            res.affectedLines.add(new Point[]{new Point(0, y), new Point(1, y), new Point(2, y)});
+        int cell = history[historySize - 1];
+        int x = board.xOf(cell), y = board.yOf(cell);
+
+        if (ai != null) {
+            ai.retractMoveFromAI(new Point(x, y)); // first, so a refusal leaves the model as it was
         }
+        board.clear(cell);
+        historySize--;
+        XTurn = !XTurn;
+        publish(MoveResult.GameState.CONTINUE); // the game went on after the move before
 
-        // Diagonal if x == y
-        if (x == y && board[0][0] == board[1][1] && board[0][0] == board[2][2]) {
-            res.affectedLines.add(new Point[]{new Point(0, 0), new Point(1, 1), new Point(2, 2)});
+        for (MoveListener l : listeners) {
+            l.moveUndone(this, x, y);
         }
+    }
 
-        // Anti-diagonal if (2,0), (1,1) or (0,2)
-        if (x == 2 - y && board[0][2] == board[1][1] && board[0][2] == board[2][0]) {
-            res.affectedLines.add(new Point[]{new Point(0, 2), new Point(1, 1), new Point(2, 0)});
+    /**
+     * Plays the last undone move again. Like {@link #makeMove(Point)}, it allocates the result it
+     * returns, and a {@link Point} for the AI if there is one, but nothing that grows with the board.
+     *
+     * @throws IllegalStateException if there is no move to redo
+     */
+    public MoveResult redoMove() {
+        if (!canRedo()) {
+            throw new IllegalStateException("No move to redo.");
         }
 
-        if (!res.affectedLines.isEmpty()) {
+        return play(history[historySize]);
+    }
+
+    // Only the runs through the move can have been completed by it, so count outwards from it
+    // in each of the four directions. The board is never rescanned.
+    // Adapted from https://stackoverflow.com/a/1610176
+    private MoveResult scoreAndCheckWin(int x, int y) {
+
+        MoveResult res = new MoveResult(x, y);
+        int cell = board.index(x, y);
+
+        if (board.isWinningMove(cell)) {
+            for (int d = 0; d < Board.DIRECTIONS; d++) {
+                int length = board.runLength(cell, d);
+
+                if (length >= winLength) {
+                    int behind = board.runBehind(cell, d);
+                    Point[] line = new Point[length];
+
+                    for (int i = 0; i < length; i++) {
+                        line[i] = new Point(x + (i - behind) * Board.dx(d), y + (i - behind) * Board.dy(d));
+                    }
+
+                    res.affectedLines.add(line);
+                }
+            }
+
             res.resultingState = XTurn ? MoveResult.GameState.O_WIN : MoveResult.GameState.X_WIN;
-        } else if ((++moveCount) == 9) {
+        } else if (board.isFull()) {
             res.resultingState = MoveResult.GameState.DRAW;
         }
 
@@ -127,23 +434,132 @@ public class TicTacToeModel implements Serializable {
     }
 
     public MoveResult aiMove() {
+        long start = Metrics.start();
         try {
-            return makeMove(ai.calculateMove());
+            MoveResult res = makeMove(calculateMove(ai, () -> false));
+            AI_MOVE.stop(start);
+            return res;
         } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
-            throw new IllegalStateException("Something went wrong with the AI.");
+            throw aiFailure();
         }
     }
 
+    /**
+     * Works out the AI's move on {@code calculator} and plays it on {@code applier}, so a slow AI never
+     * holds up the caller. Nothing else may change the model until the returned future is done.
+     * <p>
+     * Cancelling the future asks the AI to stop, but the future is only done once the AI has returned and
+     * let go of the model: {@code cancel} returns false while it is still calculating, and the future then
+     * completes as cancelled, on {@code applier}, without playing the move. Chain anything that changes
+     * the model onto the future rather than running it straight after {@code cancel}. If it is cancelled on
+     * the {@code applier} thread (the event thread, say), the move is guaranteed not to be played.
+     *
+     * @param progress told about the AI's best move so far, on the calculating thread. May be null.
+     * @return the result of the AI's move, completed on {@code applier}
+     */
+    public CompletableFuture<MoveResult> aiMoveAsync(Executor calculator, Executor applier,
+                                                     TicTacToeAI.ProgressListener progress) {
+        TicTacToeAI thinker = ai;
+        long start = Metrics.start();
+        // This move's own stop, never cleared, so a cancel can't be lost to a search that is just starting.
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicBoolean calculating = new AtomicBoolean(true);
+        CompletableFuture<MoveResult> result = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                stop.set(true);
+                return !calculating.get() && super.cancel(mayInterruptIfRunning);
+            }
+        };
+
+        thinker.setProgressListener(progress);
+        CompletableFuture.supplyAsync(() -> stop.get() ? null : calculateMove(thinker, stop::get), calculator)
+                .whenComplete((move, e) -> {
+                    thinker.setProgressListener(null);
+                    calculating.set(false);
+                    applier.execute(() -> {
+                        if (result.isDone()) {
+                            return; // cancelled after the AI returned
+                        }
+                        if (stop.get()) {
+                            result.completeExceptionally(new CancellationException());
+                            return;
+                        }
+
+                        Throwable failure = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        if (failure == null) {
+                            try {
+                                result.complete(makeMove(move));
+                                AI_MOVE.stop(start);
+                                return;
+                            } catch (RuntimeException ex) {
+                                failure = ex;
+                            }
+                        }
+
+                        result.completeExceptionally(failure instanceof IndexOutOfBoundsException
+                                || failure instanceof IllegalArgumentException ? aiFailure() : failure);
+                    });
+                });
+
+        return result;
+    }
+
+    // Asks the AI for its move, and tells Flight Recorder how it went.
+    private Point calculateMove(TicTacToeAI thinker, BooleanSupplier stop) {
+        AiMoveEvent event = new AiMoveEvent();
+        event.begin();
+        Point move = null;
+
+        try {
+            move = thinker.calculateMove(stop);
+            return move;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.ai = thinker.getClass();
+                if (move != null) {
+                    event.x = move.x;
+                    event.y = move.y;
+                }
+                event.depth = thinker.getLastDepth();
+                event.nodes = thinker.getLastNodes();
+                event.width = width;
+                event.height = height;
+                event.commit();
+            }
+        }
+    }
+
+    // position
+    private void publish(MoveResult.GameState state) {
+        if (Position.fits(width, height)) {
+            position = Position.of((int) board.word(CellValue.X, 0), (int) board.word(CellValue.O, 0),
+                    XTurn, state, width, height, winLength);
+        }
+    }
+
+    // Works out how the game stands from the board alone, for positions that weren't reached move by move.
+    private MoveResult.GameState currentState() {
+        for (int cell = 0; cell < board.getCells(); cell++) {
+            if (!board.isEmpty(cell) && board.isWinningMove(cell)) {
+                return board.get(cell) == CellValue.X ? MoveResult.GameState.X_WIN : MoveResult.GameState.O_WIN;
+            }
+        }
+
+        return board.isFull() ? MoveResult.GameState.DRAW : MoveResult.GameState.CONTINUE;
+    }
+
+    private static IllegalStateException aiFailure() {
+        AI_FAILURES.increment();
+        return new IllegalStateException("Something went wrong with the AI.");
+    }
+
     // serialization
     @Serial
     private void writeObject(ObjectOutputStream s) throws IOException {
         s.defaultWriteObject();
-
-        for (int x = 0; x < 3; x++) {
-            for (int y = 0; y < 3; y++) {
-                s.writeObject(board[x][y]);
-            }
-        }
+        s.writeObject(GameCodec.encode(this));
 
         if (ai != null) {
             s.writeObject(ai);
@@ -153,26 +569,56 @@ public class TicTacToeModel implements Serializable {
     @Serial
     private void readObject(ObjectInputStream s) throws IOException, ClassNotFoundException {
         s.defaultReadObject();
+        listeners = new ArrayList<>();
+
+        // Saves from before the board size was configurable don't have it.
+        if (width == 0) {
+            width = height = winLength = Bitboard.SIZE;
+        }
+        history = new int[width * height];
 
-        moveCount = 0;
-        board = new CellValue[3][3];
+        Object position = s.readObject();
 
-        for (int x = 0; x < 3; x++) {
-            for (int y = 0; y < 3; y++) {
-                board[x][y] = (CellValue) s.readObject();
+        if (position instanceof byte[]) {
+            board = GameCodec.read(ByteBuffer.wrap((byte[]) position)).board;
+        } else {
+            // Older saves have one CellValue per cell instead.
+            board = new Board(width, height, winLength);
+
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    CellValue v = (CellValue) (x == 0 && y == 0 ? position : s.readObject());
 
-                if (board[x][y] != CellValue.NONE) {
-                    moveCount++;
+                    if (v != CellValue.NONE) {
+                        board.place(board.index(x, y), v);
+                    }
                 }
             }
         }
 
-        if (aiTeam != null) {
+        publish(currentState());
+
+        // Human games don't write an AI.
+        if (aiTeam != null && aiTeam != CellValue.NONE) {
             ai = (TicTacToeAI) s.readObject();
         }
     }
 
     // classes
+    /**
+     * Is told about moves as they are made. Listeners run on the thread making the move, after the model
+     * has been updated.
+     */
+    public interface MoveListener {
+        void moveMade(TicTacToeModel model, MoveResult move);
+
+        default void moveUndone(TicTacToeModel model, int x, int y) {
+        }
+
+        default void gameReset(TicTacToeModel model) {
+        }
+    }
+
     public enum GameType {
         HUMAN,
         COMPUTER,
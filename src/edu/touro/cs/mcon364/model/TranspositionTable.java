@@ -0,0 +1,105 @@
+package edu.touro.cs.mcon364.model;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table of search results, keyed by Zobrist hash.
+ * <p>
+ * Entries live in buckets of two slots. The first keeps the deepest result (unless it is left over from
+ * an earlier search), the second always takes whatever the first refused. Each entry is packed into one
+ * long, and the stored key is XORed with it, so a half-written entry never validates. That makes the
+ * table safe to share between search threads without locking.
+ */
+final class TranspositionTable {
+    // Bound types. They are never 0, so a packed entry is never 0 either.
+    static final int EXACT = 1, LOWER = 2, UPPER = 3;
+    static final long MISS = 0;
+
+    private final long[] keys, data;
+    private final int mask;
+    private volatile int age;
+
+    /**
+     * @param bits the table holds {@code 2^bits} entries
+     */
+    TranspositionTable(int bits) {
+        if (bits < 1 || bits > 28) {
+            throw new IllegalArgumentException("Table size must be between 2^1 and 2^28 entries.");
+        }
+
+        keys = new long[1 << bits];
+        data = new long[1 << bits];
+        mask = (1 << bits) - 2;
+    }
+
+    /**
+     * Marks the start of a new search, so entries from older searches are replaced first.
+     */
+    void newSearch() {
+        age = (age + 1) & 0x3F;
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+    }
+
+    /**
+     * @return the packed entry for this hash, or {@link #MISS}
+     */
+    long probe(long hash) {
+        int i = (int) hash & mask;
+
+        for (int j = i; j < i + 2; j++) {
+            long d = data[j];
+            if ((keys[j] ^ d) == hash && d != MISS) {
+                return d;
+            }
+        }
+
+        return MISS;
+    }
+
+    void store(long hash, int score, int move, int depth, int bound) {
+        int i = (int) hash & mask;
+        long old = data[i];
+        long packed = pack(score, move, depth, bound, age);
+
+        if (old == MISS || (keys[i] ^ old) == hash || ageOf(old) != age || depth >= depthOf(old)) {
+            data[i] = packed;
+            keys[i] = hash ^ packed;
+        } else {
+            data[i + 1] = packed;
+            keys[i + 1] = hash ^ packed;
+        }
+    }
+
+    // Layout: score in bits 0-31, move + 1 in 32-47, depth in 48-55, bound in 56-57, age in 58-63.
+    private static long pack(int score, int move, int depth, int bound, int age) {
+        return (score & 0xFFFFFFFFL)
+                | (long) (move + 1 & 0xFFFF) << 32
+                | (long) (Math.min(depth, 0xFF)) << 48
+                | (long) bound << 56
+                | (long) age << 58;
+    }
+
+    static int scoreOf(long entry) {
+        return (int) entry;
+    }
+
+    static int moveOf(long entry) {
+        return (int) (entry >>> 32 & 0xFFFF) - 1;
+    }
+
+    static int depthOf(long entry) {
+        return (int) (entry >>> 48 & 0xFF);
+    }
+
+    static int boundOf(long entry) {
+        return (int) (entry >>> 56 & 0x3);
+    }
+
+    private static int ageOf(long entry) {
+        return (int) (entry >>> 58);
+    }
+}
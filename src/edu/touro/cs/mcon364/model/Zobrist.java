@@ -0,0 +1,63 @@
+package edu.touro.cs.mcon364.model;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Random keys for Zobrist hashing. A position's hash is the XOR of the key for every stone on the board,
+ * so placing or removing a stone updates it with a single XOR.
+ * <p>
+ * Keys come from a fixed seed, so hashes are stable between runs, and are shared by every board with the
+ * same number of cells.
+ */
+final class Zobrist {
+    private static final ConcurrentHashMap<Integer, long[]> KEYS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Long, int[][]> SYMMETRIES = new ConcurrentHashMap<>();
+
+    private Zobrist() {
+    }
+
+    /**
+     * @return keys for a board of {@code cells} cells: X's key for cell i is at i, O's is at {@code cells + i}.
+     * The array is shared and must not be modified.
+     */
+    static long[] keys(int cells) {
+        return KEYS.computeIfAbsent(cells, Zobrist::generate);
+    }
+
+    /**
+     * @return for each symmetry of a {@code width} by {@code height} board, where it sends each cell, laid
+     * out as in {@link Board}. The identity comes first. Square boards have eight symmetries, others four.
+     * The arrays are shared and must not be modified.
+     */
+    static int[][] symmetries(int width, int height) {
+        return SYMMETRIES.computeIfAbsent((long) width << 32 | height, k -> {
+            int count = width == height ? 8 : 4;
+            int[][] maps = new int[count][width * height];
+
+            // Bit 0 flips x, bit 1 flips y, bit 2 swaps x and y afterwards.
+            for (int t = 0; t < count; t++) {
+                for (int x = 0; x < width; x++) {
+                    for (int y = 0; y < height; y++) {
+                        int tx = (t & 1) != 0 ? width - 1 - x : x;
+                        int ty = (t & 2) != 0 ? height - 1 - y : y;
+                        maps[t][x * height + y] = (t & 4) != 0 ? ty * height + tx : tx * height + ty;
+                    }
+                }
+            }
+
+            return maps;
+        });
+    }
+
+    private static long[] generate(int cells) {
+        SplittableRandom random = new SplittableRandom(0x2545F4914F6CDD1DL);
+        long[] keys = new long[2 * cells];
+
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+
+        return keys;
+    }
+}
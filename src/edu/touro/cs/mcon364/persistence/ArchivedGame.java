@@ -0,0 +1,47 @@
+package edu.touro.cs.mcon364.persistence;
+
+import edu.touro.cs.mcon364.model.Bitboard;
+import edu.touro.cs.mcon364.model.TicTacToeModel;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+import java.awt.*;
+
+/**
+ * One game read back from a {@link GameArchiveReader}.
+ */
+public class ArchivedGame {
+    public final long offset;
+    public final GameState result;
+    private final byte[] cells;
+
+    ArchivedGame(long offset, byte[] cells, GameState result) {
+        this.offset = offset;
+        this.cells = cells;
+        this.result = result;
+    }
+
+    public int getMoveCount() {
+        return cells.length;
+    }
+
+    /**
+     * @return the cell of the {@code i}th move, in {@link Bitboard} order
+     */
+    public int getMove(int i) {
+        return cells[i];
+    }
+
+    /**
+     * @return a new human-vs-human model with the game's moves played on it
+     */
+    public TicTacToeModel replay() {
+        TicTacToeModel model = new TicTacToeModel();
+        model.startGame(TicTacToeModel.GameType.HUMAN);
+
+        for (byte cell : cells) {
+            model.makeMove(new Point(cell / Bitboard.SIZE, cell % Bitboard.SIZE));
+        }
+
+        return model;
+    }
+}
@@ -0,0 +1,348 @@
+package edu.touro.cs.mcon364.persistence;
+
+import edu.touro.cs.mcon364.model.Bitboard;
+import edu.touro.cs.mcon364.model.Symmetry;
+import edu.touro.cs.mcon364.model.TicTacToeModel;
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A memory-mapped index from position to the archived games that passed through it.
+ * <p>
+ * Positions are keyed by {@link Symmetry#canonicalKey}, so there are only 765 of them. Each has an entry
+ * with its outcome counts and where its postings start; the postings are the file offsets of its games,
+ * in no particular order. File layout: a 24-byte header (magic, version, position count, padding, game
+ * count), the 56-byte entries in canonical key order, then the postings.
+ */
+public class GameArchiveIndex implements AutoCloseable {
+    private static final int MAGIC = 0x54544901; // "TTI", version 1
+    private static final int HEADER_SIZE = 24, ENTRY_SIZE = 56;
+    private static final int X_WINS = 0, O_WINS = 1, DRAWS = 2, UNFINISHED = 3, COUNTERS = 4;
+
+    // Postings are mapped in pieces, since one mapping can't be bigger than 2 GB.
+    private static final int SEGMENT_BITS = 27;
+    private static final long SEGMENT_LONGS = 1L << SEGMENT_BITS;
+
+    // Every canonical position that can come up in a game, in key order, and each key's place in it.
+    private static final int[] KEYS;
+    private static final short[] POSITION_OF = new short[1 << 2 * Bitboard.CELLS];
+
+    static {
+        boolean[] seen = new boolean[1 << 2 * Bitboard.CELLS];
+        List<Integer> keys = new ArrayList<>();
+        collect(0, 0, seen, keys);
+
+        KEYS = keys.stream().mapToInt(Integer::intValue).sorted().toArray();
+        Arrays.fill(POSITION_OF, (short) -1);
+        for (int i = 0; i < KEYS.length; i++) {
+            POSITION_OF[KEYS[i]] = (short) i;
+        }
+    }
+
+    private static void collect(int x, int o, boolean[] seen, List<Integer> keys) {
+        int key = Symmetry.canonicalKey(x, o);
+        if (seen[key]) {
+            return;
+        }
+        seen[key] = true;
+        keys.add(key);
+
+        if (Bitboard.isWin(x) || Bitboard.isWin(o)) {
+            return;
+        }
+
+        boolean xToMove = Integer.bitCount(x) == Integer.bitCount(o);
+        for (int moves = Bitboard.legalMoves(x, o); moves != 0; moves &= moves - 1) {
+            int bit = moves & -moves;
+            if (xToMove) {
+                collect(x | bit, o, seen, keys);
+            } else {
+                collect(x, o | bit, seen, keys);
+            }
+        }
+    }
+
+    /**
+     * @return the number of distinct positions, up to symmetry, that can come up in a game
+     */
+    public static int positionCount() {
+        return KEYS.length;
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer entries;
+    private final MappedByteBuffer[] postings;
+    private final long games;
+
+    public GameArchiveIndex(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+
+        entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE + (long) KEYS.length * ENTRY_SIZE);
+        if (entries.getInt(0) != MAGIC || entries.getInt(8) != KEYS.length) {
+            channel.close();
+            throw new IOException(file + " is not a game archive index.");
+        }
+        games = entries.getLong(16);
+
+        postings = mapPostings(channel, FileChannel.MapMode.READ_ONLY, channel.size() - postingsStart());
+    }
+
+    // lookups
+    public long getGameCount() {
+        return games;
+    }
+
+    public PositionStats lookup(TicTacToeModel model) {
+        return lookup(model.getMask(CellValue.X), model.getMask(CellValue.O));
+    }
+
+    /**
+     * @return the stats for this position or any of its symmetric equivalents, or null if no game can
+     * reach it
+     */
+    public PositionStats lookup(int xMask, int oMask) {
+        int position = POSITION_OF[Symmetry.canonicalKey(xMask, oMask)];
+        if (position < 0) {
+            return null;
+        }
+
+        int at = HEADER_SIZE + position * ENTRY_SIZE;
+        return new PositionStats(entries.getInt(at),
+                entries.getLong(at + 8), entries.getLong(at + 16), entries.getLong(at + 24), entries.getLong(at + 32),
+                entries.getLong(at + 40));
+    }
+
+    /**
+     * @return up to {@code max} archive offsets of games through the position, starting at the
+     * {@code from}th one
+     */
+    public long[] gameOffsets(PositionStats stats, long from, int max) {
+        int count = (int) Math.max(0, Math.min(max, stats.getGames() - from));
+        long[] offsets = new long[count];
+
+        for (int i = 0; i < count; i++) {
+            long slot = stats.postingsStart + from + i;
+            offsets[i] = postings[(int) (slot >>> SEGMENT_BITS)].getLong((int) (slot & SEGMENT_LONGS - 1) * Long.BYTES);
+        }
+
+        return offsets;
+    }
+
+    // building
+    /**
+     * Indexes an archive, using {@code threads} threads. The archive is read twice: once to count games
+     * per position, so every posting list can be laid out in place, and once to fill them in.
+     */
+    public static void build(Path archive, Path index, int threads) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        try (GameArchiveReader reader = new GameArchiveReader(archive);
+             FileChannel channel = FileChannel.open(index, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long[] blocks = reader.blockOffsets();
+            List<long[]> ranges = split(blocks, threads * 4);
+
+            // Pass 1: outcome counts per position, per task, merged at the end.
+            long[] counters = new long[KEYS.length * COUNTERS];
+            for (long[] partial : invokeAll(pool, ranges, range -> countRange(reader, range))) {
+                for (int i = 0; i < counters.length; i++) {
+                    counters[i] += partial[i];
+                }
+            }
+
+            long[] starts = new long[KEYS.length];
+            long total = 0, games = 0;
+            for (int p = 0; p < KEYS.length; p++) {
+                starts[p] = total;
+                for (int c = 0; c < COUNTERS; c++) {
+                    total += counters[p * COUNTERS + c];
+                }
+            }
+            for (int c = 0; c < COUNTERS; c++) {
+                games += counters[POSITION_OF[0] * COUNTERS + c]; // every game starts at the empty board
+            }
+
+            MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_WRITE, 0, postingsStart());
+            head.putInt(0, MAGIC).putInt(4, 1).putInt(8, KEYS.length).putLong(16, games);
+            for (int p = 0; p < KEYS.length; p++) {
+                int at = HEADER_SIZE + p * ENTRY_SIZE;
+                head.putInt(at, KEYS[p]);
+                for (int c = 0; c < COUNTERS; c++) {
+                    head.putLong(at + 8 + c * Long.BYTES, counters[p * COUNTERS + c]);
+                }
+                head.putLong(at + 40, starts[p]);
+            }
+            head.force();
+
+            // Pass 2: each task claims room for a whole block's postings per position with one atomic add,
+            // then fills it in.
+            MappedByteBuffer[] postings = mapPostings(channel, FileChannel.MapMode.READ_WRITE, total * Long.BYTES);
+            AtomicLongArray cursors = new AtomicLongArray(starts);
+            invokeAll(pool, ranges, range -> {
+                fillRange(reader, range, cursors, postings);
+                return null;
+            });
+
+            for (MappedByteBuffer segment : postings) {
+                segment.force();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static long[] countRange(GameArchiveReader reader, long[] blocks) throws IOException {
+        long[] counters = new long[KEYS.length * COUNTERS];
+        int[] positions = new int[Bitboard.CELLS + 1];
+
+        for (long block : blocks) {
+            reader.readBlock(block, (offset, cells, moves, result) -> {
+                int n = positionsOf(cells, moves, positions);
+                int counter = counterOf(result);
+                for (int i = 0; i < n; i++) {
+                    counters[positions[i] * COUNTERS + counter]++;
+                }
+            });
+        }
+
+        return counters;
+    }
+
+    private static void fillRange(GameArchiveReader reader, long[] blocks, AtomicLongArray cursors,
+                                  MappedByteBuffer[] postings) throws IOException {
+        int[] positions = new int[Bitboard.CELLS + 1];
+        int[] blockCounts = new int[KEYS.length];
+        long[] next = new long[KEYS.length];
+
+        for (long block : blocks) {
+            Arrays.fill(blockCounts, 0);
+            reader.readBlock(block, (offset, cells, moves, result) -> {
+                int n = positionsOf(cells, moves, positions);
+                for (int i = 0; i < n; i++) {
+                    blockCounts[positions[i]]++;
+                }
+            });
+
+            for (int p = 0; p < KEYS.length; p++) {
+                if (blockCounts[p] > 0) {
+                    next[p] = cursors.getAndAdd(p, blockCounts[p]);
+                }
+            }
+
+            reader.readBlock(block, (offset, cells, moves, result) -> {
+                int n = positionsOf(cells, moves, positions);
+                for (int i = 0; i < n; i++) {
+                    long slot = next[positions[i]]++;
+                    postings[(int) (slot >>> SEGMENT_BITS)].putLong((int) (slot & SEGMENT_LONGS - 1) * Long.BYTES, offset);
+                }
+            });
+        }
+    }
+
+    // The positions a game passed through, from the empty board to the last move.
+    private static int positionsOf(byte[] cells, int moves, int[] out) {
+        int x = 0, o = 0;
+        out[0] = POSITION_OF[0];
+
+        for (int i = 0; i < moves; i++) {
+            if ((i & 1) == 0) {
+                x |= 1 << cells[i];
+            } else {
+                o |= 1 << cells[i];
+            }
+
+            int position = POSITION_OF[Symmetry.canonicalKey(x, o)];
+            if (position < 0) {
+                throw new IllegalStateException("The archive has a game that couldn't have been played.");
+            }
+            out[i + 1] = position;
+        }
+
+        return moves + 1;
+    }
+
+    private static int counterOf(GameState result) {
+        return switch (result) {
+            case X_WIN -> X_WINS;
+            case O_WIN -> O_WINS;
+            case DRAW -> DRAWS;
+            case CONTINUE -> UNFINISHED;
+        };
+    }
+
+    // helpers
+    private static long postingsStart() {
+        return HEADER_SIZE + (long) KEYS.length * ENTRY_SIZE;
+    }
+
+    private static MappedByteBuffer[] mapPostings(FileChannel channel, FileChannel.MapMode mode, long bytes)
+            throws IOException {
+        long segmentBytes = SEGMENT_LONGS * Long.BYTES;
+        int segments = (int) Math.max(1, (bytes + segmentBytes - 1) / segmentBytes);
+        MappedByteBuffer[] mapped = new MappedByteBuffer[segments];
+
+        for (int i = 0; i < segments; i++) {
+            long from = i * segmentBytes;
+            mapped[i] = channel.map(mode, postingsStart() + from, Math.max(0, Math.min(segmentBytes, bytes - from)));
+        }
+
+        return mapped;
+    }
+
+    // Splits the blocks into about n contiguous runs.
+    private static List<long[]> split(long[] blocks, int n) {
+        List<long[]> ranges = new ArrayList<>();
+        int per = Math.max(1, (blocks.length + n - 1) / n);
+
+        for (int i = 0; i < blocks.length; i += per) {
+            ranges.add(Arrays.copyOfRange(blocks, i, Math.min(blocks.length, i + per)));
+        }
+
+        return ranges;
+    }
+
+    private interface RangeTask<T> {
+        T run(long[] range) throws IOException;
+    }
+
+    private static <T> List<T> invokeAll(ExecutorService pool, List<long[]> ranges, RangeTask<T> task) throws IOException {
+        List<Callable<T>> calls = new ArrayList<>(ranges.size());
+        for (long[] range : ranges) {
+            calls.add(() -> task.run(range));
+        }
+
+        List<T> results = new ArrayList<>(ranges.size());
+        try {
+            for (Future<T> f : pool.invokeAll(calls)) {
+                results.add(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Index build interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("Index build failed.", e.getCause());
+        }
+
+        return results;
+    }
+
+    // built-in
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,147 @@
+package edu.touro.cs.mcon364.persistence;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads an archive written by {@link GameArchiveWriter}, either a block at a time or a game at a time.
+ * Safe to use from several threads at once.
+ */
+public class GameArchiveReader implements AutoCloseable {
+    /**
+     * Receives games as they are read.
+     */
+    public interface Visitor {
+        /**
+         * @param cells only the first {@code moves} entries are this game's. The array is reused.
+         */
+        void game(long offset, byte[] cells, int moves, GameState result);
+    }
+
+    private final FileChannel channel;
+
+    public GameArchiveReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+
+        ByteBuffer header = ByteBuffer.allocate(GameArchiveWriter.FILE_HEADER_SIZE);
+        readFully(header, 0);
+        if (header.getInt(0) != GameArchiveWriter.MAGIC) {
+            channel.close();
+            throw new IOException(file + " is not a game archive.");
+        }
+    }
+
+    /**
+     * @return the file offset of every block, in file order
+     */
+    public long[] blockOffsets() throws IOException {
+        long[] offsets = new long[16];
+        int count = 0;
+        long size = channel.size();
+        ByteBuffer length = ByteBuffer.allocate(GameArchiveWriter.BLOCK_HEADER_SIZE);
+
+        for (long at = GameArchiveWriter.FILE_HEADER_SIZE; at < size; ) {
+            length.clear();
+            readFully(length, at);
+
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = at;
+            at += GameArchiveWriter.BLOCK_HEADER_SIZE + length.getInt(0);
+        }
+
+        return Arrays.copyOf(offsets, count);
+    }
+
+    /**
+     * Reads every game in one block.
+     *
+     * @return the number of games in it
+     */
+    public int readBlock(long blockOffset, Visitor visitor) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(GameArchiveWriter.BLOCK_HEADER_SIZE);
+        readFully(length, blockOffset);
+
+        ByteBuffer block = ByteBuffer.allocate(length.getInt(0));
+        long payloadStart = blockOffset + GameArchiveWriter.BLOCK_HEADER_SIZE;
+        readFully(block, payloadStart);
+        block.flip();
+
+        byte[] cells = new byte[GameArchiveWriter.MAX_RECORD_SIZE * 2];
+        int games = 0;
+
+        while (block.hasRemaining()) {
+            long offset = payloadStart + block.position();
+            int header = block.get() & 0xFF;
+            int moves = decodeMoves(header, block, cells);
+
+            visitor.game(offset, cells, moves, GameArchiveWriter.resultOf(header >>> 4 & 3));
+            games++;
+        }
+
+        return games;
+    }
+
+    /**
+     * Reads every game, in file order.
+     */
+    public void forEach(Visitor visitor) throws IOException {
+        for (long block : blockOffsets()) {
+            readBlock(block, visitor);
+        }
+    }
+
+    public ArchivedGame readGame(long offset) throws IOException {
+        // The last game in the file may be shorter than the longest record, so stop at the end.
+        ByteBuffer record = ByteBuffer.allocate(GameArchiveWriter.MAX_RECORD_SIZE);
+        for (long at = offset; record.hasRemaining(); ) {
+            int read = channel.read(record, at);
+            if (read < 0) {
+                break;
+            }
+            at += read;
+        }
+        record.flip();
+
+        byte[] cells = new byte[GameArchiveWriter.MAX_RECORD_SIZE * 2];
+        int header = record.get() & 0xFF;
+        int moves = decodeMoves(header, record, cells);
+
+        return new ArchivedGame(offset, Arrays.copyOf(cells, moves), GameArchiveWriter.resultOf(header >>> 4 & 3));
+    }
+
+    private static int decodeMoves(int header, ByteBuffer in, byte[] cells) {
+        int moves = header & 0xF;
+
+        for (int i = 0; i < moves; i += 2) {
+            int packed = in.get();
+            cells[i] = (byte) (packed & 0xF);
+            cells[i + 1] = (byte) (packed >>> 4 & 0xF);
+        }
+
+        return moves;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("The archive is truncated.");
+            }
+            position += read;
+        }
+    }
+
+    // built-in
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
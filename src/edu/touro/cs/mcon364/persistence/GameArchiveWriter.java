@@ -0,0 +1,136 @@
+package edu.touro.cs.mcon364.persistence;
+
+import edu.touro.cs.mcon364.model.Bitboard;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes finished classic games to an archive, densely: one byte for the move count and result, then
+ * four bits per move. A whole game takes at most six bytes.
+ * <p>
+ * Any number of threads may append at once. Each fills its own block buffer, and a full block is written
+ * at a file position claimed with a single atomic add, so appending threads never wait on each other.
+ * Games from one thread stay in order. Games from different threads interleave by block.
+ * <p>
+ * File layout: a 4-byte magic number, then blocks, each an int payload length followed by whole game
+ * records. A game's offset is the file position of its first byte.
+ */
+public class GameArchiveWriter implements AutoCloseable {
+    static final int MAGIC = 0x54544101; // "TTA", version 1
+    static final int FILE_HEADER_SIZE = Integer.BYTES, BLOCK_HEADER_SIZE = Integer.BYTES;
+    static final int MAX_RECORD_SIZE = 1 + (Bitboard.CELLS + 1) / 2;
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final AtomicLong end = new AtomicLong(FILE_HEADER_SIZE), games = new AtomicLong();
+    private final ConcurrentLinkedQueue<ByteBuffer> allBuffers = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> {
+        ByteBuffer buffer = ByteBuffer.allocate(BLOCK_HEADER_SIZE + BLOCK_SIZE);
+        buffer.position(BLOCK_HEADER_SIZE);
+        allBuffers.add(buffer);
+        return buffer;
+    });
+
+    /**
+     * Creates a new archive, replacing any file already there.
+     */
+    public GameArchiveWriter(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        writeFully(ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(MAGIC).flip(), 0);
+    }
+
+    /**
+     * @param cells  the cells played, in {@link Bitboard} order, first move first
+     * @param moves  how many of {@code cells} were played
+     * @param result how the game ended
+     * @throws IllegalArgumentException if there are too many moves or a cell is off the classic board
+     */
+    public void append(byte[] cells, int moves, GameState result) throws IOException {
+        if (moves < 0 || moves > Bitboard.CELLS) {
+            throw new IllegalArgumentException("Only classic 3x3 games can be archived.");
+        }
+        // Checked before anything is written, so a bad game leaves no half record in the block.
+        for (int i = 0; i < moves; i++) {
+            if (cells[i] < 0 || cells[i] >= Bitboard.CELLS) {
+                throw new IllegalArgumentException("Only classic 3x3 games can be archived.");
+            }
+        }
+
+        ByteBuffer buffer = buffers.get();
+        if (buffer.remaining() < MAX_RECORD_SIZE) {
+            flush(buffer);
+        }
+
+        buffer.put((byte) (moves | resultCode(result) << 4));
+        for (int i = 0; i < moves; i += 2) {
+            int low = cells[i], high = i + 1 < moves ? cells[i + 1] : 0;
+            buffer.put((byte) (low | high << 4));
+        }
+
+        games.incrementAndGet();
+    }
+
+    public long getGameCount() {
+        return games.get();
+    }
+
+    private void flush(ByteBuffer buffer) throws IOException {
+        int payload = buffer.position() - BLOCK_HEADER_SIZE;
+        if (payload == 0) {
+            return;
+        }
+
+        buffer.putInt(0, payload).flip();
+        writeFully(buffer, end.getAndAdd(buffer.limit()));
+        buffer.clear().position(BLOCK_HEADER_SIZE);
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    // record format
+    static int resultCode(GameState result) {
+        return switch (result) {
+            case CONTINUE -> 0;
+            case DRAW -> 1;
+            case X_WIN -> 2;
+            case O_WIN -> 3;
+        };
+    }
+
+    static GameState resultOf(int code) {
+        return switch (code) {
+            case 0 -> GameState.CONTINUE;
+            case 1 -> GameState.DRAW;
+            case 2 -> GameState.X_WIN;
+            default -> GameState.O_WIN;
+        };
+    }
+
+    // built-in
+    /**
+     * Writes out every thread's partial block. Every appending thread must be done first.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            for (ByteBuffer buffer : allBuffers) {
+                flush(buffer);
+            }
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+}
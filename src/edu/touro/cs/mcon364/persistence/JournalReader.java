@@ -0,0 +1,123 @@
+package edu.touro.cs.mcon364.persistence;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams the records of a {@link MoveJournal} file, in the order they were written, through a small
+ * buffer, so journals of any size can be read. Reading stops at the end of the data: the first unwritten
+ * byte, a record cut short by a crash, or anything that isn't a valid record.
+ */
+public class JournalReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Receives the records of a journal.
+     */
+    public interface Visitor {
+        void game(long id, int width, int height, int winLength, CellValue aiTeam);
+
+        void move(long id, int cell);
+
+        /**
+         * The game's last move was taken back.
+         */
+        default void undo(long id) {
+        }
+    }
+
+    private final Path file;
+
+    public JournalReader(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @return the file offset just past the last complete record
+     * @throws IOException if the file can't be read, or is not a journal
+     */
+    public long read(Visitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            buffer.flip();
+
+            if (!fill(channel, buffer, MoveJournal.FILE_HEADER_SIZE)) {
+                throw new IOException(file + " is not a move journal.");
+            }
+            int magic = buffer.getInt();
+            if (magic != MoveJournal.MAGIC && magic != MoveJournal.MAGIC_V1) {
+                throw new IOException(file + " is not a move journal.");
+            }
+
+            long offset = MoveJournal.FILE_HEADER_SIZE;
+            long game = MoveJournal.NO_GAME;
+            long[] slots = new long[MoveJournal.SLOTS]; // the newest game in each, as when written
+
+            while (fill(channel, buffer, 1)) {
+                int tag = buffer.get(buffer.position()) & 0xFF;
+                int size = MoveJournal.recordSize(tag);
+
+                if (size == 0 || !fill(channel, buffer, size)) {
+                    break;
+                }
+                buffer.get();
+
+                switch (tag) {
+                    case MoveJournal.TAG_GAME -> {
+                        game = buffer.getLong();
+                        slots[MoveJournal.slot(game)] = game;
+                        int width = buffer.get() & 0xFF, height = buffer.get() & 0xFF, winLength = buffer.get() & 0xFF;
+                        visitor.game(game, width, height, winLength, MoveJournal.teamOf(buffer.get()));
+                    }
+                    case MoveJournal.TAG_SWITCH -> game = buffer.getLong();
+                    case MoveJournal.TAG_SLOT -> game = slots[buffer.get() & 0xFF];
+                    case MoveJournal.TAG_UNDO -> {
+                        if (game == MoveJournal.NO_GAME) {
+                            return offset;
+                        }
+                        visitor.undo(game);
+                    }
+                    case MoveJournal.TAG_BIG_MOVE -> {
+                        int cell = buffer.getShort() & 0xFFFF;
+                        if (game == MoveJournal.NO_GAME) {
+                            return offset;
+                        }
+                        visitor.move(game, cell);
+                    }
+                    default -> {
+                        if (game == MoveJournal.NO_GAME) {
+                            return offset;
+                        }
+                        visitor.move(game, tag - 1);
+                    }
+                }
+
+                offset += size;
+            }
+
+            return offset;
+        }
+    }
+
+    // Makes sure at least n bytes are buffered. Returns false at the end of the file.
+    private static boolean fill(FileChannel channel, ByteBuffer buffer, int n) throws IOException {
+        if (buffer.remaining() >= n) {
+            return true;
+        }
+
+        buffer.compact();
+        while (buffer.position() < n) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+}
@@ -0,0 +1,493 @@
+package edu.touro.cs.mcon364.persistence;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel;
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.GameType;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An append-only log of every move in every game it records, in a memory-mapped file.
+ * <p>
+ * Games are recorded by attaching the journal to their models, after which each move costs one byte:
+ * the cell plus one (cells past 238 take three bytes instead). A game header records a game's ID, board
+ * and AI team. Moves belong to the game named by the most recent header or switch record, so a switch is
+ * only written when moves from different games interleave. Each game has a one-byte slot, the low byte of
+ * its ID, and a switch names the slot in two bytes, so with many games in play at once a move costs three
+ * bytes. Only a game whose slot has since gone to a newer game is switched to by its whole ID, in nine
+ * bytes. An undone move is one more byte, which takes back the game's last move on replay. Unwritten space is zero, which is never a valid record, and a
+ * record's first byte is written last, so a reader never sees half a record.
+ * <p>
+ * Writes go to the mapped pages, and how soon they reach the disk depends on the {@link Durability}.
+ * The journal may be shared by any number of games on any number of threads.
+ */
+public class MoveJournal implements AutoCloseable {
+    /**
+     * When writes are forced to disk.
+     */
+    public enum Durability {
+        /**
+         * Whenever the operating system decides. Survives the process crashing, not the machine.
+         */
+        NONE,
+        /**
+         * By a background thread, every group commit interval, so many moves share one flush.
+         */
+        GROUP_COMMIT,
+        /**
+         * Before each move returns.
+         */
+        EVERY_RECORD
+    }
+
+    public static final long DEFAULT_GROUP_COMMIT_MILLIS = 10;
+
+    // file layout
+    static final int MAGIC = 0x54544A02; // "TTJ", version 2: version 1 and slot switches
+    static final int MAGIC_V1 = 0x54544A01;
+    static final int FILE_HEADER_SIZE = Integer.BYTES;
+    static final int TAG_BIG_MOVE = 0xF0, TAG_SWITCH = 0xF1, TAG_GAME = 0xF2, TAG_UNDO = 0xF3, TAG_SLOT = 0xF4;
+    static final int SLOTS = 1 << Byte.SIZE;
+    static final int MAX_SMALL_CELL = TAG_BIG_MOVE - 2;
+    static final long NO_GAME = 0;
+
+    // The file is mapped, and grown, this much at a time.
+    private static final int CHUNK = 1 << 20;
+
+    private final FileChannel channel;
+    private final Durability durability;
+    private final ScheduledExecutorService committer;
+
+    // guarded by this
+    private MappedByteBuffer chunk;
+    private long chunkStart, end;
+    private int unforcedFrom;
+    private long currentGame, nextGameId;
+    // the newest game in each slot
+    private final long[] slotGames = new long[SLOTS];
+    private boolean closed;
+
+    /**
+     * Opens a journal, creating the file if needed. New records go after the existing ones.
+     */
+    public MoveJournal(Path file, Durability durability) throws IOException {
+        this(file, durability, DEFAULT_GROUP_COMMIT_MILLIS);
+    }
+
+    public MoveJournal(Path file, Durability durability, long groupCommitMillis) throws IOException {
+        this.durability = durability;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(MAGIC).flip();
+            channel.write(header, 0);
+            end = FILE_HEADER_SIZE;
+            nextGameId = 1;
+        } else {
+            long[] maxId = {NO_GAME};
+            end = new JournalReader(file).read(new JournalReader.Visitor() {
+                @Override
+                public void game(long id, int width, int height, int winLength, CellValue aiTeam) {
+                    maxId[0] = Math.max(maxId[0], id);
+                    slotGames[slot(id)] = id;
+                }
+
+                @Override
+                public void move(long id, int cell) {
+                }
+            });
+            nextGameId = maxId[0] + 1;
+
+            // Version 2 only adds records, so an older journal carries on as a new one.
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(MAGIC).flip();
+            channel.write(header, 0);
+        }
+
+        // The first record after reopening always names its game.
+        currentGame = NO_GAME;
+        map(end);
+
+        // A crash can leave part of a record past the end. Clear it, so it can't be mistaken for a
+        // record once new ones are written in front of it.
+        for (int i = 0; i < chunk.capacity(); i++) {
+            chunk.put(i, (byte) 0);
+        }
+
+        if (durability == Durability.GROUP_COMMIT) {
+            committer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "journal-commit");
+                t.setDaemon(true);
+                return t;
+            });
+            committer.scheduleWithFixedDelay(this::commit, groupCommitMillis, groupCommitMillis, TimeUnit.MILLISECONDS);
+        } else {
+            committer = null;
+        }
+    }
+
+    // recording
+    /**
+     * Starts recording a game: writes its header, and any stones already on the board, and attaches the
+     * journal to the model so every later move is written too. {@link TicTacToeModel#newGame()} starts a
+     * new game in the journal, with a new ID.
+     *
+     * @return the game's ID in the journal
+     */
+    public long record(TicTacToeModel model) {
+        Recorder recorder = new Recorder(writeHeader(model));
+        model.addMoveListener(recorder);
+        return recorder.id;
+    }
+
+    /**
+     * Continues recording a game recovered from this journal, under its old ID.
+     */
+    public void resume(long id, TicTacToeModel model) {
+        model.addMoveListener(new Recorder(id));
+    }
+
+    private long writeHeader(TicTacToeModel model) {
+        if (model.getWidth() > 0xFF || model.getHeight() > 0xFF) {
+            throw new IllegalArgumentException("Boards bigger than 255x255 can't be journaled.");
+        }
+
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("The journal is closed.");
+            }
+
+            long id = nextGameId++;
+
+            ByteBuffer record = reserve(13);
+            int at = record.position();
+            record.putLong(at + 1, id)
+                    .put(at + 9, (byte) model.getWidth())
+                    .put(at + 10, (byte) model.getHeight())
+                    .put(at + 11, (byte) model.getWinLength())
+                    .put(at + 12, teamCode(model.getAiTeam()));
+            publish(record, TAG_GAME, 13);
+            currentGame = id;
+            slotGames[slot(id)] = id;
+
+            // Stones already on the board. The model knows the order of the moves played since it was started
+            // or restored; any stones from before that go first, alternating X and O the way they must have
+            // been played.
+            int[] moves = model.getMoves();
+            boolean[] played = new boolean[model.getWidth() * model.getHeight()];
+            for (int cell : moves) {
+                played[cell] = true;
+            }
+
+            List<Integer> xs = new ArrayList<>(), os = new ArrayList<>();
+            for (int x = 0; x < model.getWidth(); x++) {
+                for (int y = 0; y < model.getHeight(); y++) {
+                    CellValue v = model.getSpace(x, y);
+                    int cell = x * model.getHeight() + y;
+                    if (v != CellValue.NONE && !played[cell]) {
+                        (v == CellValue.X ? xs : os).add(cell);
+                    }
+                }
+            }
+            for (int i = 0; i < xs.size() + os.size(); i++) {
+                writeMove(id, (i % 2 == 0 ? xs : os).get(i / 2));
+            }
+            for (int cell : moves) {
+                writeMove(id, cell);
+            }
+
+            return id;
+        }
+    }
+
+    private synchronized void writeMove(long game, int cell) {
+        switchTo(game);
+
+        if (cell <= MAX_SMALL_CELL) {
+            publish(reserve(1), cell + 1, 1);
+        } else {
+            ByteBuffer record = reserve(3);
+            record.putShort(record.position() + 1, (short) cell);
+            publish(record, TAG_BIG_MOVE, 3);
+        }
+
+        if (durability == Durability.EVERY_RECORD) {
+            forceChunk();
+        }
+    }
+
+    private synchronized void writeUndo(long game) {
+        switchTo(game);
+        publish(reserve(1), TAG_UNDO, 1);
+
+        if (durability == Durability.EVERY_RECORD) {
+            forceChunk();
+        }
+    }
+
+    // Makes the next record belong to this game.
+    private void switchTo(long game) {
+        if (closed) {
+            throw new IllegalStateException("The journal is closed.");
+        }
+
+        if (game == currentGame) {
+            return;
+        }
+
+        if (slotGames[slot(game)] == game) {
+            ByteBuffer record = reserve(2);
+            record.put(record.position() + 1, (byte) game);
+            publish(record, TAG_SLOT, 2);
+        } else {
+            ByteBuffer record = reserve(9);
+            record.putLong(record.position() + 1, game);
+            publish(record, TAG_SWITCH, 9);
+        }
+        currentGame = game;
+    }
+
+    private class Recorder implements TicTacToeModel.MoveListener {
+        private long id;
+
+        Recorder(long id) {
+            this.id = id;
+        }
+
+        @Override
+        public void moveMade(TicTacToeModel model, MoveResult move) {
+            writeMove(id, move.moveX * model.getHeight() + move.moveY);
+        }
+
+        @Override
+        public void gameReset(TicTacToeModel model) {
+            id = writeHeader(model);
+        }
+
+        @Override
+        public void moveUndone(TicTacToeModel model, int x, int y) {
+            writeUndo(id);
+        }
+    }
+
+    // Returns the chunk, positioned where a record of this size goes.
+    private ByteBuffer reserve(int size) {
+        if (end + size > chunkStart + chunk.capacity()) {
+            if (durability != Durability.NONE) {
+                forceChunk();
+            }
+            map(end);
+        }
+
+        return chunk.position((int) (end - chunkStart));
+    }
+
+    // The tag goes in last: until it is there, the record reads as unwritten space.
+    private void publish(ByteBuffer record, int tag, int size) {
+        record.put(record.position(), (byte) tag);
+        end += size;
+    }
+
+    private void map(long from) {
+        try {
+            chunk = channel.map(FileChannel.MapMode.READ_WRITE, from, CHUNK);
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't grow the journal.", e);
+        }
+        chunkStart = from;
+        unforcedFrom = 0;
+    }
+
+    // durability
+    /**
+     * Forces everything written so far to disk.
+     */
+    public void commit() {
+        MappedByteBuffer toForce;
+        int from, to;
+
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            toForce = chunk;
+            from = unforcedFrom;
+            to = (int) (end - chunkStart);
+        }
+
+        // Outside the lock, so moves can keep being written while the disk catches up. The chunk is
+        // never unmapped while we hold it. Until the force is done, the range still counts as unforced, so
+        // a move written meanwhile with EVERY_RECORD forces it again rather than returning early.
+        if (to > from) {
+            toForce.force(from, to - from);
+
+            synchronized (this) {
+                if (chunk == toForce && unforcedFrom < to) {
+                    unforcedFrom = to;
+                }
+            }
+        }
+    }
+
+    private void forceChunk() {
+        int to = (int) (end - chunkStart);
+        if (to > unforcedFrom) {
+            chunk.force(unforcedFrom, to - unforcedFrom);
+            unforcedFrom = to;
+        }
+    }
+
+    public synchronized long size() {
+        return end;
+    }
+
+    // recovery
+    /**
+     * Rebuilds every game in a journal by replaying its moves into new models. Games against the computer
+     * get a new default AI, which picks up the position from the board.
+     *
+     * @return the games in the order they were started
+     */
+    public static List<RecoveredGame> recover(Path file) throws IOException {
+        Map<Long, Replay> games = new LinkedHashMap<>();
+
+        new JournalReader(file).read(new JournalReader.Visitor() {
+            @Override
+            public void game(long id, int width, int height, int winLength, CellValue aiTeam) {
+                games.put(id, new Replay(new TicTacToeModel(width, height, winLength), aiTeam));
+            }
+
+            @Override
+            public void move(long id, int cell) {
+                Replay replay = games.get(id);
+                if (replay == null) {
+                    return; // its header was before a corrupt stretch that was cut off
+                }
+
+                int height = replay.model.getHeight();
+                replay.state = replay.model.makeMove(new Point(cell / height, cell % height)).resultingState;
+                replay.moves++;
+            }
+
+            @Override
+            public void undo(long id) {
+                Replay replay = games.get(id);
+                if (replay == null || !replay.model.canUndo()) {
+                    return;
+                }
+
+                replay.model.undoMove();
+                replay.state = GameState.CONTINUE;
+                replay.moves--;
+            }
+        });
+
+        List<RecoveredGame> recovered = new ArrayList<>(games.size());
+        for (Map.Entry<Long, Replay> e : games.entrySet()) {
+            Replay r = e.getValue();
+            if (r.aiTeam != CellValue.NONE) {
+                r.model.startGame(r.aiTeam, TicTacToeModel.defaultAI(r.model.isClassic()));
+            }
+            recovered.add(new RecoveredGame(e.getKey(), r.model, r.state, r.moves));
+        }
+
+        return recovered;
+    }
+
+    private static class Replay {
+        final TicTacToeModel model;
+        final CellValue aiTeam;
+        GameState state = GameState.CONTINUE;
+        int moves;
+
+        Replay(TicTacToeModel model, CellValue aiTeam) {
+            this.model = model;
+            this.aiTeam = aiTeam;
+            model.startGame(GameType.HUMAN);
+        }
+    }
+
+    // format helpers
+    // The size of the record starting with this tag, or 0 if it doesn't start a record.
+    static int recordSize(int tag) {
+        if (tag == 0) {
+            return 0;
+        }
+        if (tag <= MAX_SMALL_CELL + 1) {
+            return 1;
+        }
+
+        return switch (tag) {
+            case TAG_BIG_MOVE -> 3;
+            case TAG_SWITCH -> 9;
+            case TAG_GAME -> 13;
+            case TAG_UNDO -> 1;
+            case TAG_SLOT -> 2;
+            default -> 0;
+        };
+    }
+
+    static int slot(long game) {
+        return (int) game & SLOTS - 1;
+    }
+
+    private static byte teamCode(CellValue team) {
+        return (byte) (team == null || team == CellValue.NONE ? 0 : team == CellValue.X ? 1 : 2);
+    }
+
+    static CellValue teamOf(byte code) {
+        return switch (code) {
+            case 1 -> CellValue.X;
+            case 2 -> CellValue.O;
+            default -> CellValue.NONE;
+        };
+    }
+
+    // built-in
+    /**
+     * Forces the journal to disk and, where the platform allows, trims the unused space at the end of the
+     * file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (committer != null) {
+            committer.shutdownNow();
+        }
+
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+
+            forceChunk();
+            closed = true;
+            chunk = null;
+        }
+
+        try {
+            try {
+                channel.truncate(end);
+            } catch (IOException ignored) {
+                // Some platforms won't shrink a file while it is still mapped, and the last chunk is
+                // only unmapped once collected. The zeros left over read as the end of the journal.
+            }
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package edu.touro.cs.mcon364.persistence;
+
+/**
+ * How the archived games through one position ended. Positions that are the same up to rotation or
+ * reflection are counted together.
+ */
+public class PositionStats {
+    public final int canonicalKey;
+    public final long xWins, oWins, draws, unfinished;
+    final long postingsStart;
+
+    PositionStats(int canonicalKey, long xWins, long oWins, long draws, long unfinished, long postingsStart) {
+        this.canonicalKey = canonicalKey;
+        this.xWins = xWins;
+        this.oWins = oWins;
+        this.draws = draws;
+        this.unfinished = unfinished;
+        this.postingsStart = postingsStart;
+    }
+
+    public long getGames() {
+        return xWins + oWins + draws + unfinished;
+    }
+}
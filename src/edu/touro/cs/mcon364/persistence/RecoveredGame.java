@@ -0,0 +1,21 @@
+package edu.touro.cs.mcon364.persistence;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+/**
+ * A game rebuilt from a {@link MoveJournal}.
+ */
+public class RecoveredGame {
+    public final long id;
+    public final TicTacToeModel model;
+    public final GameState state;
+    public final int moves;
+
+    public RecoveredGame(long id, TicTacToeModel model, GameState state, int moves) {
+        this.id = id;
+        this.model = model;
+        this.state = state;
+        this.moves = moves;
+    }
+}
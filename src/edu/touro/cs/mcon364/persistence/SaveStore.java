@@ -0,0 +1,195 @@
+package edu.touro.cs.mcon364.persistence;
+
+import edu.touro.cs.mcon364.jfr.RestoreEvent;
+import edu.touro.cs.mcon364.jfr.SaveEvent;
+import edu.touro.cs.mcon364.model.GameCodec;
+import edu.touro.cs.mcon364.model.TicTacToeModel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves one game to a file in the background.
+ * <p>
+ * Callers snapshot the model with {@link GameCodec} on their own thread, which takes microseconds, and the
+ * file is written on the store's writer thread. A write goes to a temporary file, is forced to disk, and
+ * is then renamed over the save file in one atomic step, so a crash leaves either the old save or the new
+ * one, never half of one. If more saves arrive while a write is queued, only the newest is written, so
+ * saving after every move costs one fsync per batch rather than one per move.
+ */
+public class SaveStore implements AutoCloseable {
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    private final Path file, temp;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "save-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // The snapshot waiting to be written, and the future shared by every save it replaced.
+    private final Object lock = new Object();
+    private byte[] pending;
+    private CompletableFuture<Void> pendingDone;
+
+    public SaveStore(Path file) {
+        this.file = file.toAbsolutePath();
+        temp = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Snapshots the model and saves it in the background. Must be called on the thread that owns the model.
+     *
+     * @return completes once the snapshot, or a newer one, is safely on disk
+     */
+    public CompletableFuture<Void> save(TicTacToeModel model) {
+        return save(GameCodec.encode(model));
+    }
+
+    public CompletableFuture<Void> save(byte[] snapshot) {
+        synchronized (lock) {
+            if (pending != null) {
+                pending = snapshot; // the queued write hasn't started, so it takes this one instead
+                return pendingDone;
+            }
+
+            pending = snapshot;
+            pendingDone = new CompletableFuture<>();
+            CompletableFuture<Void> done = pendingDone;
+            try {
+                writer.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                pending = null;
+                pendingDone = null;
+                done.completeExceptionally(new IllegalStateException("The save store is closed.", e));
+            }
+            return done;
+        }
+    }
+
+    /**
+     * Reads the save file in the background, after any saves already queued.
+     *
+     * @return completes with the saved game, or nothing if there is no save file. Fails if the file can't
+     * be read, is not a valid save, or the store is closed.
+     */
+    public CompletableFuture<Optional<TicTacToeModel>> load() {
+        try {
+            return CompletableFuture.supplyAsync(this::read, writer);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new IllegalStateException("The save store is closed.", e));
+        }
+    }
+
+    // reading and writing
+    private Optional<TicTacToeModel> read() {
+        RestoreEvent event = new RestoreEvent();
+        event.begin();
+        event.file = file.toString();
+
+        try {
+            if (!Files.exists(file)) {
+                event.succeeded = true;
+                return Optional.empty();
+            }
+
+            event.found = true;
+            byte[] saved = Files.readAllBytes(file);
+            event.bytes = saved.length;
+            Optional<TicTacToeModel> model = Optional.of(GameCodec.decode(ByteBuffer.wrap(saved)));
+            event.succeeded = true;
+            return model;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            event.commit();
+        }
+    }
+
+    private void flush() {
+        byte[] snapshot;
+        CompletableFuture<Void> done;
+
+        synchronized (lock) {
+            snapshot = pending;
+            done = pendingDone;
+            pending = null;
+            pendingDone = null;
+        }
+
+        SaveEvent event = new SaveEvent();
+        event.begin();
+        event.file = file.toString();
+        event.bytes = snapshot.length;
+
+        Exception failure = null;
+        try {
+            writeAtomically(snapshot);
+            event.succeeded = true;
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+        }
+
+        event.commit(); // before the caller hears, so it is in any recording the caller then stops
+        if (failure == null) {
+            done.complete(null);
+        } else {
+            done.completeExceptionally(failure);
+        }
+    }
+
+    private void writeAtomically(byte[] snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory();
+    }
+
+    // Makes the rename itself durable. Not every platform can open a directory, and those that can't
+    // don't need it.
+    private void forceDirectory() {
+        Path dir = file.getParent();
+        if (dir == null) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+
+    // built-in
+    /**
+     * Waits for queued saves to finish, then stops the writer thread.
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
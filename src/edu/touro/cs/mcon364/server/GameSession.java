@@ -0,0 +1,96 @@
+package edu.touro.cs.mcon364.server;
+
+import edu.touro.cs.mcon364.model.Position;
+import edu.touro.cs.mcon364.model.TicTacToeModel;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * One hosted game. The model is not thread-safe, so every task that touches it runs through
+ * {@link #enqueue}, which chains it onto the previous task: tasks for a session run one at a time, in
+ * submission order, without holding a lock while they wait. Sessions never share anything, so tasks for
+ * different games run fully in parallel.
+ */
+public class GameSession {
+    private final long id;
+    private final TicTacToeModel model;
+    private final AtomicReference<CompletableFuture<?>> tail =
+            new AtomicReference<>(CompletableFuture.completedFuture(null));
+    private final CompletableFuture<MoveResult> opening = new CompletableFuture<>();
+
+    private volatile GameState state = GameState.CONTINUE;
+    private volatile long lastAccess = System.nanoTime();
+
+    GameSession(long id, TicTacToeModel model) {
+        this.id = id;
+        this.model = model;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public GameState getState() {
+        return state;
+    }
+
+    /**
+     * @return when a task was last submitted for this session, in {@link System#nanoTime()} terms
+     */
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    /**
+     * @return completes with the computer's first move if it plays X, or with null otherwise
+     */
+    public CompletableFuture<MoveResult> getOpeningMove() {
+        return opening;
+    }
+
+    /**
+     * Unlike everything else about the game, the position needs no task: spectators may read it from any
+     * thread, while a move is being played.
+     *
+     * @return the current position, see {@link Position}
+     * @throws UnsupportedOperationException if the board is too big for one
+     */
+    public long getPosition() {
+        return model.getPosition();
+    }
+
+    // Only called from tasks, which are serialized.
+    TicTacToeModel model() {
+        return model;
+    }
+
+    void setState(GameState state) {
+        this.state = state;
+    }
+
+    void completeOpening(MoveResult move, Throwable failure) {
+        if (failure != null) {
+            opening.completeExceptionally(failure);
+        } else {
+            opening.complete(move);
+        }
+    }
+
+    <T> CompletableFuture<T> enqueue(Supplier<T> task, Executor executor) {
+        lastAccess = System.nanoTime();
+
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        CompletableFuture<?> previous = tail.getAndSet(done);
+
+        // Runs once the previous task has finished, whether or not it failed.
+        CompletableFuture<T> result = previous.handleAsync((r, e) -> task.get(), executor);
+        result.whenComplete((r, e) -> done.complete(null));
+
+        return result;
+    }
+}
@@ -0,0 +1,225 @@
+package edu.touro.cs.mcon364.server;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel;
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.GameType;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+import java.awt.*;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Hosts many games at once without a GUI. Games are created, played and ended by ID.
+ * <p>
+ * Sessions live in a {@link ConcurrentHashMap}, so looking one up never blocks. Each session runs its
+ * tasks in order on the shared executor (see {@link GameSession}), so moves in different games never wait
+ * on each other. Moves and AI replies run on virtual threads when the JVM has them, and on a pool with one
+ * thread per core otherwise. Sessions nobody has touched for the idle timeout are removed in the background.
+ */
+public class GameSessionManager implements AutoCloseable {
+    public static final long DEFAULT_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final ConcurrentHashMap<Long, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final ScheduledExecutorService sweeper;
+    private final long idleNanos;
+
+    public GameSessionManager() {
+        this(DEFAULT_IDLE_MILLIS);
+    }
+
+    /**
+     * @param idleMillis how long a session may go without a move or query before it is removed
+     */
+    public GameSessionManager(long idleMillis) {
+        this(newTaskExecutor(), true, idleMillis);
+    }
+
+    /**
+     * @param executor runs moves and AI replies. It is not shut down by {@link #close()}.
+     */
+    public GameSessionManager(ExecutorService executor, long idleMillis) {
+        this(executor, false, idleMillis);
+    }
+
+    private GameSessionManager(ExecutorService executor, boolean ownsExecutor, long idleMillis) {
+        if (idleMillis <= 0) {
+            throw new IllegalArgumentException("The idle timeout must be positive.");
+        }
+
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1, idleMillis / 2);
+        sweeper.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // One virtual thread per task on JDK 21+. Looked up reflectively so the code still runs on older JDKs.
+    private static ExecutorService newTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+                Thread t = new Thread(r, "session-worker");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    // sessions
+    /**
+     * Creates a game on a new model.
+     *
+     * @see TicTacToeModel#startGame(GameType)
+     */
+    public GameSession createGame(int width, int height, int winLength, GameType type) {
+        TicTacToeModel model = new TicTacToeModel(width, height, winLength);
+        model.startGame(type);
+        return createGame(model);
+    }
+
+    /**
+     * Hosts a game on a model that has already been started. The manager owns the model from now on: it
+     * must not be used anywhere else. If the computer is to move, its move is queued straight away, and
+     * {@link GameSession#getOpeningMove()} completes with it.
+     */
+    public GameSession createGame(TicTacToeModel model) {
+        GameSession session = new GameSession(nextId.getAndIncrement(), model);
+        sessions.put(session.getId(), session);
+
+        if (isComputerTurn(model)) {
+            session.enqueue(() -> applyAiMove(session), executor).whenComplete(session::completeOpening);
+        } else {
+            session.completeOpening(null, null);
+        }
+
+        return session;
+    }
+
+    public Optional<GameSession> find(long id) {
+        return Optional.ofNullable(sessions.get(id));
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Removes a game. Tasks already queued for it still run.
+     *
+     * @return whether there was a game with this ID
+     */
+    public boolean endGame(long id) {
+        return sessions.remove(id) != null;
+    }
+
+    /**
+     * Removes every session that has been idle for longer than the idle timeout. Runs periodically on its
+     * own, but can also be called directly.
+     *
+     * @return the number of sessions removed
+     */
+    public int evictIdle() {
+        long now = System.nanoTime();
+        int evicted = 0;
+
+        for (GameSession session : sessions.values()) {
+            if (now - session.getLastAccess() > idleNanos && sessions.remove(session.getId(), session)) {
+                evicted++;
+            }
+        }
+
+        return evicted;
+    }
+
+    // gameplay
+    /**
+     * Queues a move for the player whose turn it is. In a game against the computer, the reply is made in
+     * the same task.
+     *
+     * @return completes with the result, or fails with {@link NoSuchElementException} for an unknown game,
+     * {@link IllegalArgumentException} for an illegal move, or {@link IllegalStateException} if the game is
+     * over or it is the computer's turn
+     */
+    public CompletableFuture<TurnResult> submitMove(long id, int x, int y) {
+        GameSession session = sessions.get(id);
+        if (session == null) {
+            return CompletableFuture.failedFuture(new NoSuchElementException("No game with ID " + id + "."));
+        }
+
+        return session.enqueue(() -> {
+            TicTacToeModel model = session.model();
+            requireOngoing(session);
+            if (isComputerTurn(model)) {
+                throw new IllegalStateException("It is the computer's turn.");
+            }
+
+            MoveResult player = model.makeMove(new Point(x, y));
+            session.setState(player.resultingState);
+
+            MoveResult reply = null;
+            if (player.resultingState == GameState.CONTINUE && isComputerTurn(model)) {
+                reply = applyAiMove(session);
+            }
+
+            return new TurnResult(id, player, reply);
+        }, executor);
+    }
+
+    /**
+     * Reads from a game's model, in order with its moves.
+     */
+    public <T> CompletableFuture<T> query(long id, Function<? super TicTacToeModel, T> reader) {
+        GameSession session = sessions.get(id);
+        if (session == null) {
+            return CompletableFuture.failedFuture(new NoSuchElementException("No game with ID " + id + "."));
+        }
+
+        return session.enqueue(() -> reader.apply(session.model()), executor);
+    }
+
+    private static MoveResult applyAiMove(GameSession session) {
+        requireOngoing(session);
+
+        MoveResult reply = session.model().aiMove();
+        session.setState(reply.resultingState);
+        return reply;
+    }
+
+    private static void requireOngoing(GameSession session) {
+        if (session.getState() != GameState.CONTINUE) {
+            throw new IllegalStateException("Game " + session.getId() + " is over.");
+        }
+    }
+
+    private static boolean isComputerTurn(TicTacToeModel model) {
+        CellValue aiTeam = model.getAiTeam();
+        return aiTeam != null && aiTeam != CellValue.NONE && model.previousPlayer().other() == aiTeam;
+    }
+
+    // built-in
+    /**
+     * Stops the sweeper, and the executor if this manager created it. Queued tasks still run.
+     */
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+}
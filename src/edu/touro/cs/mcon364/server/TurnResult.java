@@ -0,0 +1,22 @@
+package edu.touro.cs.mcon364.server;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult;
+
+/**
+ * What happened when a player moved: their own move and, in a game against the computer, the reply.
+ */
+public class TurnResult {
+    public final long gameId;
+    public final MoveResult playerMove;
+    public final MoveResult aiMove; // null in human games, or when the player's move ended the game
+
+    public TurnResult(long gameId, MoveResult playerMove, MoveResult aiMove) {
+        this.gameId = gameId;
+        this.playerMove = playerMove;
+        this.aiMove = aiMove;
+    }
+
+    public MoveResult.GameState finalState() {
+        return (aiMove != null ? aiMove : playerMove).resultingState;
+    }
+}
@@ -0,0 +1,81 @@
+package edu.touro.cs.mcon364.tools;
+
+import edu.touro.cs.mcon364.model.HardTicTacToeAI;
+import edu.touro.cs.mcon364.model.RandomTicTacToeAI;
+import edu.touro.cs.mcon364.persistence.ArchivedGame;
+import edu.touro.cs.mcon364.persistence.GameArchiveIndex;
+import edu.touro.cs.mcon364.persistence.GameArchiveReader;
+import edu.touro.cs.mcon364.persistence.GameArchiveWriter;
+import edu.touro.cs.mcon364.persistence.PositionStats;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Archives a tournament's games as they are played, indexes the archive, and looks up a few positions.
+ * <p>
+ * Usage: {@code ArchiveBuildReport [games threads directory]}, default 1000000, every core, and a new
+ * temporary directory.
+ */
+public class ArchiveBuildReport {
+    // X in a corner, O in the center, X in the opposite corner; then the same thing rotated.
+    private static final int[][] POSITIONS = {
+            {0, 0},
+            {0b000_000_001, 0},
+            {0b100_000_001, 0b000_010_000},
+            {0b001_000_100, 0b000_010_000},
+    };
+
+    public static void main(String[] args) throws IOException {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Path directory = args.length > 2 ? Path.of(args[2]) : Files.createTempDirectory("archive");
+        Path archive = directory.resolve("games.tta"), index = directory.resolve("games.tti");
+
+        Tournament tournament = new Tournament(HardTicTacToeAI::new, RandomTicTacToeAI::new);
+        long start = System.nanoTime();
+        try (GameArchiveWriter writer = new GameArchiveWriter(archive)) {
+            tournament.setGameListener((cells, moves, result) -> {
+                try {
+                    writer.append(cells, moves, result);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            tournament.play(games, threads);
+        }
+        double playMs = (System.nanoTime() - start) / 1e6;
+
+        start = System.nanoTime();
+        GameArchiveIndex.build(archive, index, threads);
+        double indexMs = (System.nanoTime() - start) / 1e6;
+
+        System.out.printf("%d games, %d threads, in %s%n", games, threads, directory);
+        System.out.printf("%-8s %14s %12s %10s%n", "file", "bytes", "bytes/game", "ms");
+        System.out.printf("%-8s %14d %12.2f %10.1f%n", "archive", Files.size(archive),
+                (double) Files.size(archive) / games, playMs);
+        System.out.printf("%-8s %14d %12.2f %10.1f%n", "index", Files.size(index),
+                (double) Files.size(index) / games, indexMs);
+
+        try (GameArchiveIndex lookup = new GameArchiveIndex(index);
+             GameArchiveReader reader = new GameArchiveReader(archive)) {
+            System.out.printf("%n%12s %12s %12s %12s %12s %10s%n", "x", "o", "games", "X wins", "O wins", "us");
+            for (int[] position : POSITIONS) {
+                long lookupStart = System.nanoTime();
+                PositionStats stats = lookup.lookup(position[0], position[1]);
+                long[] sample = lookup.gameOffsets(stats, 0, 1);
+                double us = (System.nanoTime() - lookupStart) / 1e3;
+
+                System.out.printf("%12s %12s %12d %12d %12d %10.1f%n", Integer.toBinaryString(position[0]),
+                        Integer.toBinaryString(position[1]), stats.getGames(), stats.xWins, stats.oWins, us);
+                if (sample.length > 0) {
+                    ArchivedGame game = reader.readGame(sample[0]);
+                    System.out.printf("    e.g. the game at %d: %d moves, %s%n",
+                            game.offset, game.getMoveCount(), game.result);
+                }
+            }
+        }
+    }
+}
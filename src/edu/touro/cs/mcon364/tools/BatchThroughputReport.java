@@ -0,0 +1,116 @@
+package edu.touro.cs.mcon364.tools;
+
+import edu.touro.cs.mcon364.model.BatchSimulator;
+import edu.touro.cs.mcon364.model.TicTacToeModel;
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+import java.awt.*;
+import java.util.SplittableRandom;
+
+/**
+ * Compares random 3x3 games per second: one {@link TicTacToeModel} per game, against
+ * {@link BatchSimulator} with its scalar kernel and, if it loads, its vector kernel. Every way plays the
+ * same number of games in lockstep, choosing moves the same way.
+ * <p>
+ * Usage: {@code BatchThroughputReport [games rounds]}, default 4096 games, 200 rounds. For the vector row,
+ * put the {@code simd} classes on the class path and run with {@code --add-modules jdk.incubator.vector}.
+ */
+public class BatchThroughputReport {
+    private static final int WARMUP_ROUNDS = 50;
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        System.out.printf("%d games a round, %d rounds%n", games, rounds);
+        System.out.printf("%-16s %14s %10s%n", "simulator", "games/s", "speedup");
+
+        double baseline = report("model objects", rounds, modelRounds(games));
+        print("scalar batch", report(rounds, batchRounds(games, BatchSimulator.scalarKernel())), baseline);
+        if (BatchSimulator.bestKernel() != BatchSimulator.scalarKernel()) {
+            BatchSimulator.Kernel vector = BatchSimulator.bestKernel();
+            print(vector.name(), report(rounds, batchRounds(games, vector)), baseline);
+        } else {
+            System.out.println("(no vector kernel: run with --add-modules jdk.incubator.vector and simd on the class path)");
+        }
+    }
+
+    private static double report(String name, int rounds, Round round) {
+        double gamesPerSecond = report(rounds, round);
+        print(name, gamesPerSecond, gamesPerSecond);
+        return gamesPerSecond;
+    }
+
+    private static double report(int rounds, Round round) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round.play();
+        }
+
+        long start = System.nanoTime(), played = 0;
+        for (int i = 0; i < rounds; i++) {
+            played += round.play();
+        }
+        return played * 1e9 / (System.nanoTime() - start);
+    }
+
+    private static void print(String name, double gamesPerSecond, double baseline) {
+        System.out.printf("%-16s %14.0f %10.1f%n", name, gamesPerSecond, gamesPerSecond / baseline);
+    }
+
+    private interface Round {
+        /**
+         * @return the number of games played
+         */
+        int play();
+    }
+
+    private static Round batchRounds(int games, BatchSimulator.Kernel kernel) {
+        BatchSimulator batch = new BatchSimulator(games, kernel);
+        SplittableRandom random = new SplittableRandom(1);
+
+        return () -> {
+            batch.reset();
+            batch.playOutRandomly(random);
+            return games;
+        };
+    }
+
+    private static Round modelRounds(int games) {
+        TicTacToeModel[] models = new TicTacToeModel[games];
+        for (int i = 0; i < games; i++) {
+            models[i] = new TicTacToeModel();
+            models[i].startGame(TicTacToeModel.GameType.HUMAN);
+        }
+        boolean[] over = new boolean[games];
+        SplittableRandom random = new SplittableRandom(1);
+
+        return () -> {
+            for (int i = 0; i < games; i++) {
+                models[i].newGame();
+                over[i] = false;
+            }
+
+            for (int live = games; live > 0; ) {
+                live = 0;
+                for (int i = 0; i < games; i++) {
+                    if (over[i]) {
+                        continue;
+                    }
+
+                    int empty = models[i].getMask(CellValue.NONE);
+                    for (int skip = random.nextInt(Integer.bitCount(empty)); skip > 0; skip--) {
+                        empty &= empty - 1;
+                    }
+                    int cell = Integer.numberOfTrailingZeros(empty);
+
+                    over[i] = models[i].makeMove(new Point(cell / 3, cell % 3)).resultingState != GameState.CONTINUE;
+                    if (!over[i]) {
+                        live++;
+                    }
+                }
+            }
+            return games;
+        };
+    }
+}
@@ -0,0 +1,403 @@
+package edu.touro.cs.mcon364.tools;
+
+import edu.touro.cs.mcon364.model.*;
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+import java.awt.*;
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Function;
+
+/**
+ * Checks an AI against every game of 3x3 tic-tac-toe, in parallel on a fork/join pool. It makes two
+ * passes:
+ * <ol>
+ *     <li>Every legal game, all {@value #GAMES} of them, through all {@value #POSITIONS} positions. The AI
+ *     is asked for its move once in each position where the game goes on, as whichever side is to move,
+ *     after being told the moves that led there through {@code submitMoveToAI}.</li>
+ *     <li>Every game the AI can end up in, playing X and then O against every possible reply. None of
+ *     them may be lost.</li>
+ * </ol>
+ * Every move is checked for legality and timed. Subtrees near the root become separate tasks; below that
+ * each task walks its subtree with make and undo on its own models. An AI that can't take back moves is
+ * set up again from scratch instead, which is slower but works.
+ * <p>
+ * Usage: {@code GameTreeVerifier [ai threads]}, where the AI is one of {@code random hard perfect search mcts}.
+ * Default: hard, every core. Exits with status 1 if the AI lost a game, made an illegal move or failed.
+ */
+public class GameTreeVerifier {
+    public static final int GAMES = 255_168, POSITIONS = 5_478;
+
+    // Tasks are split off for the moves this close to the root, and walked in one piece below.
+    private static final int SPLIT_DEPTH = 2;
+
+    private final Function<TicTacToeModel, ? extends TicTacToeAI> factory;
+    private final AtomicIntegerArray seen = new AtomicIntegerArray((1 << 2 * Bitboard.CELLS) / Integer.SIZE);
+
+    public GameTreeVerifier(Function<TicTacToeModel, ? extends TicTacToeAI> factory) {
+        this.factory = factory;
+    }
+
+    public static void main(String[] args) {
+        String name = args.length > 0 ? args[0] : "hard";
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("Verifying %s against every game, %d threads%n", name, threads);
+        Result result = new GameTreeVerifier(Tournament.aiNamed(name)).verify(threads);
+        System.out.print(result);
+        System.exit(result.passed() ? 0 : 1);
+    }
+
+    /**
+     * Can only be called once per verifier.
+     */
+    public Result verify(int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+
+        try {
+            Tally total = pool.invoke(new PositionTask(new int[0]));
+            total.merge(pool.invoke(new GameTask(CellValue.X, new int[0])));
+            total.merge(pool.invoke(new GameTask(CellValue.O, new int[0])));
+            return new Result(total, System.nanoTime() - start);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // True the first time a position is seen, by any thread.
+    private boolean claim(int key) {
+        int bit = 1 << key;
+        while (true) {
+            int word = seen.get(key >>> 5);
+            if ((word & bit) != 0) {
+                return false;
+            }
+            if (seen.compareAndSet(key >>> 5, word, word | bit)) {
+                return true;
+            }
+        }
+    }
+
+    // Asks the AI for its move and checks it. Returns the cell, or -1 if the AI failed.
+    private static int ask(Seat seat, Tally tally) {
+        long start = System.nanoTime();
+        Point move;
+        try {
+            move = seat.ai.calculateMove();
+        } catch (RuntimeException e) {
+            tally.errors++;
+            tally.problem(seat.describe() + " threw " + e);
+            return -1;
+        }
+        tally.latency.record(System.nanoTime() - start);
+        tally.asked++;
+
+        if (move == null || move.x < 0 || move.x >= Bitboard.SIZE || move.y < 0 || move.y >= Bitboard.SIZE
+                || seat.model.getSpace(move.x, move.y) != CellValue.NONE) {
+            tally.illegalMoves++;
+            tally.problem(seat.describe() + " played " + (move == null ? "nothing" : move.x + "," + move.y));
+            return -1;
+        }
+
+        return Bitboard.index(move.x, move.y);
+    }
+
+    private static int[] with(int[] moves, int depth, int cell) {
+        int[] next = Arrays.copyOf(moves, depth + 1);
+        next[depth] = cell;
+        return next;
+    }
+
+    // One model with the AI on one side, kept in step with the walk.
+    private final class Seat {
+        final CellValue team;
+        TicTacToeModel model;
+        TicTacToeAI ai;
+        GameState state;
+
+        Seat(CellValue team, int[] moves, int depth) {
+            this.team = team;
+            replay(moves, depth);
+        }
+
+        private void replay(int[] moves, int depth) {
+            model = new TicTacToeModel();
+            model.startGame(team, m -> ai = factory.apply(m));
+            state = GameState.CONTINUE;
+            for (int i = 0; i < depth; i++) {
+                play(moves[i]);
+            }
+        }
+
+        void play(int cell) {
+            state = model.makeMove(new Point(cell / Bitboard.SIZE, cell % Bitboard.SIZE)).resultingState;
+        }
+
+        // Takes back moves[depth], leaving the first depth moves.
+        void undo(int[] moves, int depth) {
+            try {
+                model.undoMove();
+                state = GameState.CONTINUE;
+            } catch (UnsupportedOperationException e) {
+                replay(moves, depth);
+            }
+        }
+
+        boolean aiToMove() {
+            return model.previousPlayer().other() == team;
+        }
+
+        String describe() {
+            return "As " + team + " in " + Position.toString(model.getPosition()).replace('\n', '/');
+        }
+    }
+
+    // Pass 1: every game, and the AI's move in every position.
+    private final class PositionTask extends RecursiveTask<Tally> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int[] prefix;
+        private Tally tally;
+        private Seat x, o;
+
+        PositionTask(int[] prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        protected Tally compute() {
+            tally = new Tally();
+            int[] moves = Arrays.copyOf(prefix, Bitboard.CELLS);
+            x = new Seat(CellValue.X, moves, prefix.length);
+            o = new Seat(CellValue.O, moves, prefix.length);
+
+            if (!visit() || prefix.length >= SPLIT_DEPTH) {
+                walk(moves, prefix.length);
+                return tally;
+            }
+
+            List<PositionTask> children = new ArrayList<>();
+            for (int cell = 0; cell < Bitboard.CELLS; cell++) {
+                if (x.model.getSpace(cell / Bitboard.SIZE, cell % Bitboard.SIZE) == CellValue.NONE) {
+                    children.add(new PositionTask(with(prefix, prefix.length, cell)));
+                }
+            }
+            for (PositionTask child : invokeAll(children)) {
+                tally.merge(child.join());
+            }
+            return tally;
+        }
+
+        // Counts the position, and asks the AI about it the first time. Returns whether the game goes on.
+        private boolean visit() {
+            if (claim(Symmetry.key(x.model.getMask(CellValue.X), x.model.getMask(CellValue.O)))) {
+                tally.positions++;
+                if (x.state == GameState.CONTINUE) {
+                    ask(x.aiToMove() ? x : o, tally);
+                }
+            }
+
+            if (x.state != GameState.CONTINUE) {
+                tally.games++;
+                tally.outcomes[x.state.ordinal()]++;
+                return false;
+            }
+            return true;
+        }
+
+        // Everything below the current position, which visit() has already seen.
+        private void walk(int[] moves, int depth) {
+            if (x.state != GameState.CONTINUE) {
+                return;
+            }
+
+            for (int cell = 0; cell < Bitboard.CELLS; cell++) {
+                if (x.model.getSpace(cell / Bitboard.SIZE, cell % Bitboard.SIZE) != CellValue.NONE) {
+                    continue;
+                }
+
+                moves[depth] = cell;
+                x.play(cell);
+                o.play(cell);
+                if (visit()) {
+                    walk(moves, depth + 1);
+                }
+                x.undo(moves, depth);
+                o.undo(moves, depth);
+            }
+        }
+    }
+
+    // Pass 2: the AI against every reply.
+    private final class GameTask extends RecursiveTask<Tally> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final CellValue team;
+        private final int[] prefix;
+        private Tally tally;
+        private Seat seat;
+
+        GameTask(CellValue team, int[] prefix) {
+            this.team = team;
+            this.prefix = prefix;
+        }
+
+        @Override
+        protected Tally compute() {
+            tally = new Tally();
+            int[] moves = Arrays.copyOf(prefix, Bitboard.CELLS);
+            seat = new Seat(team, moves, prefix.length);
+
+            if (seat.state != GameState.CONTINUE || seat.aiToMove() || prefix.length >= SPLIT_DEPTH) {
+                walk(moves, prefix.length);
+                return tally;
+            }
+
+            List<GameTask> children = new ArrayList<>();
+            for (int cell = 0; cell < Bitboard.CELLS; cell++) {
+                if (seat.model.getSpace(cell / Bitboard.SIZE, cell % Bitboard.SIZE) == CellValue.NONE) {
+                    children.add(new GameTask(team, with(prefix, prefix.length, cell)));
+                }
+            }
+            for (GameTask child : invokeAll(children)) {
+                tally.merge(child.join());
+            }
+            return tally;
+        }
+
+        private void walk(int[] moves, int depth) {
+            if (seat.state != GameState.CONTINUE) {
+                tally.aiGames++;
+                CellValue winner = switch (seat.state) {
+                    case X_WIN -> CellValue.X;
+                    case O_WIN -> CellValue.O;
+                    default -> CellValue.NONE;
+                };
+                if (winner == team) {
+                    tally.aiWins++;
+                } else if (winner != CellValue.NONE) {
+                    tally.aiLosses++;
+                    String line = "As " + team + ", lost " + Position.toString(seat.model.getPosition()).replace('\n', '/')
+                            + " after " + Arrays.toString(Arrays.copyOf(moves, depth));
+                    tally.losses.add(line);
+                    tally.problem(line);
+                }
+                return;
+            }
+
+            if (seat.aiToMove()) {
+                int cell = ask(seat, tally);
+                if (cell >= 0) {
+                    moves[depth] = cell;
+                    seat.play(cell);
+                    walk(moves, depth + 1);
+                    seat.undo(moves, depth);
+                }
+                return;
+            }
+
+            for (int cell = 0; cell < Bitboard.CELLS; cell++) {
+                if (seat.model.getSpace(cell / Bitboard.SIZE, cell % Bitboard.SIZE) == CellValue.NONE) {
+                    moves[depth] = cell;
+                    seat.play(cell);
+                    walk(moves, depth + 1);
+                    seat.undo(moves, depth);
+                }
+            }
+        }
+    }
+
+    // results
+    private static class Tally {
+        private long games, positions, asked, illegalMoves, errors, aiGames, aiWins, aiLosses;
+        private final long[] outcomes = new long[GameState.values().length];
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final List<String> losses = new ArrayList<>();
+        private String firstProblem;
+
+        void problem(String description) {
+            if (firstProblem == null) {
+                firstProblem = description;
+            }
+        }
+
+        void merge(Tally other) {
+            games += other.games;
+            positions += other.positions;
+            asked += other.asked;
+            illegalMoves += other.illegalMoves;
+            errors += other.errors;
+            aiGames += other.aiGames;
+            aiWins += other.aiWins;
+            aiLosses += other.aiLosses;
+            for (int i = 0; i < outcomes.length; i++) {
+                outcomes[i] += other.outcomes[i];
+            }
+            latency.merge(other.latency);
+            losses.addAll(other.losses);
+            problem(other.firstProblem);
+        }
+    }
+
+    public static class Result {
+        // every game
+        public final long games, positions, xWins, oWins, draws;
+        // the AI
+        public final long movesChecked, illegalMoves, errors, aiGames, aiWins, aiDraws, aiLosses;
+        public final LatencyHistogram latency;
+        public final List<String> losses; // every lost game, with the moves that led to it, sorted
+        public final String firstProblem; // null if there were none
+        public final long elapsedNanos;
+
+        private Result(Tally t, long elapsedNanos) {
+            games = t.games;
+            positions = t.positions;
+            xWins = t.outcomes[GameState.X_WIN.ordinal()];
+            oWins = t.outcomes[GameState.O_WIN.ordinal()];
+            draws = t.outcomes[GameState.DRAW.ordinal()];
+            movesChecked = t.asked;
+            illegalMoves = t.illegalMoves;
+            errors = t.errors;
+            aiGames = t.aiGames;
+            aiWins = t.aiWins;
+            aiLosses = t.aiLosses;
+            aiDraws = t.aiGames - t.aiWins - t.aiLosses;
+            latency = t.latency;
+            t.losses.sort(null);
+            losses = Collections.unmodifiableList(t.losses);
+            firstProblem = t.firstProblem;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * @return whether the AI never lost, never made an illegal move and never failed, and the whole tree
+         * was walked
+         */
+        public boolean passed() {
+            return aiLosses == 0 && illegalMoves == 0 && errors == 0 && games == GAMES && positions == POSITIONS;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d games (%d X wins, %d O wins, %d draws) through %d positions in %.2f s%n",
+                    games, xWins, oWins, draws, positions, elapsedNanos / 1e9)
+                    + String.format("AI: %d games against every reply, %d won, %d drawn, %d lost%n", aiGames, aiWins, aiDraws, aiLosses)
+                    + String.format("%d moves checked, %d illegal, %d failed%n", movesChecked, illegalMoves, errors)
+                    + String.format("move latency (us): mean %.2f, p50 %.2f, p90 %.2f, p99 %.2f, p99.9 %.2f, max %.2f%n",
+                    latency.getMean() / 1e3, latency.getPercentile(50) / 1e3, latency.getPercentile(90) / 1e3,
+                    latency.getPercentile(99) / 1e3, latency.getPercentile(99.9) / 1e3, latency.getMax() / 1e3)
+                    + (firstProblem != null ? "first problem: " + firstProblem + System.lineSeparator() : "")
+                    + (passed() ? "PASSED" : "FAILED") + System.lineSeparator();
+        }
+    }
+}
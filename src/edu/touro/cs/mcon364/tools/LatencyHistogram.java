@@ -0,0 +1,73 @@
+package edu.touro.cs.mcon364.tools;
+
+import edu.touro.cs.mcon364.metrics.LogLinearBuckets;
+
+/**
+ * Counts latencies in log-linear buckets: exact below 64, and within about 3% above that, for any value a
+ * long can hold. Recording is a shift and an array increment, so it is cheap enough to do on every move.
+ * <p>
+ * A histogram is not thread-safe. Give each thread its own and {@link #merge} them at the end, or use
+ * {@link edu.touro.cs.mcon364.metrics.ConcurrentHistogram}.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = LogLinearBuckets.COUNT;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count, total, max;
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+
+        counts[LogLinearBuckets.bucketOf(value)]++;
+        count++;
+        total += value;
+        max = Math.max(max, value);
+    }
+
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+
+        count += other.count;
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    // getters
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the highest value in the bucket the percentile falls in, so it never underestimates
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, LogLinearBuckets.highestValueIn(i));
+            }
+        }
+
+        return max;
+    }
+}
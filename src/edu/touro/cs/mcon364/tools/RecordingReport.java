@@ -0,0 +1,244 @@
+package edu.touro.cs.mcon364.tools;
+
+import edu.touro.cs.mcon364.jfr.*;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Summarizes a Flight Recorder recording of the game: how many of each game event there were, how long each
+ * AI took to move, how long saves and restores took, and how much of the time the JVM spent paused.
+ * <p>
+ * The slowest AI moves are listed with how much of each overlapped a GC pause or a safepoint, which tells a
+ * move that was slow because the JVM stopped it from one that was slow because the AI thought that long.
+ * <p>
+ * Usage: {@code RecordingReport recording.jfr [slowest]}, listing the 10 slowest AI moves by default. Record
+ * with one of the profiles in {@code jfr/}, which turn on the GC and safepoint events this needs.
+ * <p>
+ * A safepoint runs from the start of its {@code jdk.SafepointBegin} event, when the VM starts stopping threads,
+ * to the end of its {@code jdk.SafepointEnd}, when it lets them go; the two are matched by {@code safepointId}.
+ * The begin event alone only covers reaching the safepoint, not the VM operation done there.
+ */
+public class RecordingReport {
+    private static final String GC_PAUSE = "jdk.GCPhasePause";
+    private static final String SAFEPOINT_BEGIN = "jdk.SafepointBegin", SAFEPOINT_END = "jdk.SafepointEnd";
+
+    public final Map<String, Long> eventCounts = new TreeMap<>();
+    public final Map<String, AiStats> ais = new TreeMap<>();
+    public final LatencyHistogram saves = new LatencyHistogram(), restores = new LatencyHistogram();
+    public final LatencyHistogram gcPauses = new LatencyHistogram(), safepoints = new LatencyHistogram();
+    public long failedSaves, failedRestores;
+    public long startNanos = Long.MAX_VALUE, endNanos = Long.MIN_VALUE;
+    // slowest first, once read
+    public final List<SlowMove> slowest = new ArrayList<>();
+
+    private final int keep;
+    private final PriorityQueue<SlowMove> slowQueue = new PriorityQueue<>(Comparator.comparingLong(m -> m.durationNanos));
+    // start and end of every GC pause and safepoint, in epoch nanoseconds
+    private final List<long[]> pauseIntervals = new ArrayList<>(), safepointIntervals = new ArrayList<>();
+    // by safepointId, until both halves are read; events needn't come in order
+    private final Map<Long, Long> safepointBegins = new HashMap<>(), safepointEnds = new HashMap<>();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: RecordingReport recording.jfr [slowest]");
+            System.exit(2);
+        }
+
+        int slowest = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        System.out.print(read(Path.of(args[0]), slowest));
+    }
+
+    private RecordingReport(int keep) {
+        this.keep = keep;
+    }
+
+    /**
+     * @param slowest how many of the slowest AI moves to list
+     */
+    public static RecordingReport read(Path recording, int slowest) throws IOException {
+        RecordingReport report = new RecordingReport(slowest);
+
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                report.add(file.readEvent());
+            }
+        }
+
+        report.finish();
+        return report;
+    }
+
+    // reading
+    private void add(RecordedEvent e) {
+        String name = e.getEventType().getName();
+        long start = nanos(e.getStartTime()), end = nanos(e.getEndTime());
+        startNanos = Math.min(startNanos, start);
+        endNanos = Math.max(endNanos, end);
+
+        if (name.startsWith("tictactoe.")) {
+            eventCounts.merge(name, 1L, Long::sum);
+        }
+
+        long duration = end - start;
+        switch (name) {
+            case AiMoveEvent.NAME -> {
+                RecordedClass ai = e.getClass("ai");
+                String aiName = ai == null ? "?" : simpleName(ai.getName());
+                int depth = e.getInt("depth");
+                long nodes = e.getLong("nodes");
+
+                ais.computeIfAbsent(aiName, k -> new AiStats()).add(duration, depth, nodes);
+                slowQueue.add(new SlowMove(start, end, aiName, e.getInt("x"), e.getInt("y"), depth, nodes));
+                if (slowQueue.size() > keep) {
+                    slowQueue.poll();
+                }
+            }
+            case SaveEvent.NAME -> {
+                saves.record(duration);
+                if (!e.getBoolean("succeeded")) {
+                    failedSaves++;
+                }
+            }
+            case RestoreEvent.NAME -> {
+                restores.record(duration);
+                if (!e.getBoolean("succeeded")) {
+                    failedRestores++;
+                }
+            }
+            case GC_PAUSE -> {
+                gcPauses.record(duration);
+                pauseIntervals.add(new long[]{start, end});
+            }
+            case SAFEPOINT_BEGIN -> safepointBegins.put(e.getLong("safepointId"), start);
+            case SAFEPOINT_END -> safepointEnds.put(e.getLong("safepointId"), end);
+            default -> {}
+        }
+    }
+
+    private void finish() {
+        // a safepoint missing either half started before the recording or ended after it
+        safepointBegins.forEach((id, start) -> {
+            Long end = safepointEnds.get(id);
+            if (end != null) {
+                safepoints.record(end - start);
+                safepointIntervals.add(new long[]{start, end});
+            }
+        });
+
+        pauseIntervals.sort(Comparator.comparingLong(i -> i[0]));
+        safepointIntervals.sort(Comparator.comparingLong(i -> i[0]));
+
+        while (!slowQueue.isEmpty()) {
+            SlowMove m = slowQueue.poll();
+            m.gcPauseNanos = overlap(pauseIntervals, m.startNanos, m.endNanos);
+            m.safepointNanos = overlap(safepointIntervals, m.startNanos, m.endNanos);
+            slowest.add(m);
+        }
+        Collections.reverse(slowest);
+    }
+
+    // How much of [start, end) the intervals cover. GC pauses happen inside safepoints, so the two overlap.
+    private static long overlap(List<long[]> sorted, long start, long end) {
+        long covered = 0;
+        for (long[] interval : sorted) {
+            if (interval[0] >= end) {
+                break;
+            }
+            covered += Math.max(0, Math.min(end, interval[1]) - Math.max(start, interval[0]));
+        }
+        return covered;
+    }
+
+    private static long nanos(Instant t) {
+        return t.getEpochSecond() * 1_000_000_000L + t.getNano();
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    // printing
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        double seconds = endNanos > startNanos ? (endNanos - startNanos) / 1e9 : 0;
+        out.append(String.format("%.1f s recorded%n%n", seconds));
+
+        out.append(String.format("%-24s %10s%n", "event", "count"));
+        eventCounts.forEach((name, count) -> out.append(String.format("%-24s %10d%n", name, count)));
+
+        out.append(String.format("%n%-28s %8s %10s %10s %10s %10s %8s %12s%n",
+                "AI", "moves", "mean ms", "p50 ms", "p99 ms", "max ms", "depth", "nodes"));
+        ais.forEach((name, s) -> out.append(String.format("%-28s %8d %10.3f %10.3f %10.3f %10.3f %8.1f %12.0f%n",
+                name, s.latency.getCount(), s.latency.getMean() / 1e6, s.latency.getPercentile(50) / 1e6,
+                s.latency.getPercentile(99) / 1e6, s.latency.getMax() / 1e6, s.getMeanDepth(), s.getMeanNodes())));
+
+        out.append('\n');
+        out.append(pauseLine("saves", saves, failedSaves));
+        out.append(pauseLine("restores", restores, failedRestores));
+        out.append(pauseLine("GC pauses", gcPauses, 0));
+        out.append(pauseLine("safepoints", safepoints, 0));
+
+        if (!slowest.isEmpty()) {
+            out.append(String.format("%n%-12s %-28s %8s %10s %6s %12s %10s %14s%n",
+                    "at s", "slowest AI moves", "move", "ms", "depth", "nodes", "GC ms", "safepoint ms"));
+            for (SlowMove m : slowest) {
+                out.append(String.format("%-12.3f %-28s %8s %10.3f %6d %12d %10.3f %14.3f%n",
+                        (m.startNanos - startNanos) / 1e9, m.ai, m.x + "," + m.y, m.durationNanos / 1e6,
+                        m.depth, m.nodes, m.gcPauseNanos / 1e6, m.safepointNanos / 1e6));
+            }
+        }
+
+        return out.toString();
+    }
+
+    private static String pauseLine(String what, LatencyHistogram h, long failed) {
+        return String.format("%-10s %8d, total %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms%s%n",
+                what, h.getCount(), h.getMean() * h.getCount() / 1e6, h.getPercentile(50) / 1e6,
+                h.getPercentile(99) / 1e6, h.getMax() / 1e6, failed > 0 ? ", " + failed + " failed" : "");
+    }
+
+    public static class AiStats {
+        public final LatencyHistogram latency = new LatencyHistogram();
+        public long depthSum, nodeSum;
+
+        private void add(long nanos, int depth, long nodes) {
+            latency.record(nanos);
+            depthSum += depth;
+            nodeSum += nodes;
+        }
+
+        public double getMeanDepth() {
+            return latency.getCount() == 0 ? 0 : (double) depthSum / latency.getCount();
+        }
+
+        public double getMeanNodes() {
+            return latency.getCount() == 0 ? 0 : (double) nodeSum / latency.getCount();
+        }
+    }
+
+    public static class SlowMove {
+        public final long startNanos, endNanos, durationNanos;
+        public final String ai;
+        public final int x, y, depth;
+        public final long nodes;
+        public long gcPauseNanos, safepointNanos;
+
+        private SlowMove(long startNanos, long endNanos, String ai, int x, int y, int depth, long nodes) {
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+            durationNanos = endNanos - startNanos;
+            this.ai = ai;
+            this.x = x;
+            this.y = y;
+            this.depth = depth;
+            this.nodes = nodes;
+        }
+    }
+}
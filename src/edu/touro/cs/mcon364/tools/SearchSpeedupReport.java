@@ -0,0 +1,79 @@
+package edu.touro.cs.mcon364.tools;
+
+import edu.touro.cs.mcon364.model.ParallelSearchTicTacToeAI;
+import edu.touro.cs.mcon364.model.TicTacToeModel;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how {@link ParallelSearchTicTacToeAI} scales with the number of worker threads, by searching the
+ * same positions to a fixed depth with 1, 2, 4, ... threads up to the number of cores.
+ * <p>
+ * Usage: {@code SearchSpeedupReport [width height k depth maxThreads]}, default 7 7 4 5 and the number of cores.
+ */
+public class SearchSpeedupReport {
+    private static final int WARMUP_ROUNDS = 2, TABLE_BITS = 20;
+    private static final long NO_TIME_LIMIT = Long.MAX_VALUE;
+
+    // A few fixed openings, so every thread count searches identical work.
+    private static final int[][][] OPENINGS = {
+            {{3, 3}},
+            {{3, 3}, {2, 2}},
+            {{3, 3}, {3, 2}, {2, 4}},
+            {{2, 3}, {3, 3}, {4, 2}, {2, 2}},
+    };
+
+    public static void main(String[] args) {
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+        int height = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+        int k = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int depth = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        int cores = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int t = 1; t < cores; t *= 2) {
+            threadCounts.add(t);
+        }
+        threadCounts.add(cores);
+
+        System.out.printf("%dx%d, k=%d, depth %d, up to %d threads on %d cores%n",
+                width, height, k, depth, cores, Runtime.getRuntime().availableProcessors());
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run(width, height, k, depth, cores);
+        }
+
+        System.out.printf("%8s %10s %14s %12s %8s%n", "threads", "ms", "nodes", "knodes/s", "speedup");
+        double baseline = 0;
+        for (int threads : threadCounts) {
+            long start = System.nanoTime();
+            long nodes = run(width, height, k, depth, threads);
+            double ms = (System.nanoTime() - start) / 1e6;
+
+            if (threads == 1) {
+                baseline = ms;
+            }
+            System.out.printf("%8d %10.1f %14d %12.0f %8.2f%n", threads, ms, nodes, nodes / ms, baseline / ms);
+        }
+    }
+
+    private static long run(int width, int height, int k, int depth, int threads) {
+        long nodes = 0;
+
+        for (int[][] opening : OPENINGS) {
+            TicTacToeModel model = new TicTacToeModel(width, height, k);
+            model.startGame(TicTacToeModel.GameType.HUMAN);
+            for (int[] move : opening) {
+                model.makeMove(new Point(move[0], move[1]));
+            }
+
+            ParallelSearchTicTacToeAI ai = new ParallelSearchTicTacToeAI(model, NO_TIME_LIMIT, TABLE_BITS, threads);
+            ai.setMaxDepth(depth);
+            ai.calculateMove();
+            nodes += ai.getLastNodes();
+        }
+
+        return nodes;
+    }
+}
@@ -0,0 +1,95 @@
+package edu.touro.cs.mcon364.tools;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel;
+import edu.touro.cs.mcon364.model.TicTacToeModel.GameType;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+import edu.touro.cs.mcon364.server.GameSession;
+import edu.touro.cs.mcon364.server.GameSessionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures how many complete games per second a {@link GameSessionManager} hosts, with 1, 2, 4, ... worker
+ * threads up to the number of cores. Every game is a classic game against the computer, with random moves
+ * for the human, and all of them are in progress at once.
+ * <p>
+ * Usage: {@code SessionThroughputReport [games maxThreads]}, default 20000 and the number of cores.
+ */
+public class SessionThroughputReport {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final long IDLE_MILLIS = 60_000;
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int cores = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int t = 1; t < cores; t *= 2) {
+            threadCounts.add(t);
+        }
+        threadCounts.add(cores);
+
+        System.out.printf("%d concurrent games, up to %d threads on %d cores%n",
+                games, cores, Runtime.getRuntime().availableProcessors());
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run(games, cores);
+        }
+
+        System.out.printf("%8s %10s %12s %12s %8s%n", "threads", "ms", "games/s", "turns/s", "speedup");
+        double baseline = 0;
+        for (int threads : threadCounts) {
+            long start = System.nanoTime();
+            long turns = run(games, threads);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            double rate = games / seconds;
+            if (threads == 1) {
+                baseline = rate;
+            }
+            System.out.printf("%8d %10.1f %12.0f %12.0f %8.2f%n",
+                    threads, seconds * 1000, rate, turns / seconds, rate / baseline);
+        }
+    }
+
+    private static long run(int games, int threads) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try (GameSessionManager manager = new GameSessionManager(executor, IDLE_MILLIS)) {
+            List<CompletableFuture<Integer>> running = new ArrayList<>(games);
+            for (int i = 0; i < games; i++) {
+                GameSession session = manager.createGame(3, 3, 3, GameType.COMPUTER);
+                running.add(session.getOpeningMove().thenCompose(opening -> play(manager, session.getId(), 0)));
+            }
+
+            long turns = 0;
+            for (CompletableFuture<Integer> game : running) {
+                turns += game.join();
+            }
+            return turns;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // Plays random human moves until the game is over. Completes with the number of turns taken.
+    private static CompletableFuture<Integer> play(GameSessionManager manager, long id, int turns) {
+        return manager.query(id, TicTacToeModel::getLegalMoves).thenCompose(legal -> {
+            int cell = randomBit(legal);
+            return manager.submitMove(id, cell / 3, cell % 3);
+        }).thenCompose(turn -> turn.finalState() == GameState.CONTINUE
+                ? play(manager, id, turns + 1)
+                : CompletableFuture.completedFuture(turns + 1));
+    }
+
+    private static int randomBit(int mask) {
+        for (int skip = ThreadLocalRandom.current().nextInt(Integer.bitCount(mask)); skip > 0; skip--) {
+            mask &= mask - 1;
+        }
+        return Integer.numberOfTrailingZeros(mask);
+    }
+}
@@ -0,0 +1,46 @@
+package edu.touro.cs.mcon364.tools;
+
+import edu.touro.cs.mcon364.model.Tablebase;
+import edu.touro.cs.mcon364.model.TablebaseBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Builds the tablebase for an m,n,k board and reports how big it is, how long it took and who wins.
+ * <p>
+ * Usage: {@code TablebaseReport [width height k threads file]}, default 4 4 4, every core, and
+ * {@code WxH-k.ttb} in a new temporary directory.
+ */
+public class TablebaseReport {
+    public static void main(String[] args) throws IOException {
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int height = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int k = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        Path file = args.length > 4 ? Path.of(args[4])
+                : Files.createTempDirectory("tablebase").resolve(width + "x" + height + "-" + k + ".ttb");
+
+        System.out.printf("%dx%d, k=%d, %d threads, into %s%n", width, height, k, threads, file);
+        TablebaseBuilder builder = new TablebaseBuilder(width, height, k);
+        long start = System.nanoTime();
+        Tablebase tablebase = builder.build(file, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long[] outcomes = tablebase.countByOutcome();
+        System.out.printf("%14s %14s %10s %12s%n", "positions", "bytes", "s", "solved/s");
+        System.out.printf("%14d %14d %10.2f %12.0f%n", tablebase.getSize(), Files.size(file), seconds,
+                builder.getSolved() / seconds);
+        System.out.printf("to move: %d wins, %d draws, %d losses%n",
+                outcomes[Tablebase.WIN + 1], outcomes[Tablebase.DRAW + 1], outcomes[Tablebase.LOSS + 1]);
+
+        int root = tablebase.probe(0, 0);
+        String result = switch (Tablebase.outcomeOf(root)) {
+            case Tablebase.WIN -> "X wins";
+            case Tablebase.LOSS -> "O wins";
+            default -> "draw";
+        };
+        System.out.printf("empty board: %s in %d moves%n", result, Tablebase.distanceOf(root));
+    }
+}
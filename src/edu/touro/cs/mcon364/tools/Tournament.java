@@ -0,0 +1,267 @@
+package edu.touro.cs.mcon364.tools;
+
+import edu.touro.cs.mcon364.model.*;
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Plays many games between two AIs, on every core at once, and reports how each did and how fast it moved.
+ * <p>
+ * The AIs swap sides every game. Each AI lives in its own model, and every move made in one model is
+ * copied to the other, so neither AI knows it is not playing a person. Each thread keeps its own tally and
+ * latency histograms, and they are only merged once all games are done, so the threads share nothing but
+ * the counter they take games from.
+ * <p>
+ * Usage: {@code Tournament [first second games threads width height k]}, where the AIs are one of
+ * {@code random hard perfect search mcts}. Default: perfect random 1000000, every core, 3 3 3.
+ */
+public class Tournament {
+    // Games a thread takes from the shared counter at a time.
+    private static final int BATCH = 256;
+
+    private final Function<TicTacToeModel, ? extends TicTacToeAI> first, second;
+    private final int width, height, winLength;
+    private volatile GameListener gameListener;
+
+    /**
+     * Hears about every game once it ends, on the thread that played it.
+     */
+    public interface GameListener {
+        /**
+         * @param cells  the cells played, as {@code x * height + y}, first move first
+         * @param moves  how many of {@code cells} were played
+         * @param result how the game ended; {@code CONTINUE} if it was forfeited
+         */
+        void gameFinished(byte[] cells, int moves, GameState result);
+    }
+
+    public Tournament(Function<TicTacToeModel, ? extends TicTacToeAI> first,
+                      Function<TicTacToeModel, ? extends TicTacToeAI> second) {
+        this(first, second, 3, 3, 3);
+    }
+
+    public Tournament(Function<TicTacToeModel, ? extends TicTacToeAI> first,
+                      Function<TicTacToeModel, ? extends TicTacToeAI> second,
+                      int width, int height, int winLength) {
+        // Fails early on a bad board shape, instead of once per thread.
+        new TicTacToeModel(width, height, winLength);
+
+        this.first = first;
+        this.second = second;
+        this.width = width;
+        this.height = height;
+        this.winLength = winLength;
+    }
+
+    public static void main(String[] args) {
+        String firstName = args.length > 0 ? args[0] : "perfect";
+        String secondName = args.length > 1 ? args[1] : "random";
+        long games = args.length > 2 ? Long.parseLong(args[2]) : 1_000_000;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int width = args.length > 4 ? Integer.parseInt(args[4]) : 3;
+        int height = args.length > 5 ? Integer.parseInt(args[5]) : 3;
+        int k = args.length > 6 ? Integer.parseInt(args[6]) : 3;
+
+        Tournament tournament = new Tournament(aiNamed(firstName), aiNamed(secondName), width, height, k);
+        System.out.printf("%s vs %s, %d games on a %dx%d board (k=%d), %d threads%n",
+                firstName, secondName, games, width, height, k, threads);
+        System.out.println(tournament.play(games, threads));
+    }
+
+    static Function<TicTacToeModel, ? extends TicTacToeAI> aiNamed(String name) {
+        return switch (name) {
+            case "random" -> RandomTicTacToeAI::new;
+            case "hard" -> HardTicTacToeAI::new;
+            case "perfect" -> PerfectPlayTicTacToeAI::new;
+            case "search" -> SearchTicTacToeAI::new;
+            case "mcts" -> MctsTicTacToeAI::new;
+            default -> throw new IllegalArgumentException("Unknown AI: " + name);
+        };
+    }
+
+    /**
+     * @throws IllegalStateException if the board has more cells than fit in a byte
+     */
+    public void setGameListener(GameListener gameListener) {
+        if (width * height > Byte.MAX_VALUE) {
+            throw new IllegalStateException("Games on boards of more than " + Byte.MAX_VALUE
+                    + " cells can't be reported.");
+        }
+
+        this.gameListener = gameListener;
+    }
+
+    // gameplay
+    /**
+     * Plays {@code games} games, the first AI playing X in even-numbered ones.
+     */
+    public Result play(long games, int threads) {
+        AtomicLong next = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+
+        try {
+            List<Future<Tally>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                futures.add(pool.submit(() -> playFrom(next, games)));
+            }
+
+            Tally total = new Tally();
+            for (Future<Tally> f : futures) {
+                total.merge(f.get());
+            }
+
+            return new Result(total, System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tournament interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tournament game failed.", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private Tally playFrom(AtomicLong next, long games) {
+        Tally tally = new Tally();
+        byte[] cells = new byte[width * height];
+
+        long start;
+        while ((start = next.getAndAdd(BATCH)) < games) {
+            for (long game = start; game < Math.min(games, start + BATCH); game++) {
+                playGame((game & 1) == 0, tally, cells);
+            }
+        }
+
+        return tally;
+    }
+
+    private void playGame(boolean firstIsX, Tally tally, byte[] cells) {
+        TicTacToeModel xModel = new TicTacToeModel(width, height, winLength);
+        TicTacToeModel oModel = new TicTacToeModel(width, height, winLength);
+        xModel.startGame(CellValue.X, firstIsX ? first : second);
+        oModel.startGame(CellValue.O, firstIsX ? second : first);
+
+        boolean xToMove = true;
+        GameState state = GameState.CONTINUE;
+        int moves = 0;
+
+        while (state == GameState.CONTINUE) {
+            TicTacToeModel mover = xToMove ? xModel : oModel;
+            boolean firstMoves = xToMove == firstIsX;
+
+            long moveStart = System.nanoTime();
+            MoveResult move;
+            try {
+                move = mover.aiMove();
+            } catch (IllegalStateException e) {
+                // An illegal move loses the game.
+                tally.forfeit(firstMoves);
+                finished(cells, moves, GameState.CONTINUE);
+                return;
+            }
+            (firstMoves ? tally.firstLatency : tally.secondLatency).record(System.nanoTime() - moveStart);
+            tally.moves++;
+            cells[moves++] = (byte) (move.moveX * height + move.moveY);
+
+            (xToMove ? oModel : xModel).makeMove(new Point(move.moveX, move.moveY));
+            state = move.resultingState;
+            xToMove = !xToMove;
+        }
+
+        tally.record(state, firstIsX);
+        finished(cells, moves, state);
+    }
+
+    private void finished(byte[] cells, int moves, GameState state) {
+        GameListener listener = gameListener;
+        if (listener != null) {
+            listener.gameFinished(cells, moves, state);
+        }
+    }
+
+    // results
+    private static class Tally {
+        private long firstWins, secondWins, draws, forfeits, moves;
+        private final LatencyHistogram firstLatency = new LatencyHistogram(), secondLatency = new LatencyHistogram();
+
+        void record(GameState state, boolean firstIsX) {
+            if (state == GameState.DRAW) {
+                draws++;
+            } else if ((state == GameState.X_WIN) == firstIsX) {
+                firstWins++;
+            } else {
+                secondWins++;
+            }
+        }
+
+        void forfeit(boolean firstForfeits) {
+            forfeits++;
+            if (firstForfeits) {
+                secondWins++;
+            } else {
+                firstWins++;
+            }
+        }
+
+        void merge(Tally other) {
+            firstWins += other.firstWins;
+            secondWins += other.secondWins;
+            draws += other.draws;
+            forfeits += other.forfeits;
+            moves += other.moves;
+            firstLatency.merge(other.firstLatency);
+            secondLatency.merge(other.secondLatency);
+        }
+    }
+
+    public static class Result {
+        public final long firstWins, secondWins, draws, forfeits, moves, elapsedNanos;
+        public final LatencyHistogram firstLatency, secondLatency;
+
+        private Result(Tally t, long elapsedNanos) {
+            firstWins = t.firstWins;
+            secondWins = t.secondWins;
+            draws = t.draws;
+            forfeits = t.forfeits;
+            moves = t.moves;
+            firstLatency = t.firstLatency;
+            secondLatency = t.secondLatency;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getGames() {
+            return firstWins + secondWins + draws;
+        }
+
+        public double getGamesPerSecond() {
+            return getGames() * 1e9 / elapsedNanos;
+        }
+
+        public double getMovesPerSecond() {
+            return moves * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("first %d wins, second %d wins, %d draws, %d forfeits%n", firstWins, secondWins, draws, forfeits)
+                    + String.format("%.0f games/s, %.0f moves/s over %.1f s%n",
+                    getGamesPerSecond(), getMovesPerSecond(), elapsedNanos / 1e9)
+                    + latencyLine("first", firstLatency) + latencyLine("second", secondLatency);
+        }
+
+        private static String latencyLine(String who, LatencyHistogram h) {
+            return String.format("%-6s move latency (us): mean %.2f, p50 %.2f, p90 %.2f, p99 %.2f, p99.9 %.2f, max %.2f%n",
+                    who, h.getMean() / 1e3, h.getPercentile(50) / 1e3, h.getPercentile(90) / 1e3,
+                    h.getPercentile(99) / 1e3, h.getPercentile(99.9) / 1e3, h.getMax() / 1e3);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package edu.touro.cs.mcon364.metrics;
+
+import edu.touro.cs.mcon364.model.HardTicTacToeAI;
+import edu.touro.cs.mcon364.model.TicTacToeModel;
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+
+import java.awt.*;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+    @org.junit.jupiter.api.Test
+    void testHistogramFromManyThreads() throws InterruptedException {
+        ConcurrentHistogram h = new ConcurrentHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (long v = 1; v <= 100_000; v++) {
+                    h.record(v);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertEquals(400_000, h.getCount());
+        assertEquals(4 * 5_000_050_000L, h.getTotal());
+        assertEquals(100_000, h.getMax());
+
+        long[] p = h.getPercentiles(50, 99, 100);
+        assertTrue(p[0] >= 50_000 && p[0] <= 50_000 + 50_000 / 32);
+        assertTrue(p[1] >= 99_000 && p[1] <= 99_000 + 99_000 / 32);
+        assertEquals(100_000, p[2]);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testDisabledRecordsNothing() {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+
+        assertEquals(Metrics.NOT_TIMED, Metrics.start());
+        playHardGame();
+
+        MetricsSnapshot s = Metrics.snapshot();
+        assertEquals(0, s.timer("model_make_move", "").count);
+        assertEquals(0, s.timer("hard_ai_calculate_move", "").count);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testCountsEveryHardDecisionByRule() {
+        Metrics.setEnabled(true);
+        try {
+            Metrics.reset();
+            int aiMoves = playHardGame();
+
+            MetricsSnapshot s = Metrics.snapshot();
+            assertEquals(9, s.timer("model_make_move", "").count);
+            assertEquals(aiMoves, s.timer("model_ai_move", "").count);
+            assertEquals(aiMoves, s.timer("hard_ai_calculate_move", "").count);
+
+            long byRule = 0;
+            for (HardTicTacToeAI.Rule rule : HardTicTacToeAI.Rule.values()) {
+                byRule += s.timer("hard_ai_decision", "rule=\"" + rule.name().toLowerCase() + '"').count;
+            }
+            assertEquals(aiMoves, byRule);
+            // The AI moves first, into the center.
+            assertTrue(s.timer("hard_ai_decision", "rule=\"center\"").count >= 1);
+        } finally {
+            Metrics.setEnabled(false);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testServesPrometheusText() throws Exception {
+        Metrics.setEnabled(true);
+        try (MetricsServer server = new MetricsServer(0)) {
+            Metrics.reset();
+            playHardGame();
+
+            HttpURLConnection c = (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + "/metrics").openConnection();
+            assertEquals(200, c.getResponseCode());
+            String body;
+            try (InputStream in = c.getInputStream()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+
+            assertTrue(body.contains("# TYPE tictactoe_model_make_move_seconds summary\n"));
+            assertTrue(body.contains("tictactoe_model_make_move_seconds_count 9\n"));
+            assertTrue(body.contains("tictactoe_hard_ai_decision_seconds{rule=\"center\",quantile=\"0.5\"} "));
+            assertTrue(body.contains("# TYPE tictactoe_model_ai_failures_total counter\n"));
+        } finally {
+            Metrics.setEnabled(false);
+        }
+    }
+
+    // The Hard AI plays X against itself, on both sides through aiMove and makeMove, to a draw.
+    private static int playHardGame() {
+        TicTacToeModel model = new TicTacToeModel();
+        model.startGame(CellValue.X, HardTicTacToeAI::new);
+
+        int aiMoves = 0;
+        for (int move = 0; move < 9; move++) {
+            if (model.getAiTeam() == model.previousPlayer().other()) {
+                model.aiMove();
+                aiMoves++;
+            } else {
+                model.makeMove(firstFreeCell(model));
+            }
+        }
+        return aiMoves;
+    }
+
+    private static Point firstFreeCell(TicTacToeModel model) {
+        for (int x = 0; x < 3; x++) {
+            for (int y = 0; y < 3; y++) {
+                if (model.getSpace(x, y) == CellValue.NONE) {
+                    return new Point(x, y);
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,134 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult;
+
+import java.awt.*;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncAITest {
+    @org.junit.jupiter.api.Test
+    void testMoveIsPlayedOnApplier() throws Exception {
+        TicTacToeModel model = new TicTacToeModel();
+        model.startGame(CellValue.X, HardTicTacToeAI::new);
+
+        ExecutorService applier = Executors.newSingleThreadExecutor(r -> new Thread(r, "applier"));
+        String[] appliedOn = new String[1];
+        model.addMoveListener((m, mv) -> appliedOn[0] = Thread.currentThread().getName());
+
+        try {
+            MoveResult mv = model.aiMoveAsync(ForkJoinPool.commonPool(), applier, null).get(5, TimeUnit.SECONDS);
+            assertEquals(CellValue.X, model.getSpace(mv.moveX, mv.moveY));
+            assertEquals("applier", appliedOn[0]);
+        } finally {
+            applier.shutdown();
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testCancelStopsSearchAndPlaysNothing() throws Exception {
+        TicTacToeModel model = new TicTacToeModel(9, 9, 5);
+        model.startGame(CellValue.X, m -> new SearchTicTacToeAI(m, TimeUnit.MINUTES.toMillis(10), 16));
+
+        ExecutorService calculator = Executors.newSingleThreadExecutor();
+        BlockingQueue<Runnable> applies = new LinkedBlockingQueue<>();
+        CountDownLatch searching = new CountDownLatch(2);
+
+        try {
+            CompletableFuture<MoveResult> future = model.aiMoveAsync(calculator, applies::add,
+                    (move, depth) -> searching.countDown());
+            assertTrue(searching.await(30, TimeUnit.SECONDS), "no progress reported");
+
+            // The future isn't done until the search notices the stop and hands back its move, which must
+            // then be dropped.
+            assertFalse(future.cancel(true));
+            assertFalse(future.isDone());
+            Runnable apply = applies.poll(10, TimeUnit.SECONDS);
+            assertNotNull(apply, "search didn't stop");
+            apply.run();
+
+            assertTrue(future.isCancelled());
+            for (int x = 0; x < 9; x++) {
+                for (int y = 0; y < 9; y++) {
+                    assertEquals(CellValue.NONE, model.getSpace(x, y));
+                }
+            }
+        } finally {
+            calculator.shutdownNow();
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testCancelBeforeTheAIStartsIsKept() throws Exception {
+        TicTacToeModel model = new TicTacToeModel(5, 5, 4);
+        model.startGame(CellValue.X, m -> new SearchTicTacToeAI(m, TimeUnit.MINUTES.toMillis(10), 16));
+
+        BlockingQueue<Runnable> calculations = new LinkedBlockingQueue<>(), applies = new LinkedBlockingQueue<>();
+        CompletableFuture<MoveResult> future = model.aiMoveAsync(calculations::add, applies::add, null);
+        assertFalse(future.cancel(true));
+
+        calculations.remove().run();
+        applies.remove().run();
+        assertTrue(future.isCancelled());
+        assertEquals(0, model.getMask(CellValue.X));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testSearchesSeeAStopSetBeforeTheyStart() throws Exception {
+        long tenMinutes = TimeUnit.MINUTES.toMillis(10);
+        List<Function<TicTacToeModel, TicTacToeAI>> ais = List.of(
+                m -> new SearchTicTacToeAI(m, tenMinutes, 16),
+                m -> new ParallelSearchTicTacToeAI(m, tenMinutes, 16, 2),
+                m -> new MctsTicTacToeAI(m, tenMinutes, MctsTicTacToeAI.UNLIMITED_PLAYOUTS, 2));
+
+        for (Function<TicTacToeModel, TicTacToeAI> factory : ais) {
+            TicTacToeModel model = new TicTacToeModel(9, 9, 5);
+            TicTacToeAI ai = factory.apply(model);
+            Point move = CompletableFuture.supplyAsync(() -> ai.calculateMove(() -> true)).get(30, TimeUnit.SECONDS);
+            assertEquals(CellValue.NONE, model.getSpace(move.x, move.y));
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testProgressDeepens() throws Exception {
+        TicTacToeModel model = new TicTacToeModel(4, 4, 4);
+        model.startGame(CellValue.O, SearchTicTacToeAI::new);
+        model.makeMove(new Point(1, 1));
+
+        ConcurrentLinkedQueue<Integer> depths = new ConcurrentLinkedQueue<>();
+        model.aiMoveAsync(ForkJoinPool.commonPool(), Runnable::run, (move, depth) -> {
+            assertEquals(CellValue.NONE, model.getSpace(move.x, move.y));
+            depths.add(depth);
+        }).get(5, TimeUnit.SECONDS);
+
+        int previous = 0;
+        for (int depth : depths) {
+            assertEquals(previous + 1, depth);
+            previous = depth;
+        }
+        assertTrue(previous > 0);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testFailureIsReported() {
+        TicTacToeModel model = new TicTacToeModel();
+        model.startGame(CellValue.X, m -> new TicTacToeAI() {
+            @Override
+            public Point calculateMove() {
+                return new Point(5, 5);
+            }
+
+            @Override
+            public void submitMoveToAI(Point loc) {
+            }
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> model.aiMoveAsync(ForkJoinPool.commonPool(), Runnable::run, null).get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+}
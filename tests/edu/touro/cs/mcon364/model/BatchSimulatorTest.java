@@ -0,0 +1,63 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+import java.awt.*;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchSimulatorTest {
+    @org.junit.jupiter.api.Test
+    void testMatchesModelMoveForMove() {
+        int games = 1000;
+        BatchSimulator batch = new BatchSimulator(games, BatchSimulator.scalarKernel());
+        TicTacToeModel[] models = new TicTacToeModel[games];
+        for (int i = 0; i < games; i++) {
+            models[i] = new TicTacToeModel();
+            models[i].startGame(TicTacToeModel.GameType.HUMAN);
+        }
+
+        int[] moves = new int[games];
+        SplittableRandom random = new SplittableRandom(7);
+        while (batch.randomMoves(moves, random) > 0) {
+            batch.play(moves);
+
+            for (int i = 0; i < games; i++) {
+                if (moves[i] == BatchSimulator.NO_MOVE) {
+                    continue;
+                }
+
+                GameState state = models[i].makeMove(new Point(moves[i] / 3, moves[i] % 3)).resultingState;
+                assertEquals(state.ordinal(), batch.getStatus(i));
+                assertEquals(models[i].getMask(CellValue.X), batch.getMask(i, CellValue.X));
+                assertEquals(models[i].getMask(CellValue.O), batch.getMask(i, CellValue.O));
+                assertEquals(models[i].previousPlayer().other(), batch.getToMove(i));
+            }
+        }
+
+        int[] counts = batch.countByStatus();
+        assertEquals(0, counts[BatchSimulator.CONTINUE] + counts[BatchSimulator.FORFEIT]);
+        assertEquals(games, counts[BatchSimulator.DRAW] + counts[BatchSimulator.X_WIN] + counts[BatchSimulator.O_WIN]);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testIllegalMovesForfeitOnlyTheirGame() {
+        BatchSimulator batch = new BatchSimulator(5, BatchSimulator.scalarKernel());
+        batch.play(new int[]{4, 4, 4, BatchSimulator.NO_MOVE, 4});
+        batch.play(new int[]{4, 9, 0, 4, -2});
+
+        assertEquals(BatchSimulator.FORFEIT, batch.getStatus(0)); // taken cell
+        assertEquals(BatchSimulator.FORFEIT, batch.getStatus(1)); // off the board
+        assertEquals(BatchSimulator.CONTINUE, batch.getStatus(2));
+        assertEquals(CellValue.X, batch.getToMove(2));
+        assertEquals(1 << 4, batch.getMask(3, CellValue.X)); // its first move came late
+        assertEquals(BatchSimulator.FORFEIT, batch.getStatus(4)); // only NO_MOVE skips a turn
+
+        // Finished games ignore moves.
+        batch.play(new int[]{0, 0, 1, 0, 0});
+        assertEquals(1 << 4, batch.getMask(0, CellValue.X));
+        assertEquals(0, batch.getMask(0, CellValue.O));
+    }
+}
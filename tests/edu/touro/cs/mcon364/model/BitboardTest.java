@@ -0,0 +1,77 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult;
+
+import java.awt.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitboardTest {
+    @org.junit.jupiter.api.Test
+    void testEveryLineWins() {
+        for (int line : Bitboard.WIN_MASKS) {
+            TicTacToeModel model = new TicTacToeModel();
+            model.startGame(TicTacToeModel.GameType.HUMAN);
+
+            // X plays the line, O plays the first free cells off of it
+            int oMoves = ~line & Bitboard.FULL;
+            MoveResult last = null;
+
+            for (int m = line; m != 0; m &= m - 1) {
+                int cell = Integer.numberOfTrailingZeros(m);
+                last = model.makeMove(new Point(cell / 3, cell % 3));
+
+                if (m == Integer.lowestOneBit(m)) {
+                    break;
+                }
+
+                int oCell = Integer.numberOfTrailingZeros(oMoves);
+                oMoves &= oMoves - 1;
+                model.makeMove(new Point(oCell / 3, oCell % 3));
+            }
+
+            assertNotNull(last);
+            assertEquals(MoveResult.GameState.X_WIN, last.resultingState);
+            assertEquals(1, last.affectedLines.size());
+            assertEquals(line, pointsToMask(last.affectedLines.get(0)));
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testBoardMatchesMasks() {
+        TicTacToeModel model = new TicTacToeModel();
+        model.startGame(TicTacToeModel.GameType.HUMAN);
+
+        model.makeMove(new Point(1, 1));
+        model.makeMove(new Point(0, 2));
+
+        assertEquals(TicTacToeModel.CellValue.X, model.getSpace(1, 1));
+        assertEquals(TicTacToeModel.CellValue.O, model.getSpace(0, 2));
+        assertEquals(TicTacToeModel.CellValue.NONE, model.getBoard()[2][0]);
+        assertEquals(Bitboard.FULL & ~(Bitboard.bit(1, 1) | Bitboard.bit(0, 2)), model.getLegalMoves());
+        assertThrows(IllegalArgumentException.class, () -> model.makeMove(new Point(1, 1)));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testFullBoardIsDraw() {
+        TicTacToeModel model = new TicTacToeModel();
+        model.startGame(TicTacToeModel.GameType.HUMAN);
+
+        int[][] moves = {{0, 0}, {1, 1}, {2, 2}, {0, 1}, {2, 1}, {2, 0}, {0, 2}, {1, 2}, {1, 0}};
+        MoveResult res = null;
+        for (int[] m : moves) {
+            res = model.makeMove(new Point(m[0], m[1]));
+        }
+
+        assertEquals(MoveResult.GameState.DRAW, res.resultingState);
+        assertEquals(0, model.getLegalMoves());
+    }
+
+    private static int pointsToMask(Point[] points) {
+        int mask = 0;
+        for (Point p : points) {
+            mask |= Bitboard.bit(p.x, p.y);
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,62 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plays a classic-board AI against every possible sequence of opponent moves, for the AI tests.
+ */
+final class EveryReply {
+    private EveryReply() {
+    }
+
+    /**
+     * Fails the test if the AI loses any game.
+     *
+     * @return the number of games played
+     */
+    static int play(CellValue team, Function<TicTacToeModel, ? extends TicTacToeAI> aiFactory) {
+        return play(team, aiFactory, new ArrayList<>());
+    }
+
+    private static int play(CellValue team, Function<TicTacToeModel, ? extends TicTacToeAI> aiFactory,
+                            List<Point> opponentMoves) {
+        TicTacToeModel model = new TicTacToeModel();
+        model.startGame(team, aiFactory);
+
+        GameState gs = GameState.CONTINUE;
+        int replayed = 0;
+
+        while (gs == GameState.CONTINUE) {
+            if (model.getAiTeam() == model.previousPlayer().other()) {
+                gs = model.aiMove().resultingState;
+            } else if (replayed < opponentMoves.size()) {
+                gs = model.makeMove(opponentMoves.get(replayed++)).resultingState;
+            } else {
+                int games = 0;
+
+                for (int x = 0; x < 3; x++) {
+                    for (int y = 0; y < 3; y++) {
+                        if (model.getSpace(x, y) == CellValue.NONE) {
+                            List<Point> next = new ArrayList<>(opponentMoves);
+                            next.add(new Point(x, y));
+                            games += play(team, aiFactory, next);
+                        }
+                    }
+                }
+
+                return games;
+            }
+        }
+
+        assertNotEquals(team == CellValue.X ? GameState.O_WIN : GameState.X_WIN, gs);
+        return 1;
+    }
+}
@@ -0,0 +1,147 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.GameType;
+
+import java.awt.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameCodecTest {
+    @org.junit.jupiter.api.Test
+    void testClassicRoundTrip() {
+        TicTacToeModel model = new TicTacToeModel();
+        model.startGame(CellValue.O, HardTicTacToeAI::new);
+        model.makeMove(new Point(1, 1));
+        model.aiMove();
+        model.makeMove(new Point(2, 1));
+
+        byte[] bytes = GameCodec.encode(model);
+        assertEquals(GameCodec.CLASSIC_SIZE, bytes.length);
+        assertEquals(GameCodec.VERSION_CLASSIC, bytes[0]);
+
+        TicTacToeModel copy = GameCodec.decode(ByteBuffer.wrap(bytes));
+        assertEquals(model.getMask(CellValue.X), copy.getMask(CellValue.X));
+        assertEquals(model.getMask(CellValue.O), copy.getMask(CellValue.O));
+        assertEquals(model.previousPlayer(), copy.previousPlayer());
+        assertEquals(CellValue.O, copy.getAiTeam());
+
+        // The new AI picks up the position and plays a legal move.
+        assertDoesNotThrow(copy::aiMove);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testByteOrderDoesNotMatter() {
+        TicTacToeModel model = new TicTacToeModel();
+        model.startGame(CellValue.X, HardTicTacToeAI::new);
+        model.aiMove();
+        model.makeMove(new Point(0, 2));
+
+        ByteBuffer little = ByteBuffer.allocate(GameCodec.CLASSIC_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        GameCodec.encode(model, little);
+        assertArrayEquals(GameCodec.encode(model), little.array());
+
+        TicTacToeModel copy = GameCodec.decode(little.flip());
+        assertEquals(model.getMask(CellValue.X), copy.getMask(CellValue.X));
+        assertEquals(model.getMask(CellValue.O), copy.getMask(CellValue.O));
+        assertEquals(CellValue.X, copy.getAiTeam());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testEveryClassicPositionRoundTrips() {
+        ByteBuffer buffer = ByteBuffer.allocate(GameCodec.CLASSIC_SIZE);
+
+        for (int x = 0; x <= Bitboard.FULL; x++) {
+            for (int o = 0; o <= Bitboard.FULL; o++) {
+                int xs = Integer.bitCount(x), os = Integer.bitCount(o);
+                if ((x & o) != 0 || (xs != os && xs != os + 1)) {
+                    continue;
+                }
+
+                Board board = new Board(3, 3, 3);
+                for (int cell = 0; cell < Bitboard.CELLS; cell++) {
+                    if ((x >> cell & 1) != 0) {
+                        board.place(cell, CellValue.X);
+                    } else if ((o >> cell & 1) != 0) {
+                        board.place(cell, CellValue.O);
+                    }
+                }
+
+                TicTacToeModel model = new TicTacToeModel();
+                model.restore(board, xs == os);
+                model.startGame(GameType.HUMAN);
+
+                buffer.clear();
+                GameCodec.encode(model, buffer);
+                buffer.flip();
+                TicTacToeModel copy = GameCodec.decode(buffer);
+
+                assertEquals(x, copy.getMask(CellValue.X));
+                assertEquals(o, copy.getMask(CellValue.O));
+                assertEquals(model.previousPlayer(), copy.previousPlayer());
+            }
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testMnkRoundTrip() {
+        TicTacToeModel model = new TicTacToeModel(15, 15, 5);
+        model.startGame(GameType.HUMAN);
+        int[][] moves = {{7, 7}, {0, 0}, {14, 14}, {3, 9}, {8, 6}};
+        for (int[] m : moves) {
+            model.makeMove(new Point(m[0], m[1]));
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(100);
+        buffer.put((byte) 42); // decoding starts at the buffer's position
+        GameCodec.encode(model, buffer);
+        assertEquals(1 + GameCodec.encodedSize(model), buffer.position());
+        assertEquals(5 + 2 * 29, GameCodec.encodedSize(model));
+
+        buffer.flip().get();
+        TicTacToeModel copy = GameCodec.decode(buffer);
+        assertFalse(buffer.hasRemaining());
+
+        assertEquals(15, copy.getWidth());
+        assertEquals(5, copy.getWinLength());
+        assertEquals(CellValue.NONE, copy.getAiTeam());
+        for (int i = 0; i < moves.length; i++) {
+            assertEquals(i % 2 == 0 ? CellValue.X : CellValue.O, copy.getSpace(moves[i][0], moves[i][1]));
+        }
+        assertEquals(CellValue.X, copy.previousPlayer());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testRejectsCorruptData() {
+        // unknown version
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(ByteBuffer.wrap(new byte[]{9, 0, 0, 0})));
+        // X and O both on cell 0
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(ByteBuffer.wrap(new byte[]{1, 0, 2, 1})));
+        // O has a stone but X has none
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(ByteBuffer.wrap(new byte[]{1, 0, 6, 0})));
+        // reserved bit
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(ByteBuffer.wrap(new byte[]{1, (byte) 0x80, 0, 0})));
+        // AI team 3
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(ByteBuffer.wrap(new byte[]{1, 0x1C, 0, 0})));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testRejectsTruncatedData() {
+        TicTacToeModel classic = new TicTacToeModel();
+        classic.startGame(GameType.HUMAN);
+        classic.makeMove(new Point(1, 1));
+        TicTacToeModel mnk = new TicTacToeModel(7, 6, 4);
+        mnk.startGame(GameType.HUMAN);
+        mnk.makeMove(new Point(3, 3));
+
+        for (TicTacToeModel model : new TicTacToeModel[]{classic, mnk}) {
+            byte[] data = GameCodec.encode(model);
+            for (int length = 0; length < data.length; length++) {
+                ByteBuffer cut = ByteBuffer.wrap(data, 0, length);
+                assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(cut));
+            }
+        }
+    }
+}
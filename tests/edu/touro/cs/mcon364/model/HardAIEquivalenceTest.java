@@ -0,0 +1,113 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+
+import java.awt.*;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HardAIEquivalenceTest {
+    @org.junit.jupiter.api.Test
+    void testSameMoveInEveryReachablePosition() {
+        List<int[]> games = new ArrayList<>();
+        collect(new int[0], 0, 0, new boolean[1 << 2 * Bitboard.CELLS], games);
+
+        assertEquals(4520, games.size()); // every non-final position, before symmetry
+
+        for (int[] game : games) {
+            CellValue toMove = game.length % 2 == 0 ? CellValue.X : CellValue.O;
+
+            // Fed move by move, as in a game.
+            TicTacToeModel model = new TicTacToeModel();
+            model.startGame(toMove, Paired::new);
+            for (int cell : game) {
+                model.makeMove(new Point(cell / 3, cell % 3));
+            }
+            model.aiMove();
+
+            // Set up from the finished position, as after a restore.
+            TicTacToeModel restored = new TicTacToeModel();
+            restored.startGame(toMove, m -> null);
+            for (int cell : game) {
+                restored.makeMove(new Point(cell / 3, cell % 3));
+            }
+            assertEquals(new LegacyHardTicTacToeAI(restored).calculateMove(),
+                    new HardTicTacToeAI(restored).calculateMove());
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testSteadyStateMoveAllocatesNothing() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return; // can't measure on this JVM
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        TicTacToeModel model = new TicTacToeModel();
+        model.startGame(CellValue.O, m -> null);
+        model.makeMove(new Point(0, 0));
+        HardTicTacToeAI ai = new HardTicTacToeAI(model);
+
+        for (int i = 0; i < 100_000; i++) {
+            ai.calculateMove();
+        }
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 100_000; i++) {
+            ai.calculateMove();
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertTrue(allocated < 1000, allocated + " bytes allocated");
+    }
+
+    // Every position where the game isn't over yet, each reached by one move order.
+    private static void collect(int[] moves, int x, int o, boolean[] seen, List<int[]> out) {
+        int key = Symmetry.key(x, o);
+        if (seen[key] || Bitboard.isWin(x) || Bitboard.isWin(o) || (x | o) == Bitboard.FULL) {
+            return;
+        }
+        seen[key] = true;
+        out.add(moves);
+
+        for (int cell = 0; cell < Bitboard.CELLS; cell++) {
+            if (((x | o) & 1 << cell) == 0) {
+                int[] next = java.util.Arrays.copyOf(moves, moves.length + 1);
+                next[moves.length] = cell;
+                if (moves.length % 2 == 0) {
+                    collect(next, x | 1 << cell, o, seen, out);
+                } else {
+                    collect(next, x, o | 1 << cell, seen, out);
+                }
+            }
+        }
+    }
+
+    // Plays the new AI, checking every move against the old one, which sees the same moves.
+    private static class Paired implements TicTacToeAI {
+        private final HardTicTacToeAI current;
+        private final LegacyHardTicTacToeAI legacy;
+
+        Paired(TicTacToeModel m) {
+            current = new HardTicTacToeAI(m);
+            legacy = new LegacyHardTicTacToeAI(m);
+        }
+
+        @Override
+        public Point calculateMove() {
+            Point expected = legacy.calculateMove(), actual = current.calculateMove();
+            assertEquals(expected, actual);
+            return actual;
+        }
+
+        @Override
+        public void submitMoveToAI(Point loc) {
+            current.submitMoveToAI(loc);
+            legacy.submitMoveToAI(loc);
+        }
+    }
+}
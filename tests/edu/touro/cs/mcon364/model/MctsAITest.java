@@ -0,0 +1,82 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+import java.awt.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MctsAITest {
+    @org.junit.jupiter.api.Test
+    void testTakesImmediateWin() {
+        TicTacToeModel model = new TicTacToeModel(7, 7, 4);
+        model.startGame(CellValue.X, m -> new MctsTicTacToeAI(m, 1000, 2000, 2));
+
+        int[][] moves = {{1, 1}, {6, 6}, {1, 2}, {6, 0}, {1, 3}, {0, 6}};
+        for (int[] m : moves) {
+            model.makeMove(new Point(m[0], m[1]));
+        }
+
+        assertEquals(GameState.X_WIN, model.aiMove().resultingState);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testBlocksOnClassicBoard() {
+        TicTacToeModel model = new TicTacToeModel();
+        model.startGame(CellValue.O, m -> new MctsTicTacToeAI(m, 1000, 20000, 2));
+
+        model.makeMove(new Point(0, 0));
+        model.makeMove(new Point(2, 2));
+        model.makeMove(new Point(0, 1));
+        model.aiMove();
+
+        assertEquals(CellValue.O, model.getSpace(0, 2));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testPlaysFullGameWithTreeReuse() {
+        TicTacToeModel model = new TicTacToeModel(5, 5, 4);
+        MctsTicTacToeAI[] ai = new MctsTicTacToeAI[1];
+        model.startGame(CellValue.X, m -> ai[0] = new MctsTicTacToeAI(m, 1000, 500, 2));
+
+        GameState gs = GameState.CONTINUE;
+        int reused = 0;
+        while (gs == GameState.CONTINUE) {
+            if (model.getAiTeam() == model.previousPlayer().other()) {
+                if (ai[0].getLastPlayouts() > 0) {
+                    // the reply's subtree, from the last search, is the new root
+                    assertTrue(ai[0].getRootVisits() > 0);
+                    reused++;
+                }
+                // aiMove throws if the AI picks an occupied cell
+                gs = model.aiMove().resultingState;
+                assertTrue(ai[0].getLastPlayouts() >= 500);
+            } else {
+                gs = firstFreeCell(model);
+            }
+        }
+        assertTrue(reused > 0);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testThreadsAreCappedAtThePool() {
+        TicTacToeModel model = new TicTacToeModel(5, 5, 4);
+        MctsTicTacToeAI[] ai = new MctsTicTacToeAI[1];
+        int cores = Runtime.getRuntime().availableProcessors();
+        model.startGame(CellValue.X, m -> ai[0] = new MctsTicTacToeAI(m, 100, MctsTicTacToeAI.UNLIMITED_PLAYOUTS, cores + 4));
+
+        assertEquals(cores, ai[0].getThreads());
+    }
+
+    private static GameState firstFreeCell(TicTacToeModel model) {
+        for (int x = 0; x < model.getWidth(); x++) {
+            for (int y = 0; y < model.getHeight(); y++) {
+                if (model.getSpace(x, y) == CellValue.NONE) {
+                    return model.makeMove(new Point(x, y)).resultingState;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,84 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+import java.awt.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MnkModelTest {
+    private static MoveResult play(TicTacToeModel model, int[][] moves) {
+        MoveResult res = null;
+        for (int[] m : moves) {
+            res = model.makeMove(new Point(m[0], m[1]));
+        }
+        return res;
+    }
+
+    @org.junit.jupiter.api.Test
+    void testFourByFourColumn() {
+        TicTacToeModel model = new TicTacToeModel(4, 4, 4);
+        model.startGame(TicTacToeModel.GameType.HUMAN);
+
+        MoveResult res = play(model, new int[][]{{2, 0}, {0, 0}, {2, 1}, {0, 1}, {2, 3}, {0, 2}, {2, 2}});
+
+        assertEquals(GameState.X_WIN, res.resultingState);
+        assertEquals(1, res.affectedLines.size());
+        assertEquals(4, res.affectedLines.get(0).length);
+        assertEquals(new Point(2, 0), res.affectedLines.get(0)[0]);
+        assertEquals(new Point(2, 3), res.affectedLines.get(0)[3]);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testGomokuAntiDiagonal() {
+        TicTacToeModel model = new TicTacToeModel(15, 15, 5);
+        model.startGame(TicTacToeModel.GameType.HUMAN);
+
+        // X fills (5,9) .. (9,5) out of order, O plays along the top edge.
+        MoveResult res = play(model, new int[][]{
+                {5, 9}, {0, 0}, {6, 8}, {1, 0}, {8, 6}, {2, 0}, {9, 5}, {3, 0}});
+        assertEquals(GameState.CONTINUE, res.resultingState);
+
+        res = model.makeMove(new Point(7, 7));
+        assertEquals(GameState.X_WIN, res.resultingState);
+
+        Point[] line = res.affectedLines.get(0);
+        assertEquals(5, line.length);
+        assertEquals(new Point(5, 9), line[0]);
+        assertEquals(new Point(9, 5), line[4]);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testFourInARowOnSevenBySeven() {
+        TicTacToeModel model = new TicTacToeModel(7, 7, 4);
+        model.startGame(TicTacToeModel.GameType.HUMAN);
+
+        // Three in a row is not enough.
+        MoveResult res = play(model, new int[][]{{1, 1}, {6, 0}, {2, 2}, {6, 1}, {3, 3}, {5, 0}});
+        assertEquals(GameState.CONTINUE, res.resultingState);
+
+        res = model.makeMove(new Point(4, 4));
+        assertEquals(GameState.X_WIN, res.resultingState);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testSmallBoardDraw() {
+        TicTacToeModel model = new TicTacToeModel(3, 2, 3);
+        model.startGame(TicTacToeModel.GameType.HUMAN);
+
+        MoveResult res = play(model, new int[][]{{0, 0}, {1, 0}, {0, 1}, {1, 1}, {2, 1}, {2, 0}});
+        assertEquals(GameState.DRAW, res.resultingState);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testBoundsFollowBoardSize() {
+        TicTacToeModel model = new TicTacToeModel(5, 4, 4);
+        model.startGame(TicTacToeModel.GameType.HUMAN);
+
+        assertDoesNotThrow(() -> model.makeMove(new Point(4, 3)));
+        assertThrows(IllegalArgumentException.class, () -> model.makeMove(new Point(3, 4)));
+        assertEquals(5, model.getBoard().length);
+        assertEquals(4, model.getBoard()[0].length);
+    }
+}
@@ -0,0 +1,32 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerfectPlayAITest {
+    @org.junit.jupiter.api.Test
+    void testEmptyBoardIsDraw() {
+        assertEquals(PerfectPlayTicTacToeAI.DRAW, PerfectPlayTicTacToeAI.outcome(0));
+        assertEquals(9, PerfectPlayTicTacToeAI.distance(0));
+        assertTrue(PerfectPlayTicTacToeAI.isReachable(0));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testTakesImmediateWin() {
+        // X: (0,0), (0,1); O: (1,1), (2,2). X to move wins at (0,2).
+        int x = Bitboard.bit(0, 0) | Bitboard.bit(0, 1), o = Bitboard.bit(1, 1) | Bitboard.bit(2, 2);
+        int index = PerfectPlayTicTacToeAI.index(x, o);
+
+        assertEquals(Bitboard.index(0, 2), PerfectPlayTicTacToeAI.bestMove(index));
+        assertEquals(PerfectPlayTicTacToeAI.WIN, PerfectPlayTicTacToeAI.outcome(index));
+        assertEquals(1, PerfectPlayTicTacToeAI.distance(index));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testNeverLoses() {
+        for (CellValue team : new CellValue[]{CellValue.X, CellValue.O}) {
+            assertTrue(EveryReply.play(team, PerfectPlayTicTacToeAI::new) > 1);
+        }
+    }
+}
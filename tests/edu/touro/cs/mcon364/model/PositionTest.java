@@ -0,0 +1,110 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+import java.awt.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionTest {
+    @org.junit.jupiter.api.Test
+    void testRoundTrip() {
+        long p = Position.of(0b1_0000_0011, 0b0_0011_0000, false, GameState.CONTINUE, 3, 3, 3);
+
+        assertEquals(0b1_0000_0011, Position.xMask(p));
+        assertEquals(0b0_0011_0000, Position.oMask(p));
+        assertEquals(0b0_1100_1100, Position.mask(p, CellValue.NONE));
+        assertEquals(CellValue.O, Position.toMove(p));
+        assertEquals(GameState.CONTINUE, Position.state(p));
+        assertEquals(5, Position.moveCount(p));
+        assertEquals(CellValue.X, Position.get(p, 2, 2));
+        assertEquals(CellValue.O, Position.get(p, 1, 1));
+        assertEquals(CellValue.NONE, Position.get(p, 2, 0));
+        assertEquals("X..\nXO.\n.OX\n", Position.toString(p)); // one row per y
+
+        long big = Position.of(1 << 24, 1, true, GameState.X_WIN, 5, 5, 4);
+        assertEquals(1 << 24, Position.xMask(big));
+        assertEquals(1, Position.oMask(big));
+        assertEquals(GameState.X_WIN, Position.state(big));
+        assertEquals(5, Position.width(big));
+        assertEquals(5, Position.height(big));
+        assertEquals(4, Position.winLength(big));
+
+        assertThrows(IllegalArgumentException.class, () -> Position.of(0, 0, true, GameState.CONTINUE, 6, 5, 4));
+        assertThrows(IllegalArgumentException.class, () -> Position.of(1, 1, true, GameState.CONTINUE, 3, 3, 3));
+        assertThrows(IllegalArgumentException.class, () -> Position.of(1 << 9, 0, true, GameState.CONTINUE, 3, 3, 3));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testModelKeepsPositionCurrent() {
+        TicTacToeModel model = new TicTacToeModel();
+        model.startGame(TicTacToeModel.GameType.HUMAN);
+        assertEquals(Position.of(0, 0, true, GameState.CONTINUE, 3, 3, 3), model.getPosition());
+
+        int[][] moves = {{0, 0}, {1, 0}, {0, 1}, {1, 1}, {0, 2}};
+        for (int[] m : moves) {
+            GameState state = model.makeMove(new Point(m[0], m[1])).resultingState;
+            long p = model.getPosition();
+            assertEquals(model.getMask(CellValue.X), Position.xMask(p));
+            assertEquals(model.getMask(CellValue.O), Position.oMask(p));
+            assertEquals(model.previousPlayer().other(), Position.toMove(p));
+            assertEquals(state, Position.state(p));
+        }
+        assertEquals(GameState.X_WIN, Position.state(model.getPosition()));
+
+        model.undoMove();
+        assertEquals(GameState.CONTINUE, Position.state(model.getPosition()));
+        assertEquals(4, Position.moveCount(model.getPosition()));
+
+        // A restored game works its state out from the board.
+        model.redoMove();
+        TicTacToeModel copy = GameCodec.decode(java.nio.ByteBuffer.wrap(GameCodec.encode(model)));
+        assertEquals(model.getPosition(), copy.getPosition());
+
+        model.newGame();
+        assertEquals(0, Position.moveCount(model.getPosition()));
+        assertThrows(UnsupportedOperationException.class, () -> new TicTacToeModel(7, 7, 4).getPosition());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testReadersSeeOnlyWholePositions() throws InterruptedException {
+        TicTacToeModel model = new TicTacToeModel(5, 5, 4);
+        model.startGame(TicTacToeModel.GameType.HUMAN);
+        AtomicReference<String> problem = new AtomicReference<>();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread[] readers = new Thread[3];
+
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread(() -> {
+                while (!done.get()) {
+                    long p = model.getPosition();
+                    int x = Integer.bitCount(Position.xMask(p)), o = Integer.bitCount(Position.oMask(p));
+                    // X moves first, so after any whole move X has as many stones as O, or one more.
+                    if (x - o != (Position.toMove(p) == CellValue.X ? 0 : 1)) {
+                        problem.set(Position.toString(p));
+                    }
+                }
+            });
+            readers[i].start();
+        }
+
+        // Fills the board without a win, over and over: rows of alternating pairs.
+        for (int game = 0; game < 2000; game++) {
+            for (int cell = 0; cell < 25; cell++) {
+                if (model.makeMove(new Point(cell / 5, cell % 5)).resultingState != GameState.CONTINUE) {
+                    break;
+                }
+            }
+            model.newGame();
+        }
+        done.set(true);
+        for (Thread t : readers) {
+            t.join();
+        }
+
+        assertNull(problem.get());
+    }
+}
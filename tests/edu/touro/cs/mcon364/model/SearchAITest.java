@@ -0,0 +1,179 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchAITest {
+    @org.junit.jupiter.api.Test
+    void testNeverLosesClassic() {
+        for (CellValue team : new CellValue[]{CellValue.X, CellValue.O}) {
+            assertTrue(EveryReply.play(team, m -> new SearchTicTacToeAI(m, 1000, 10)) > 1);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testSolvesClassicOpening() {
+        TicTacToeModel model = new TicTacToeModel();
+        model.startGame(TicTacToeModel.GameType.HUMAN);
+        SearchTicTacToeAI ai = new SearchTicTacToeAI(model);
+
+        ai.calculateMove();
+        assertEquals(0, ai.getLastScore(), "The empty board is a draw");
+        assertEquals(9, ai.getLastDepth());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testBlocksOnFourByFour() {
+        TicTacToeModel model = new TicTacToeModel(4, 4, 4);
+        model.startGame(CellValue.O, SearchTicTacToeAI::new);
+
+        // X threatens the rest of column 1.
+        model.makeMove(new Point(1, 0));
+        model.aiMove();
+        model.makeMove(new Point(1, 1));
+        model.aiMove();
+        model.makeMove(new Point(1, 2));
+        model.aiMove();
+
+        assertEquals(CellValue.O, model.getSpace(1, 3));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testTakesWinOnGomokuBoard() {
+        TicTacToeModel model = new TicTacToeModel(15, 15, 5);
+        model.startGame(CellValue.X, m -> new SearchTicTacToeAI(m, 100, 16));
+
+        // Give X four in a row with both ends open while O plays far away.
+        int[][] moves = {{7, 3}, {0, 0}, {7, 4}, {0, 14}, {7, 5}, {14, 0}, {7, 6}, {14, 14}};
+        for (int[] m : moves) {
+            model.makeMove(new Point(m[0], m[1]));
+        }
+
+        assertEquals(GameState.X_WIN, model.aiMove().resultingState);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testParallelAgreesOnClassicValue() {
+        TicTacToeModel model = new TicTacToeModel();
+        model.startGame(TicTacToeModel.GameType.HUMAN);
+        model.makeMove(new Point(0, 0));
+
+        ParallelSearchTicTacToeAI ai = new ParallelSearchTicTacToeAI(model, 1000, 12, 4);
+        Point move = ai.calculateMove();
+
+        // The only reply to a corner opening that doesn't lose is the center.
+        assertEquals(new Point(1, 1), move);
+        assertEquals(0, ai.getLastScore());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testParallelAIsShareTheirPool() {
+        TicTacToeModel model = new TicTacToeModel(5, 5, 4);
+        model.startGame(TicTacToeModel.GameType.HUMAN);
+        new ParallelSearchTicTacToeAI(model, 50, 10, 3).calculateMove();
+        int threads = Thread.activeCount();
+
+        for (int game = 0; game < 20; game++) {
+            new ParallelSearchTicTacToeAI(model, 50, 10, 3).calculateMove();
+        }
+
+        assertTrue(Thread.activeCount() <= threads + 3);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testParallelTakesWinOnGomokuBoard() {
+        TicTacToeModel model = new TicTacToeModel(15, 15, 5);
+        model.startGame(CellValue.X, m -> new ParallelSearchTicTacToeAI(m, 100, 16, 4));
+
+        int[][] moves = {{3, 7}, {0, 0}, {4, 7}, {0, 14}, {5, 7}, {14, 0}, {6, 7}, {14, 14}};
+        for (int[] m : moves) {
+            model.makeMove(new Point(m[0], m[1]));
+        }
+
+        assertEquals(GameState.X_WIN, model.aiMove().resultingState);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testPonderHitIsPlayedWithoutSearching() throws InterruptedException {
+        TicTacToeModel model = new TicTacToeModel(7, 7, 4);
+        SearchTicTacToeAI[] ai = new SearchTicTacToeAI[1];
+        // Depth-limited, so pondering finishes however slow the machine; without it a move would take ten minutes.
+        model.startGame(CellValue.X, m -> ai[0] = new SearchTicTacToeAI(m, TimeUnit.MINUTES.toMillis(10), 16));
+        ai[0].setMaxDepth(2);
+        ai[0].setPondering(true);
+
+        model.aiMove();
+        Point reply = null;
+        for (int i = 0; i < 1000 && (reply == null || !ai[0].isPondered(reply)); i++) {
+            Thread.sleep(10);
+            reply = ai[0].getPredictedReply();
+        }
+        assertNotNull(reply, "no reply predicted");
+        assertTrue(ai[0].isPondered(reply), "reply never pondered");
+
+        model.makeMove(reply);
+        long nodesBefore = ai[0].getLastNodes();
+        MoveResult answer = model.aiMove();
+
+        assertTrue(ai[0].wasLastPonderHit());
+        assertEquals(nodesBefore, ai[0].getLastNodes()); // the normal search never ran
+        assertEquals(CellValue.X, model.getSpace(answer.moveX, answer.moveY));
+        ai[0].stopPondering();
+    }
+
+    @org.junit.jupiter.api.Test
+    void testPonderMissStillSearches() {
+        TicTacToeModel model = new TicTacToeModel(7, 7, 4);
+        SearchTicTacToeAI[] ai = new SearchTicTacToeAI[1];
+        model.startGame(CellValue.X, m -> ai[0] = new SearchTicTacToeAI(m, 100, 16));
+        ai[0].setPondering(true);
+
+        // Replying at once leaves no time to ponder anything.
+        model.aiMove();
+        firstFreeCell(model);
+
+        assertEquals(CellValue.X, model.previousPlayer().other());
+        model.aiMove();
+        assertFalse(ai[0].wasLastPonderHit());
+        assertEquals(CellValue.O, model.previousPlayer().other());
+        ai[0].stopPondering();
+    }
+
+    @org.junit.jupiter.api.Test
+    void testDefaultAIOnLargerBoard() {
+        TicTacToeModel model = new TicTacToeModel(5, 5, 4);
+        assertDoesNotThrow(() -> model.startGame(TicTacToeModel.GameType.COMPUTER));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testDefaultAIPondersOnLargerBoards() throws InterruptedException {
+        TicTacToeModel model = new TicTacToeModel(5, 5, 4);
+        SearchTicTacToeAI[] ai = new SearchTicTacToeAI[1];
+        model.startGame(CellValue.X, m -> ai[0] = (SearchTicTacToeAI) TicTacToeModel.defaultAI(false).apply(m));
+        assertTrue(ai[0].isPonderingEnabled());
+
+        model.aiMove(); // the human's turn, which the AI thinks on
+        for (int i = 0; i < 1000 && ai[0].getPredictedReply() == null; i++) {
+            Thread.sleep(10);
+        }
+        assertNotNull(ai[0].getPredictedReply());
+        model.newGame(); // stops pondering
+    }
+
+    private static void firstFreeCell(TicTacToeModel model) {
+        for (int x = 0; x < model.getWidth(); x++) {
+            for (int y = 0; y < model.getHeight(); y++) {
+                if (model.getSpace(x, y) == CellValue.NONE) {
+                    model.makeMove(new Point(x, y));
+                    return;
+                }
+            }
+        }
+    }
+}
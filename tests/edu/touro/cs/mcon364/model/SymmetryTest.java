@@ -0,0 +1,63 @@
+package edu.touro.cs.mcon364.model;
+
+import java.awt.*;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymmetryTest {
+    @org.junit.jupiter.api.Test
+    void testImagesShareCanonicalKey() {
+        int x = Bitboard.bit(0, 0) | Bitboard.bit(1, 2), o = Bitboard.bit(1, 1);
+        int expected = Symmetry.canonicalKey(x, o);
+        Set<Integer> images = new HashSet<>();
+
+        for (int t = 0; t < Symmetry.COUNT; t++) {
+            int tx = Symmetry.transformMask(x, t), to = Symmetry.transformMask(o, t);
+            images.add(Symmetry.key(tx, to));
+            assertEquals(expected, Symmetry.canonicalKey(tx, to));
+        }
+
+        // This position has no symmetry of its own, so all 8 images are distinct.
+        assertEquals(8, images.size());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testInverseUndoesTransform() {
+        for (int t = 0; t < Symmetry.COUNT; t++) {
+            for (int cell = 0; cell < Bitboard.CELLS; cell++) {
+                assertEquals(cell, Symmetry.transformCell(Symmetry.transformCell(cell, t), Symmetry.inverse(t)));
+            }
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testMoveMapsBackToOriginalBoard() {
+        int x = Bitboard.bit(2, 1), o = Bitboard.bit(0, 0);
+        int canonical = Symmetry.canonicalize(x, o);
+        int canonicalX = Symmetry.xMaskOf(Symmetry.canonicalKeyOf(canonical));
+
+        // X's stone on the canonical board must map back to (2, 1).
+        int canonicalCell = Integer.numberOfTrailingZeros(canonicalX);
+        assertEquals(Bitboard.index(2, 1), Symmetry.toOriginal(canonicalCell, canonical));
+        assertEquals(canonicalCell, Symmetry.toCanonical(Bitboard.index(2, 1), canonical));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testOpeningMovesCollapse() {
+        Set<Integer> keys = new HashSet<>();
+
+        for (int x = 0; x < 3; x++) {
+            for (int y = 0; y < 3; y++) {
+                TicTacToeModel model = new TicTacToeModel();
+                model.startGame(TicTacToeModel.GameType.HUMAN);
+                model.makeMove(new Point(x, y));
+                keys.add(Symmetry.canonicalKeyOf(model.getCanonicalPosition()));
+            }
+        }
+
+        // corner, side and center
+        assertEquals(3, keys.size());
+    }
+}
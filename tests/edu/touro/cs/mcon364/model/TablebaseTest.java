@@ -0,0 +1,177 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TablebaseTest {
+    private Path directory;
+
+    @org.junit.jupiter.api.AfterEach
+    void deleteTempFiles() throws IOException {
+        if (directory == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testClassicMatchesPerfectPlay() throws IOException {
+        directory = Files.createTempDirectory("tablebase");
+        Path file = directory.resolve("3x3-3.ttb");
+        Tablebase tablebase = new TablebaseBuilder(3, 3, 3).build(file, 2);
+        int checked = 0;
+
+        for (int x = 0; x <= Bitboard.FULL; x++) {
+            for (int o = 0; o <= Bitboard.FULL; o++) {
+                int xs = Integer.bitCount(x), os = Integer.bitCount(o);
+                int index = PerfectPlayTicTacToeAI.index(x, o);
+                if ((x & o) != 0 || (xs != os && xs != os + 1) || !PerfectPlayTicTacToeAI.isReachable(index)) {
+                    continue;
+                }
+
+                int entry = tablebase.probe(x, o);
+                assertEquals(PerfectPlayTicTacToeAI.outcome(index), Tablebase.outcomeOf(entry));
+                assertEquals(PerfectPlayTicTacToeAI.distance(index), Tablebase.distanceOf(entry));
+                assertEquals(PerfectPlayTicTacToeAI.bestMove(index) < 0, tablebase.bestMove(x, o) < 0);
+                checked++;
+            }
+        }
+
+        assertEquals(5478, checked);
+        assertEquals(Tablebase.DRAW, Tablebase.outcomeOf(tablebase.probe(0, 0)));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testIndexRoundTrip() {
+        TablebaseIndex index = new TablebaseIndex(4, 3, 3);
+
+        for (int layer = 0; layer <= index.cells; layer++) {
+            int xs = TablebaseIndex.xStones(layer), os = TablebaseIndex.oStones(layer);
+            int xMask = (1 << xs) - 1;
+            for (long xRank = 0; xRank < TablebaseIndex.choose(index.cells, xs); xRank++) {
+                assertEquals(xMask, TablebaseIndex.unrank(xRank, index.cells, xs));
+                int oMask = ~xMask & (1 << index.cells) - 1;
+                for (int i = Integer.bitCount(oMask) - os; i > 0; i--) {
+                    oMask &= oMask - 1; // keep the highest os free cells: the last O set for this X set
+                }
+
+                assertEquals((xRank + 1) * TablebaseIndex.choose(index.cells - xs, os) - 1, index.rank(xMask, oMask));
+                if (xRank + 1 < TablebaseIndex.choose(index.cells, xs)) {
+                    xMask = TablebaseIndex.nextCombination(xMask);
+                }
+            }
+        }
+
+        // a position and its mirror image share a slot, and only the canonical one of them has one
+        long a = index.canonical(0b0000_0000_0001, 0b0000_0001_0000);
+        long b = index.canonical(0b1000_0000_0000, 0b0000_1000_0000);
+        assertEquals(a, b);
+        assertTrue(index.slot((int) (a >>> 32), (int) a) >= 0);
+        assertEquals(-1, index.slot(0b1000_0000_0000, 0b0000_1000_0000));
+
+        // canonical positions fill each layer without gaps
+        for (int layer = 0; layer <= index.cells; layer++) {
+            int xs = TablebaseIndex.xStones(layer), os = TablebaseIndex.oStones(layer);
+            boolean[] used = new boolean[(int) index.layerSize(layer)];
+            for (int x = 0; x < 1 << index.cells; x++) {
+                if (Integer.bitCount(x) != xs) {
+                    continue;
+                }
+                for (int o = 0; o < 1 << index.cells; o++) {
+                    if ((x & o) != 0 || Integer.bitCount(o) != os) {
+                        continue;
+                    }
+                    int slot = index.slot(x, o);
+                    assertEquals(index.canonical(x, o) == ((long) x << 32 | o), slot >= 0);
+                    if (slot >= 0) {
+                        assertFalse(used[slot]);
+                        used[slot] = true;
+                    }
+                }
+            }
+            for (boolean u : used) {
+                assertTrue(u);
+            }
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testThreadsDontChangeTheFileAndTheAIKeepsItsResult() throws IOException {
+        directory = Files.createTempDirectory("tablebase");
+        Tablebase one = new TablebaseBuilder(4, 3, 3).build(directory.resolve("one.ttb"), 1);
+        TablebaseBuilder builder = new TablebaseBuilder(4, 3, 3);
+        Tablebase four = builder.build(directory.resolve("four.ttb"), 4);
+
+        assertEquals(-1, Files.mismatch(one.getFile(), four.getFile()));
+        long[] outcomes = four.countByOutcome();
+        assertEquals(builder.getSolved(), outcomes[0] + outcomes[1] + outcomes[2]);
+        assertEquals(builder.getSolved(), four.getSize()); // nothing but canonical positions
+        assertEquals(Tablebase.HEADER_SIZE + four.getSize(), Files.size(four.getFile()));
+
+        SplittableRandom random = new SplittableRandom(7);
+        for (CellValue team : new CellValue[]{CellValue.X, CellValue.O}) {
+            for (int game = 0; game < 200; game++) {
+                TicTacToeModel model = new TicTacToeModel(4, 3, 3);
+                model.startGame(team, m -> new TablebaseTicTacToeAI(m, four));
+
+                GameState state = GameState.CONTINUE;
+                int expected = Integer.MIN_VALUE; // what the AI is owed, from its first move
+                while (state == GameState.CONTINUE) {
+                    if (model.previousPlayer().other() == team) {
+                        if (expected == Integer.MIN_VALUE) {
+                            expected = Tablebase.outcomeOf(four.probe(model.getMask(CellValue.X), model.getMask(CellValue.O)));
+                        }
+                        state = model.aiMove().resultingState;
+                    } else {
+                        int empty = model.getLegalMoves();
+                        for (int skip = random.nextInt(Integer.bitCount(empty)); skip > 0; skip--) {
+                            empty &= empty - 1;
+                        }
+                        int cell = Integer.numberOfTrailingZeros(empty);
+                        state = model.makeMove(new Point(cell / 3, cell % 3)).resultingState;
+                    }
+                }
+
+                GameState won = team == CellValue.X ? GameState.X_WIN : GameState.O_WIN;
+                if (expected == Tablebase.WIN) {
+                    assertEquals(won, state);
+                } else if (expected == Tablebase.DRAW) {
+                    assertTrue(state == won || state == GameState.DRAW);
+                }
+            }
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testUnfinishedAndMismatchedTablebases() throws IOException {
+        directory = Files.createTempDirectory("tablebase");
+        Path file = directory.resolve("3x3-3.ttb");
+        Tablebase tablebase = new TablebaseBuilder(3, 3, 3).build(file, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> new TablebaseTicTacToeAI(new TicTacToeModel(4, 3, 3), tablebase));
+        assertThrows(IllegalArgumentException.class, () -> tablebase.probe(0b11, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TablebaseBuilder(5, 5, 4));
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES), 0); // as if the build had stopped part way
+        }
+        assertThrows(IOException.class, () -> Tablebase.open(file));
+    }
+}
@@ -0,0 +1,192 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+import java.awt.*;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UndoRedoTest {
+    @org.junit.jupiter.api.Test
+    void testUndoRestoresPositionAndTurn() {
+        TicTacToeModel model = new TicTacToeModel();
+        model.startGame(TicTacToeModel.GameType.HUMAN);
+        assertFalse(model.canUndo());
+        assertThrows(IllegalStateException.class, model::undoMove);
+
+        model.makeMove(new Point(0, 0));
+        model.makeMove(new Point(1, 1));
+        model.undoMove();
+
+        assertEquals(CellValue.NONE, model.getSpace(1, 1));
+        assertEquals(CellValue.X, model.getSpace(0, 0));
+        assertEquals(CellValue.O, model.previousPlayer().other());
+        assertTrue(model.canRedo());
+
+        assertEquals(1, model.redoMove().moveX);
+        assertEquals(CellValue.O, model.getSpace(1, 1));
+        assertFalse(model.canRedo());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testNewMoveEndsRedo() {
+        TicTacToeModel model = new TicTacToeModel(4, 4, 3);
+        model.startGame(TicTacToeModel.GameType.HUMAN);
+
+        model.makeMove(new Point(0, 0));
+        model.makeMove(new Point(1, 1));
+        model.makeMove(new Point(2, 2));
+        model.undoMove();
+        model.undoMove();
+        assertTrue(model.canRedo());
+
+        model.makeMove(new Point(3, 3));
+        assertFalse(model.canRedo());
+        assertThrows(IllegalStateException.class, model::redoMove);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testUndoOutOfAWin() {
+        TicTacToeModel model = new TicTacToeModel();
+        model.startGame(TicTacToeModel.GameType.HUMAN);
+
+        int[][] moves = {{0, 0}, {1, 0}, {0, 1}, {1, 1}, {0, 2}};
+        GameState state = null;
+        for (int[] m : moves) {
+            state = model.makeMove(new Point(m[0], m[1])).resultingState;
+        }
+        assertEquals(GameState.X_WIN, state);
+
+        model.undoMove();
+        assertEquals(GameState.CONTINUE, model.makeMove(new Point(2, 2)).resultingState);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testAIsFollowUndo() {
+        // These two only look at the position, so they must play exactly what a new AI would.
+        check(HardTicTacToeAI::new, true);
+        check(PerfectPlayTicTacToeAI::new, true);
+        // The search's choice between equal moves depends on what it searched before.
+        check(m -> new SearchTicTacToeAI(m, 1000, 12), false);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testListenersHearUndo() {
+        TicTacToeModel model = new TicTacToeModel();
+        model.startGame(TicTacToeModel.GameType.HUMAN);
+        int[] undone = new int[2];
+        model.addMoveListener(new TicTacToeModel.MoveListener() {
+            @Override
+            public void moveMade(TicTacToeModel model, TicTacToeModel.MoveResult move) {
+            }
+
+            @Override
+            public void moveUndone(TicTacToeModel model, int x, int y) {
+                undone[0] = x;
+                undone[1] = y;
+            }
+        });
+
+        model.makeMove(new Point(2, 1));
+        model.undoMove();
+        assertArrayEquals(new int[]{2, 1}, undone);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testUndoRedoAllocateOnlyTheResult() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return; // can't measure on this JVM
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        // A big board, so anything that grew with it would show.
+        TicTacToeModel model = new TicTacToeModel(15, 15, 5);
+        model.startGame(TicTacToeModel.GameType.HUMAN);
+        model.makeMove(new Point(7, 7));
+        model.makeMove(new Point(7, 8));
+
+        for (int i = 0; i < 200_000; i++) {
+            model.undoMove();
+            model.redoMove();
+        }
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 100_000; i++) {
+            model.undoMove();
+            model.redoMove();
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        // a MoveResult and its empty list of lines per redo, and nothing else
+        assertTrue(allocated < 100_000 * 128, allocated + " bytes allocated");
+    }
+
+    // Walks randomly back and forth through games. Whenever it's the AI's turn, its move is checked and
+    // taken back again.
+    private static void check(Function<TicTacToeModel, TicTacToeAI> factory, boolean exact) {
+        Random random = new Random(7);
+
+        for (CellValue team : new CellValue[]{CellValue.X, CellValue.O}) {
+            TicTacToeModel model = new TicTacToeModel();
+            model.startGame(team, factory);
+
+            for (int step = 0; step < 300; step++) {
+                if (model.canUndo() && (isOver(model) || random.nextInt(3) == 0)) {
+                    model.undoMove();
+                } else if (!isOver(model)) {
+                    int moves = model.getLegalMoves();
+                    for (int skip = random.nextInt(Integer.bitCount(moves)); skip > 0; skip--) {
+                        moves &= moves - 1;
+                    }
+                    int cell = Integer.numberOfTrailingZeros(moves);
+                    model.makeMove(new Point(cell / 3, cell % 3));
+                }
+
+                if (!isOver(model) && model.previousPlayer().other() == team) {
+                    int x = model.getMask(CellValue.X), o = model.getMask(CellValue.O);
+                    int position = PerfectPlayTicTacToeAI.index(x, o);
+
+                    TicTacToeModel.MoveResult move = model.aiMove();
+                    if (exact) {
+                        assertEquals(factory.apply(setUp(team, x, o)).calculateMove(), new Point(move.moveX, move.moveY));
+                    } else {
+                        int after = PerfectPlayTicTacToeAI.index(model.getMask(CellValue.X), model.getMask(CellValue.O));
+                        int value = isOver(model) ? PerfectPlayTicTacToeAI.WIN : -PerfectPlayTicTacToeAI.outcome(after);
+                        assertEquals(PerfectPlayTicTacToeAI.outcome(position), value);
+                    }
+                    model.undoMove();
+                }
+            }
+        }
+    }
+
+    private static boolean isOver(TicTacToeModel model) {
+        return Bitboard.isWin(model.getMask(CellValue.X)) || Bitboard.isWin(model.getMask(CellValue.O))
+                || model.getLegalMoves() == 0;
+    }
+
+    // A new model with the AI on team to play, at the given position, reached by alternating X and O.
+    private static TicTacToeModel setUp(CellValue team, int x, int o) {
+        TicTacToeModel model = new TicTacToeModel();
+        model.startGame(team, m -> null);
+
+        while ((x | o) != 0) {
+            int cell = Integer.numberOfTrailingZeros(x);
+            x &= x - 1;
+            model.makeMove(new Point(cell / 3, cell % 3));
+
+            if (o != 0) {
+                cell = Integer.numberOfTrailingZeros(o);
+                o &= o - 1;
+                model.makeMove(new Point(cell / 3, cell % 3));
+            }
+        }
+
+        return model;
+    }
+}
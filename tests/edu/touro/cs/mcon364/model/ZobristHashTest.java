@@ -0,0 +1,109 @@
+package edu.touro.cs.mcon364.model;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+
+import java.awt.*;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZobristHashTest {
+    @org.junit.jupiter.api.Test
+    void testIncrementalMatchesFromScratch() {
+        Random random = new Random(3);
+        TicTacToeModel model = new TicTacToeModel(6, 5, 4);
+        model.startGame(TicTacToeModel.GameType.HUMAN);
+        model.getSymmetricHash(); // tracked from the start
+
+        for (int step = 0; step < 500; step++) {
+            int x = random.nextInt(6), y = random.nextInt(5);
+            if (model.canUndo() && random.nextInt(3) == 0) {
+                model.undoMove();
+            } else if (model.getSpace(x, y) == CellValue.NONE) {
+                if (model.makeMove(new Point(x, y)).resultingState != TicTacToeModel.MoveResult.GameState.CONTINUE) {
+                    model.undoMove();
+                }
+            }
+
+            TicTacToeModel fresh = GameCodec.decode(ByteBuffer.wrap(GameCodec.encode(model)));
+            assertEquals(fresh.getHash(), model.getHash());
+            assertEquals(fresh.getSymmetricHash(), model.getSymmetricHash());
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testSymmetricHashOnClassicBoard() {
+        // Every reachable position: the symmetric hash must split them exactly as canonical keys do.
+        Set<Integer> canonical = new HashSet<>();
+        Set<Long> hashes = new HashSet<>();
+
+        for (int index = 0; index < 19683; index++) {
+            if (!PerfectPlayTicTacToeAI.isReachable(index)) {
+                continue;
+            }
+
+            int x = 0, o = 0;
+            for (int cell = 0, rest = index; cell < Bitboard.CELLS; cell++, rest /= 3) {
+                if (rest % 3 == 1) {
+                    x |= 1 << cell;
+                } else if (rest % 3 == 2) {
+                    o |= 1 << cell;
+                }
+            }
+
+            Board board = new Board(3, 3, 3);
+            for (int cell = 0; cell < Bitboard.CELLS; cell++) {
+                if ((x & 1 << cell) != 0) {
+                    board.place(cell, CellValue.X);
+                } else if ((o & 1 << cell) != 0) {
+                    board.place(cell, CellValue.O);
+                }
+            }
+
+            canonical.add(Symmetry.canonicalKey(x, o));
+            hashes.add(board.getSymmetricHash());
+        }
+
+        assertEquals(canonical.size(), hashes.size());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testRectangularBoardHasFourSymmetries() {
+        Board a = new Board(5, 3, 3), b = new Board(5, 3, 3), c = new Board(5, 3, 3);
+        a.place(a.index(0, 0), CellValue.X);
+        a.place(a.index(1, 2), CellValue.O);
+
+        // Both flipped, which is a symmetry of any rectangle.
+        b.place(b.index(4, 2), CellValue.X);
+        b.place(b.index(3, 0), CellValue.O);
+
+        // Transposed, which isn't.
+        c.place(c.index(0, 0), CellValue.X);
+        c.place(c.index(2, 1), CellValue.O);
+
+        assertEquals(a.getSymmetricHash(), b.getSymmetricHash());
+        assertNotEquals(a.getSymmetricHash(), c.getSymmetricHash());
+        assertNotEquals(a.getHash(), b.getHash());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testHashIgnoresMoveOrder() {
+        TicTacToeModel a = new TicTacToeModel(), b = new TicTacToeModel();
+        a.startGame(TicTacToeModel.GameType.HUMAN);
+        b.startGame(TicTacToeModel.GameType.HUMAN);
+
+        for (int[] m : new int[][]{{0, 0}, {1, 1}, {2, 2}}) {
+            a.makeMove(new Point(m[0], m[1]));
+        }
+        for (int[] m : new int[][]{{2, 2}, {1, 1}, {0, 0}}) {
+            b.makeMove(new Point(m[0], m[1]));
+        }
+
+        assertEquals(a.getHash(), b.getHash());
+        a.newGame();
+        assertEquals(0, a.getHash());
+    }
+}
@@ -0,0 +1,197 @@
+package edu.touro.cs.mcon364.persistence;
+
+import edu.touro.cs.mcon364.model.Bitboard;
+import edu.touro.cs.mcon364.model.HardTicTacToeAI;
+import edu.touro.cs.mcon364.model.RandomTicTacToeAI;
+import edu.touro.cs.mcon364.model.Symmetry;
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+import edu.touro.cs.mcon364.tools.Tournament;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameArchiveTest {
+    private Path directory;
+
+    @org.junit.jupiter.api.AfterEach
+    void deleteTempFiles() throws IOException {
+        if (directory == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testGamesReadBack() throws IOException {
+        directory = Files.createTempDirectory("archive");
+        Path file = directory.resolve("games.tta");
+
+        byte[][] games = {{4, 0, 8, 2, 1, 7, 6, 3, 5}, {0, 3, 1, 4, 2}, {}};
+        GameState[] results = {GameState.DRAW, GameState.X_WIN, GameState.CONTINUE};
+        try (GameArchiveWriter writer = new GameArchiveWriter(file)) {
+            for (int i = 0; i < games.length; i++) {
+                writer.append(games[i], games[i].length, results[i]);
+            }
+        }
+
+        // 4 file header + 4 block header + (1 + 5) + (1 + 3) + 1
+        assertEquals(19, Files.size(file));
+
+        List<Long> offsets = new ArrayList<>();
+        try (GameArchiveReader reader = new GameArchiveReader(file)) {
+            reader.forEach((offset, cells, moves, result) -> offsets.add(offset));
+            assertEquals(3, offsets.size());
+
+            for (int i = 0; i < games.length; i++) {
+                ArchivedGame game = reader.readGame(offsets.get(i));
+                assertEquals(results[i], game.result);
+                assertEquals(games[i].length, game.getMoveCount());
+                for (int m = 0; m < games[i].length; m++) {
+                    int expected = games[i][m];
+                    assertEquals(expected, game.getMove(m));
+                }
+            }
+
+            assertEquals(CellValue.X, reader.readGame(offsets.get(1)).replay().getSpace(0, 2));
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testRejectsBigBoards() throws IOException {
+        directory = Files.createTempDirectory("archive");
+        Path file = directory.resolve("games.tta");
+
+        try (GameArchiveWriter writer = new GameArchiveWriter(file)) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> writer.append(new byte[]{12}, 1, GameState.CONTINUE));
+            assertThrows(IllegalArgumentException.class,
+                    () -> writer.append(new byte[]{4, (byte) 200}, 2, GameState.CONTINUE));
+            assertThrows(IllegalArgumentException.class,
+                    () -> writer.append(new byte[]{4, 0, -1}, 3, GameState.CONTINUE));
+            writer.append(new byte[]{4, 0, 8}, 3, GameState.CONTINUE);
+        }
+
+        // the rejected games left nothing behind
+        try (GameArchiveReader reader = new GameArchiveReader(file)) {
+            List<Long> offsets = new ArrayList<>();
+            reader.forEach((offset, cells, moves, result) -> offsets.add(offset));
+            assertEquals(1, offsets.size());
+            assertEquals(3, reader.readGame(offsets.get(0)).getMoveCount());
+        }
+
+        Tournament tournament = new Tournament(RandomTicTacToeAI::new, RandomTicTacToeAI::new, 12, 11, 5);
+        assertThrows(IllegalStateException.class, () -> tournament.setGameListener((cells, moves, result) -> {
+        }));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testIndexMatchesBruteForce() throws IOException {
+        directory = Files.createTempDirectory("archive");
+        Path archive = directory.resolve("games.tta"), index = directory.resolve("games.tti");
+
+        // Games from several threads, counted by canonical position as they are archived.
+        Map<Integer, long[]> expected = new HashMap<>();
+        Tournament tournament = new Tournament(HardTicTacToeAI::new, RandomTicTacToeAI::new);
+        try (GameArchiveWriter writer = new GameArchiveWriter(archive)) {
+            tournament.setGameListener((cells, moves, result) -> {
+                try {
+                    writer.append(cells, moves, result);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+
+                synchronized (expected) {
+                    int x = 0, o = 0;
+                    count(expected, x, o, result);
+                    for (int i = 0; i < moves; i++) {
+                        if ((i & 1) == 0) {
+                            x |= 1 << cells[i];
+                        } else {
+                            o |= 1 << cells[i];
+                        }
+                        count(expected, x, o, result);
+                    }
+                }
+            });
+            tournament.play(20_000, 3);
+        }
+
+        GameArchiveIndex.build(archive, index, 3);
+
+        try (GameArchiveIndex lookup = new GameArchiveIndex(index);
+             GameArchiveReader reader = new GameArchiveReader(archive)) {
+            assertEquals(20_000, lookup.getGameCount());
+
+            for (Map.Entry<Integer, long[]> e : expected.entrySet()) {
+                int key = e.getKey();
+                PositionStats stats = lookup.lookup(key & Bitboard.FULL, key >>> Bitboard.CELLS);
+                long[] counts = e.getValue();
+
+                assertEquals(counts[0], stats.xWins);
+                assertEquals(counts[1], stats.oWins);
+                assertEquals(counts[2], stats.draws);
+                assertEquals(counts[3], stats.unfinished);
+            }
+
+            // Every posting is a game that really went through the position.
+            int key = Symmetry.canonicalKey(0b000_010_000, 0b000_000_001);
+            PositionStats stats = lookup.lookup(key & Bitboard.FULL, key >>> Bitboard.CELLS);
+            long[] offsets = lookup.gameOffsets(stats, 0, Integer.MAX_VALUE);
+            assertEquals(stats.getGames(), offsets.length);
+
+            for (long offset : offsets) {
+                ArchivedGame game = reader.readGame(offset);
+                int x = 1 << game.getMove(0), o = 1 << game.getMove(1);
+                assertEquals(key, Symmetry.canonicalKey(x, o));
+            }
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testLookupIgnoresSymmetry() throws IOException {
+        directory = Files.createTempDirectory("archive");
+        Path archive = directory.resolve("games.tta"), index = directory.resolve("games.tti");
+
+        try (GameArchiveWriter writer = new GameArchiveWriter(archive)) {
+            writer.append(new byte[]{0, 4, 8}, 3, GameState.CONTINUE);
+            writer.append(new byte[]{2, 4, 6}, 3, GameState.CONTINUE);
+            writer.append(new byte[]{1, 4, 7}, 3, GameState.CONTINUE);
+        }
+        GameArchiveIndex.build(archive, index, 2);
+
+        try (GameArchiveIndex lookup = new GameArchiveIndex(index)) {
+            // Opposite corners, either way round, are one position.
+            long corners = lookup.lookup(0b001_000_100, 0b000_010_000).getGames();
+            assertEquals(2, corners);
+            long edges = lookup.lookup(0b000_101_000, 0b000_010_000).getGames();
+            assertEquals(1, edges);
+            assertNull(lookup.lookup(0b111_000_000, 0b000_111_000)); // both sides have won
+            assertEquals(765, GameArchiveIndex.positionCount());
+        }
+    }
+
+    private static void count(Map<Integer, long[]> counts, int x, int o, GameState result) {
+        int bucket = switch (result) {
+            case X_WIN -> 0;
+            case O_WIN -> 1;
+            case DRAW -> 2;
+            case CONTINUE -> 3;
+        };
+        counts.computeIfAbsent(Symmetry.canonicalKey(x, o), k -> new long[4])[bucket]++;
+    }
+}
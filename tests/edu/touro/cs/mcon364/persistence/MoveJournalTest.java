@@ -0,0 +1,318 @@
+package edu.touro.cs.mcon364.persistence;
+
+import edu.touro.cs.mcon364.model.TicTacToeModel;
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.GameType;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveJournalTest {
+    private Path dir;
+
+    @org.junit.jupiter.api.AfterEach
+    void deleteTempFiles() throws IOException {
+        if (dir == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testInterleavedGamesRecover() throws IOException {
+        dir = Files.createTempDirectory("journal");
+        Path file = dir.resolve("moves.journal");
+
+        TicTacToeModel a = new TicTacToeModel(), b = new TicTacToeModel(7, 7, 4);
+        a.startGame(GameType.HUMAN);
+        b.startGame(CellValue.O, m -> null);
+
+        long idA, idB;
+        try (MoveJournal journal = new MoveJournal(file, MoveJournal.Durability.NONE)) {
+            idA = journal.record(a);
+            idB = journal.record(b);
+
+            a.makeMove(new Point(0, 0));
+            a.makeMove(new Point(1, 1));
+            b.makeMove(new Point(3, 3));
+            a.makeMove(new Point(0, 1));
+            a.makeMove(new Point(2, 2));
+            a.makeMove(new Point(0, 2));
+            b.makeMove(new Point(6, 6));
+        }
+
+        // 4 file header + 2 * 13 game headers + 4 * 2 slot switches + 7 moves
+        assertEquals(4 + 26 + 8 + 7, Files.size(file));
+
+        List<RecoveredGame> games = MoveJournal.recover(file);
+        assertEquals(2, games.size());
+
+        RecoveredGame ra = games.get(0), rb = games.get(1);
+        assertEquals(idA, ra.id);
+        assertEquals(5, ra.moves);
+        assertEquals(GameState.X_WIN, ra.state);
+        assertEquals(a.getMask(CellValue.X), ra.model.getMask(CellValue.X));
+        assertEquals(a.getMask(CellValue.O), ra.model.getMask(CellValue.O));
+
+        assertEquals(idB, rb.id);
+        assertEquals(GameState.CONTINUE, rb.state);
+        assertEquals(CellValue.O, rb.model.getAiTeam());
+        assertEquals(CellValue.X, rb.model.getSpace(3, 3));
+        assertEquals(CellValue.O, rb.model.getSpace(6, 6));
+        assertEquals(CellValue.O, rb.model.previousPlayer());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testManyConcurrentGamesCostThreeBytesAMove() throws Exception {
+        dir = Files.createTempDirectory("journal");
+        Path file = dir.resolve("moves.journal");
+        int threads = 8, gamesEach = 16, moves = 20;
+
+        try (MoveJournal journal = new MoveJournal(file, MoveJournal.Durability.NONE)) {
+            List<Thread> players = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                List<TicTacToeModel> games = new ArrayList<>();
+                for (int g = 0; g < gamesEach; g++) {
+                    TicTacToeModel model = new TicTacToeModel(9, 9, 5);
+                    model.startGame(GameType.HUMAN);
+                    journal.record(model);
+                    games.add(model);
+                }
+                // Each thread takes its games in turn, so no two moves in a row are from one game.
+                players.add(new Thread(() -> {
+                    for (int i = 0; i < moves; i++) {
+                        for (TicTacToeModel model : games) {
+                            model.makeMove(new Point(i % 9, i / 9 * 2 + (i % 2)));
+                        }
+                    }
+                }));
+            }
+            players.forEach(Thread::start);
+            for (Thread t : players) {
+                t.join();
+            }
+        }
+
+        int games = threads * gamesEach, played = games * moves;
+        long headers = 4 + 13L * games;
+        // a move, and at most a two-byte switch before it
+        assertTrue(Files.size(file) - headers <= 3L * played, Files.size(file) + " bytes");
+        assertTrue(Files.size(file) - headers > 2L * played); // nearly every move did switch
+
+        List<RecoveredGame> recovered = MoveJournal.recover(file);
+        assertEquals(games, recovered.size());
+        for (RecoveredGame game : recovered) {
+            assertEquals(moves, game.moves);
+            assertEquals(CellValue.X, game.model.getSpace(0, 0));
+            assertEquals(CellValue.O, game.model.getSpace(1, 1));
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testGameWhoseSlotWasTakenIsSwitchedToById() throws IOException {
+        dir = Files.createTempDirectory("journal");
+        Path file = dir.resolve("moves.journal");
+
+        TicTacToeModel first = new TicTacToeModel();
+        first.startGame(GameType.HUMAN);
+        TicTacToeModel last = new TicTacToeModel();
+        last.startGame(GameType.HUMAN);
+
+        long size;
+        try (MoveJournal journal = new MoveJournal(file, MoveJournal.Durability.NONE)) {
+            long id = journal.record(first);
+            for (int i = 1; i < MoveJournal.SLOTS; i++) {
+                journal.record(new TicTacToeModel());
+            }
+            assertEquals(id + MoveJournal.SLOTS, journal.record(last)); // takes first's slot
+
+            size = journal.size();
+            first.makeMove(new Point(1, 1));
+            assertEquals(size + 9 + 1, journal.size());
+            last.makeMove(new Point(0, 0));
+            assertEquals(size + 9 + 1 + 2 + 1, journal.size());
+        }
+
+        List<RecoveredGame> games = MoveJournal.recover(file);
+        assertEquals(MoveJournal.SLOTS + 1, games.size());
+        assertEquals(CellValue.X, games.get(0).model.getSpace(1, 1));
+        assertEquals(CellValue.X, games.get(MoveJournal.SLOTS).model.getSpace(0, 0));
+        assertEquals(1, games.get(0).moves);
+        assertEquals(1, games.get(MoveJournal.SLOTS).moves);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testVersionOneJournalIsReadAndUpgraded() throws IOException {
+        dir = Files.createTempDirectory("journal");
+        Path file = dir.resolve("moves.journal");
+
+        // a version 1 file: one classic game, with X in the middle
+        ByteBuffer v1 = ByteBuffer.allocate(4 + 13 + 1).putInt(MoveJournal.MAGIC_V1)
+                .put((byte) MoveJournal.TAG_GAME).putLong(1).put((byte) 3).put((byte) 3).put((byte) 3).put((byte) 0)
+                .put((byte) (4 + 1));
+        Files.write(file, v1.array());
+        assertEquals(CellValue.X, MoveJournal.recover(file).get(0).model.getSpace(1, 1));
+
+        RecoveredGame game = MoveJournal.recover(file).get(0);
+        try (MoveJournal journal = new MoveJournal(file, MoveJournal.Durability.NONE)) {
+            journal.resume(game.id, game.model);
+            game.model.makeMove(new Point(0, 0));
+        }
+
+        assertEquals(MoveJournal.MAGIC, ByteBuffer.wrap(Files.readAllBytes(file)).getInt());
+        assertEquals(CellValue.O, MoveJournal.recover(file).get(0).model.getSpace(0, 0));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testReopenAppendsAndResumes() throws IOException {
+        dir = Files.createTempDirectory("journal");
+        Path file = dir.resolve("moves.journal");
+
+        TicTacToeModel model = new TicTacToeModel(16, 16, 5);
+        model.startGame(GameType.HUMAN);
+        try (MoveJournal journal = new MoveJournal(file, MoveJournal.Durability.GROUP_COMMIT, 1)) {
+            journal.record(model);
+            model.makeMove(new Point(0, 0));
+            model.makeMove(new Point(15, 15)); // cell 255 takes the three byte form
+        }
+
+        RecoveredGame game = MoveJournal.recover(file).get(0);
+        try (MoveJournal journal = new MoveJournal(file, MoveJournal.Durability.EVERY_RECORD)) {
+            journal.resume(game.id, game.model);
+            game.model.makeMove(new Point(8, 8));
+
+            TicTacToeModel other = new TicTacToeModel();
+            other.startGame(GameType.HUMAN);
+            assertEquals(game.id + 1, journal.record(other));
+        }
+
+        List<RecoveredGame> games = MoveJournal.recover(file);
+        assertEquals(2, games.size());
+        assertEquals(3, games.get(0).moves);
+        assertEquals(CellValue.O, games.get(0).model.getSpace(15, 15));
+        assertEquals(CellValue.X, games.get(0).model.getSpace(8, 8));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testNewGameAndExistingStones() throws IOException {
+        dir = Files.createTempDirectory("journal");
+        Path file = dir.resolve("moves.journal");
+
+        TicTacToeModel model = new TicTacToeModel();
+        model.startGame(GameType.HUMAN);
+        model.makeMove(new Point(2, 0));
+        model.makeMove(new Point(0, 0));
+        model.makeMove(new Point(1, 1));
+
+        try (MoveJournal journal = new MoveJournal(file, MoveJournal.Durability.NONE)) {
+            journal.record(model);
+            model.newGame();
+            model.makeMove(new Point(2, 2));
+        }
+
+        List<RecoveredGame> games = MoveJournal.recover(file);
+        assertEquals(2, games.size());
+        assertEquals(3, games.get(0).moves);
+        assertEquals(CellValue.X, games.get(0).model.getSpace(2, 0));
+        assertEquals(CellValue.O, games.get(0).model.getSpace(0, 0));
+        assertEquals(1, games.get(1).moves);
+
+        // the stones already down are written in the order they were played, not board order
+        List<Integer> cells = new ArrayList<>();
+        new JournalReader(file).read(new JournalReader.Visitor() {
+            @Override
+            public void game(long id, int width, int height, int winLength, CellValue aiTeam) {
+            }
+
+            @Override
+            public void move(long id, int cell) {
+                cells.add(cell);
+            }
+        });
+        assertEquals(List.of(6, 0, 4, 8), cells);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testUndoIsReplayed() throws IOException {
+        dir = Files.createTempDirectory("journal");
+        Path file = dir.resolve("moves.journal");
+
+        TicTacToeModel model = new TicTacToeModel();
+        model.startGame(GameType.HUMAN);
+
+        try (MoveJournal journal = new MoveJournal(file, MoveJournal.Durability.NONE)) {
+            journal.record(model);
+            model.makeMove(new Point(1, 1));
+            model.makeMove(new Point(0, 0));
+            model.undoMove();
+            model.makeMove(new Point(2, 2));
+        }
+
+        // 4 file header + 13 game header + 3 moves + 1 undo: the header isn't written again
+        assertEquals(4 + 13 + 3 + 1, Files.size(file));
+
+        List<RecoveredGame> games = MoveJournal.recover(file);
+        assertEquals(1, games.size());
+        assertEquals(2, games.get(0).moves);
+        assertEquals(CellValue.NONE, games.get(0).model.getSpace(0, 0));
+        assertEquals(CellValue.O, games.get(0).model.getSpace(2, 2));
+        assertEquals(CellValue.X, games.get(0).model.getSpace(1, 1));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testReaderStopsAtTornRecord() throws IOException {
+        dir = Files.createTempDirectory("journal");
+        Path file = dir.resolve("moves.journal");
+
+        TicTacToeModel model = new TicTacToeModel();
+        model.startGame(GameType.HUMAN);
+        try (MoveJournal journal = new MoveJournal(file, MoveJournal.Durability.NONE)) {
+            journal.record(model);
+            model.makeMove(new Point(1, 1));
+        }
+
+        // A crash in the middle of writing a switch record: its body is there, its tag isn't.
+        byte[] torn = new byte[1 << 12];
+        torn[1] = 7;
+        torn[5] = 3;
+        Files.write(file, torn, java.nio.file.StandardOpenOption.APPEND);
+
+        List<Integer> cells = new ArrayList<>();
+        long end = new JournalReader(file).read(new JournalReader.Visitor() {
+            @Override
+            public void game(long id, int width, int height, int winLength, CellValue aiTeam) {
+            }
+
+            @Override
+            public void move(long id, int cell) {
+                cells.add(cell);
+            }
+        });
+        assertEquals(4 + 13 + 1, end);
+        assertEquals(List.of(4), cells);
+
+        // Reopening writes over the torn record, and clears what was left of it.
+        TicTacToeModel next = new TicTacToeModel();
+        next.startGame(GameType.HUMAN);
+        try (MoveJournal journal = new MoveJournal(file, MoveJournal.Durability.NONE)) {
+            journal.record(next);
+            next.makeMove(new Point(0, 0));
+        }
+        assertEquals(2, MoveJournal.recover(file).size());
+        assertEquals(4 + 2 * 14, Files.size(file));
+    }
+}
@@ -0,0 +1,110 @@
+package edu.touro.cs.mcon364.persistence;
+
+import edu.touro.cs.mcon364.model.HardTicTacToeAI;
+import edu.touro.cs.mcon364.model.TicTacToeModel;
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.GameType;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SaveStoreTest {
+    private Path dir;
+
+    @org.junit.jupiter.api.AfterEach
+    void deleteTempFiles() throws IOException {
+        if (dir == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testSaveAndLoad() throws IOException {
+        dir = Files.createTempDirectory("save-store");
+        Path file = dir.resolve("save.bin");
+
+        try (SaveStore store = new SaveStore(file)) {
+            assertTrue(store.load().join().isEmpty());
+
+            TicTacToeModel model = new TicTacToeModel();
+            model.startGame(CellValue.O, HardTicTacToeAI::new);
+            model.makeMove(new Point(0, 0));
+            model.aiMove();
+
+            store.save(model).join();
+            assertEquals(4, Files.size(file));
+            assertFalse(Files.exists(dir.resolve("save.bin.tmp")));
+
+            TicTacToeModel loaded = store.load().join().orElseThrow();
+            assertEquals(model.getMask(CellValue.X), loaded.getMask(CellValue.X));
+            assertEquals(model.getMask(CellValue.O), loaded.getMask(CellValue.O));
+            assertEquals(CellValue.O, loaded.getAiTeam());
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testNewestSnapshotWins() throws IOException {
+        dir = Files.createTempDirectory("save-store");
+        Path file = dir.resolve("save.bin");
+
+        try (SaveStore store = new SaveStore(file)) {
+            TicTacToeModel model = new TicTacToeModel(15, 15, 5);
+            model.startGame(GameType.HUMAN);
+
+            List<CompletableFuture<Void>> saves = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                model.makeMove(new Point(i, i * 2 % 15));
+                saves.add(store.save(model));
+            }
+            saves.forEach(CompletableFuture::join);
+
+            // A load is queued behind the saves, so it sees the last one.
+            TicTacToeModel loaded = store.load().join().orElseThrow();
+            for (int i = 0; i < 10; i++) {
+                assertEquals(i % 2 == 0 ? CellValue.X : CellValue.O, loaded.getSpace(i, i * 2 % 15));
+            }
+            assertEquals(CellValue.O, loaded.previousPlayer());
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testCorruptSaveFailsToLoad() throws IOException {
+        dir = Files.createTempDirectory("save-store");
+        Path file = dir.resolve("save.bin");
+        Files.write(file, new byte[]{(byte) 0xAC, (byte) 0xED, 0, 5});
+
+        try (SaveStore store = new SaveStore(file)) {
+            assertThrows(CompletionException.class, () -> store.load().join());
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testSaveAndLoadAfterCloseFail() throws IOException {
+        dir = Files.createTempDirectory("save-store");
+        SaveStore store = new SaveStore(dir.resolve("save.bin"));
+        store.close();
+
+        TicTacToeModel model = new TicTacToeModel();
+        model.startGame(GameType.HUMAN);
+        // Both hand back a failed future rather than throwing.
+        CompletableFuture<Void> save = store.save(model);
+        CompletableFuture<?> load = store.load();
+        assertThrows(CompletionException.class, save::join);
+        assertThrows(CompletionException.class, load::join);
+    }
+}
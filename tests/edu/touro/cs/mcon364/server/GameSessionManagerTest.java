@@ -0,0 +1,112 @@
+package edu.touro.cs.mcon364.server;
+
+import edu.touro.cs.mcon364.model.HardTicTacToeAI;
+import edu.touro.cs.mcon364.model.TicTacToeModel;
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.model.TicTacToeModel.GameType;
+import edu.touro.cs.mcon364.model.TicTacToeModel.MoveResult.GameState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSessionManagerTest {
+    @org.junit.jupiter.api.Test
+    void testHumanGameToWin() {
+        try (GameSessionManager manager = new GameSessionManager()) {
+            long id = manager.createGame(3, 3, 3, GameType.HUMAN).getId();
+
+            int[][] moves = {{0, 0}, {1, 0}, {0, 1}, {1, 1}, {0, 2}};
+            TurnResult last = null;
+            for (int[] m : moves) {
+                last = manager.submitMove(id, m[0], m[1]).join();
+            }
+
+            assertEquals(GameState.X_WIN, last.finalState());
+            assertNull(last.aiMove);
+            assertEquals(GameState.X_WIN, manager.find(id).orElseThrow().getState());
+
+            CompletionException e = assertThrows(CompletionException.class, () -> manager.submitMove(id, 2, 2).join());
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testComputerOpensAndReplies() {
+        try (GameSessionManager manager = new GameSessionManager()) {
+            TicTacToeModel model = new TicTacToeModel();
+            model.startGame(CellValue.X, HardTicTacToeAI::new);
+            GameSession session = manager.createGame(model);
+
+            assertNotNull(session.getOpeningMove().join());
+            int free = Integer.numberOfTrailingZeros(manager.query(session.getId(), TicTacToeModel::getLegalMoves).join());
+
+            TurnResult turn = manager.submitMove(session.getId(), free / 3, free % 3).join();
+            assertNotNull(turn.aiMove);
+            assertEquals(CellValue.X, manager.query(session.getId(), TicTacToeModel::previousPlayer).join());
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testIllegalMovesAndUnknownGames() {
+        try (GameSessionManager manager = new GameSessionManager()) {
+            long id = manager.createGame(3, 3, 3, GameType.HUMAN).getId();
+            manager.submitMove(id, 1, 1).join();
+
+            CompletionException e = assertThrows(CompletionException.class, () -> manager.submitMove(id, 1, 1).join());
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+
+            // The session keeps going after a failed task.
+            assertDoesNotThrow(() -> manager.submitMove(id, 0, 0).join());
+
+            e = assertThrows(CompletionException.class, () -> manager.submitMove(id + 1, 0, 0).join());
+            assertTrue(e.getCause() instanceof NoSuchElementException);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testMovesAreAppliedInOrder() {
+        int[] cells = {12, 3, 24, 7, 0, 18};
+
+        try (GameSessionManager manager = new GameSessionManager()) {
+            List<Long> ids = new ArrayList<>();
+            List<CompletableFuture<TurnResult>> turns = new ArrayList<>();
+
+            // Queue every move of many games before any of them has run.
+            for (int game = 0; game < 50; game++) {
+                long id = manager.createGame(5, 5, 5, GameType.HUMAN).getId();
+                ids.add(id);
+                for (int cell : cells) {
+                    turns.add(manager.submitMove(id, cell / 5, cell % 5));
+                }
+            }
+            turns.forEach(CompletableFuture::join);
+
+            int xMask = 1 << 12 | 1 << 24 | 1;
+            for (long id : ids) {
+                int actual = manager.query(id, m -> m.getMask(CellValue.X)).join();
+                assertEquals(xMask, actual);
+            }
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testIdleSessionsAreEvicted() throws InterruptedException {
+        try (GameSessionManager manager = new GameSessionManager(50)) {
+            long id = manager.createGame(3, 3, 3, GameType.HUMAN).getId();
+            assertTrue(manager.find(id).isPresent());
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (manager.find(id).isPresent() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertFalse(manager.find(id).isPresent());
+            assertEquals(0, manager.size());
+        }
+    }
+}
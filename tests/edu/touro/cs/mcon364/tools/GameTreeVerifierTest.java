@@ -0,0 +1,109 @@
+package edu.touro.cs.mcon364.tools;
+
+import edu.touro.cs.mcon364.model.HardTicTacToeAI;
+import edu.touro.cs.mcon364.model.PerfectPlayTicTacToeAI;
+import edu.touro.cs.mcon364.model.RandomTicTacToeAI;
+import edu.touro.cs.mcon364.model.TicTacToeAI;
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+
+import java.awt.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameTreeVerifierTest {
+    @org.junit.jupiter.api.Test
+    void testPerfectPlayPasses() {
+        GameTreeVerifier.Result r = new GameTreeVerifier(PerfectPlayTicTacToeAI::new).verify(4);
+
+        assertTrue(r.passed(), r.toString());
+        assertEquals(GameTreeVerifier.GAMES, r.games);
+        assertEquals(GameTreeVerifier.POSITIONS, r.positions);
+        assertEquals(131_184, r.xWins);
+        assertEquals(77_904, r.oWins);
+        assertEquals(46_080, r.draws);
+        assertTrue(r.aiGames > 0);
+        assertNull(r.firstProblem);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testLossesAreFound() {
+        // Always takes the first empty cell, so as O it never stops a line down the board.
+        GameTreeVerifier.Result r = new GameTreeVerifier(m -> new TicTacToeAI() {
+            @Override
+            public Point calculateMove() {
+                for (int cell = 0; ; cell++) {
+                    if (m.getSpace(cell / 3, cell % 3) == CellValue.NONE) {
+                        return new Point(cell / 3, cell % 3);
+                    }
+                }
+            }
+
+            @Override
+            public void submitMoveToAI(Point loc) {
+            }
+        }).verify(2);
+
+        assertFalse(r.passed());
+        assertTrue(r.aiLosses > 0);
+        assertEquals(r.aiLosses, r.losses.size());
+        assertTrue(r.losses.contains("As O, lost O.X/O.X/..X/ after [8, 0, 7, 1, 6]"));
+        assertEquals(0, r.illegalMoves);
+        assertEquals(0, r.errors);
+        assertEquals(r.aiGames, r.aiWins + r.aiDraws + r.aiLosses);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testHardKnownLosses() {
+        // A known failure, kept as found: to block a fork the rules make two in a row, even where the
+        // forced reply makes the fork anyway. These are the only games the hard AI loses.
+        GameTreeVerifier.Result r = new GameTreeVerifier(HardTicTacToeAI::new).verify(2);
+
+        assertEquals(List.of(
+                "As O, lost X.O/XO./XOX/ after [0, 4, 8, 6, 2, 5, 1]",
+                "As O, lost X.O/XO./XOX/ after [1, 4, 8, 6, 2, 5, 0]",
+                "As O, lost X.O/XO./XOX/ after [8, 4, 0, 6, 2, 5, 1]",
+                "As O, lost X.O/XO./XOX/ after [8, 4, 1, 6, 2, 5, 0]",
+                "As O, lost X.O/XO./XXO/ after [0, 4, 5, 6, 2, 8, 1]",
+                "As O, lost X.O/XO./XXO/ after [5, 4, 0, 6, 2, 8, 1]",
+                "As O, lost XOX/XO./X.O/ after [1, 4, 6, 8, 0, 3, 2]",
+                "As O, lost XOX/XO./X.O/ after [2, 4, 6, 8, 0, 3, 1]",
+                "As O, lost XOX/XO./X.O/ after [6, 4, 1, 8, 0, 3, 2]",
+                "As O, lost XOX/XO./X.O/ after [6, 4, 2, 8, 0, 3, 1]",
+                "As O, lost XXO/XO./X.O/ after [1, 4, 3, 8, 0, 6, 2]",
+                "As O, lost XXO/XO./X.O/ after [2, 4, 3, 8, 0, 6, 1]",
+                "As O, lost XXO/XO./X.O/ after [3, 4, 1, 8, 0, 6, 2]",
+                "As O, lost XXO/XO./X.O/ after [3, 4, 2, 8, 0, 6, 1]"), r.losses);
+        assertEquals(0, r.illegalMoves);
+        assertEquals(0, r.errors);
+        assertEquals(GameTreeVerifier.GAMES, r.games);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testRandomLoses() {
+        GameTreeVerifier.Result r = new GameTreeVerifier(RandomTicTacToeAI::new).verify(2);
+
+        assertFalse(r.passed());
+        assertTrue(r.aiLosses > 0);
+        assertEquals(0, r.illegalMoves);
+        assertNotNull(r.firstProblem);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testIllegalMovesAreCaught() {
+        GameTreeVerifier.Result r = new GameTreeVerifier(m -> new TicTacToeAI() {
+            @Override
+            public Point calculateMove() {
+                return new Point(0, 0);
+            }
+
+            @Override
+            public void submitMoveToAI(Point loc) {
+            }
+        }).verify(2);
+
+        assertFalse(r.passed());
+        assertTrue(r.illegalMoves > 0);
+        assertEquals(GameTreeVerifier.GAMES, r.games);
+    }
+}
@@ -0,0 +1,90 @@
+package edu.touro.cs.mcon364.tools;
+
+import edu.touro.cs.mcon364.jfr.*;
+import edu.touro.cs.mcon364.model.SearchTicTacToeAI;
+import edu.touro.cs.mcon364.model.TicTacToeModel;
+import edu.touro.cs.mcon364.model.TicTacToeModel.CellValue;
+import edu.touro.cs.mcon364.persistence.SaveStore;
+import jdk.jfr.Recording;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordingReportTest {
+    private Path dir;
+
+    @org.junit.jupiter.api.AfterEach
+    void deleteTempFiles() throws IOException {
+        if (dir == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void testSummarizesGameEvents() throws Exception {
+        dir = Files.createTempDirectory("jfr-test");
+        Path jfr = dir.resolve("game.jfr");
+
+        try (Recording recording = new Recording(); SaveStore store = new SaveStore(dir.resolve("save.bin"))) {
+            for (String name : new String[]{MoveEvent.NAME, AiMoveEvent.NAME, GameStartEvent.NAME,
+                    NewGameEvent.NAME, SaveEvent.NAME, RestoreEvent.NAME, "jdk.GCPhasePause", "jdk.SafepointBegin",
+                    "jdk.SafepointEnd"}) {
+                recording.enable(name).withoutThreshold();
+            }
+            recording.start();
+
+            TicTacToeModel model = new TicTacToeModel();
+            model.startGame(CellValue.O, m -> {
+                SearchTicTacToeAI ai = new SearchTicTacToeAI(m);
+                ai.setMaxDepth(4);
+                return ai;
+            });
+            model.makeMove(new Point(1, 1));
+            model.aiMove();
+            model.makeMove(new Point(0, 0));
+            model.aiMove();
+
+            store.save(model).get();
+            assertTrue(store.load().get().isPresent());
+            System.gc();
+            model.newGame();
+
+            recording.stop();
+            recording.dump(jfr);
+        }
+
+        RecordingReport report = RecordingReport.read(jfr, 1);
+        int moves = report.eventCounts.get(MoveEvent.NAME).intValue();
+        assertEquals(4, moves);
+        assertEquals(2L, report.eventCounts.get(AiMoveEvent.NAME).longValue());
+        assertEquals(2L, report.eventCounts.get(GameStartEvent.NAME).longValue()); // the restored game starts too
+        assertEquals(1L, report.eventCounts.get(NewGameEvent.NAME).longValue());
+        assertEquals(1, report.saves.getCount());
+        assertEquals(1, report.restores.getCount());
+        assertEquals(0, report.failedSaves + report.failedRestores);
+
+        RecordingReport.AiStats search = report.ais.get("SearchTicTacToeAI");
+        assertEquals(2, search.latency.getCount());
+        assertTrue(search.getMeanDepth() >= 1 && search.nodeSum > 0);
+
+        assertEquals(1, report.slowest.size());
+        assertEquals(search.latency.getMax(), report.slowest.get(0).durationNanos);
+        assertTrue(report.toString().contains("SearchTicTacToeAI"));
+
+        // System.gc() pauses at a safepoint, and the whole safepoint takes longer than the pause inside it
+        assertTrue(report.gcPauses.getCount() > 0);
+        assertTrue(report.safepoints.getCount() > 0);
+        assertTrue(report.safepoints.getMax() >= report.gcPauses.getMax());
+    }
+}
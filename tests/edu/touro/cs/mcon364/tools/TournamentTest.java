@@ -0,0 +1,73 @@
+package edu.touro.cs.mcon364.tools;
+
+import edu.touro.cs.mcon364.metrics.LogLinearBuckets;
+import edu.touro.cs.mcon364.model.HardTicTacToeAI;
+import edu.touro.cs.mcon364.model.PerfectPlayTicTacToeAI;
+import edu.touro.cs.mcon364.model.RandomTicTacToeAI;
+import edu.touro.cs.mcon364.model.TicTacToeAI;
+
+import java.awt.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentTest {
+    @org.junit.jupiter.api.Test
+    void testPerfectPlayNeverLosesToRandom() {
+        Tournament.Result r = new Tournament(PerfectPlayTicTacToeAI::new, RandomTicTacToeAI::new).play(5000, 4);
+
+        assertEquals(5000, r.getGames());
+        assertEquals(0, r.secondWins);
+        assertEquals(0, r.forfeits);
+        assertTrue(r.firstWins > r.draws);
+        assertEquals(r.moves, r.firstLatency.getCount() + r.secondLatency.getCount());
+    }
+
+    @org.junit.jupiter.api.Test
+    void testHardNeverBeatsPerfectPlay() {
+        Tournament.Result r = new Tournament(PerfectPlayTicTacToeAI::new, HardTicTacToeAI::new).play(200, 2);
+
+        assertEquals(0, r.secondWins);
+        assertEquals(0, r.forfeits);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testIllegalMoveForfeits() {
+        Tournament.Result r = new Tournament(m -> new TicTacToeAI() {
+            @Override
+            public Point calculateMove() {
+                return new Point(0, 0);
+            }
+
+            @Override
+            public void submitMoveToAI(Point loc) {
+            }
+        }, RandomTicTacToeAI::new).play(100, 2);
+
+        assertEquals(100, r.getGames());
+        assertEquals(r.forfeits, r.secondWins);
+        assertTrue(r.forfeits >= 50);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testHistogramPercentiles() {
+        LatencyHistogram h = new LatencyHistogram(), other = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            (i % 2 == 0 ? h : other).record(i * 1000L);
+        }
+        h.merge(other);
+
+        assertEquals(1000, h.getCount());
+        assertEquals(1_000_000, h.getMax());
+        assertEquals(500_500, h.getMean(), 1e-9);
+        assertTrue(Math.abs(h.getPercentile(50) - 500_000) <= 500_000 / 32);
+        assertTrue(Math.abs(h.getPercentile(99) - 990_000) <= 990_000 / 32);
+        assertEquals(1_000_000, h.getPercentile(100));
+
+        for (long v = 0; v < 1 << 20; v += 7) {
+            int bucket = LogLinearBuckets.bucketOf(v);
+            assertTrue(LogLinearBuckets.highestValueIn(bucket) >= v);
+            assertTrue(bucket == 0 || LogLinearBuckets.highestValueIn(bucket - 1) < v);
+        }
+        assertEquals(Long.MAX_VALUE, LogLinearBuckets.highestValueIn(LogLinearBuckets.bucketOf(Long.MAX_VALUE)));
+    }
+}